@@ -2,17 +2,23 @@ package com.afterlands.core.actions;
 
 import com.afterlands.core.actions.handlers.WaitHandler;
 import com.afterlands.core.concurrent.SchedulerService;
-import com.afterlands.core.conditions.ConditionContext;
+import com.afterlands.core.conditions.CompiledCondition;
 import com.afterlands.core.conditions.ConditionService;
 import com.afterlands.core.conditions.impl.EmptyConditionContext;
+import com.afterlands.core.metrics.MetricsService;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
 
 /**
  * Executor de actions com suporte a scopes (VIEWER, NEARBY, ALL) e delays.
@@ -22,7 +28,14 @@ import java.util.concurrent.CompletableFuture;
  * necessário.
  * </p>
  * <p>
- * Performance: Usa spatial queries eficientes para NEARBY scope.
+ * Performance: NEARBY é resolvido pelo {@link PlayerPositionIndex} do core
+ * (células de chunk ao redor da origem), sem percorrer os players do mundo;
+ * sem índice, percorre os players do mundo da origem.
+ * </p>
+ * <p>
+ * Batching: execuções de {@link #executeAsync} feitas fora da main thread no
+ * mesmo tick são drenadas por uma única task sync; condições são avaliadas
+ * inline no dreno e cada chamada tem um único future.
  * </p>
  */
 public final class ActionExecutor {
@@ -31,17 +44,66 @@ public final class ActionExecutor {
     private final ConditionService conditionService;
     private final SchedulerService scheduler;
     private final Map<String, ActionHandler> handlers;
+    private final ActionTimeline timeline;
+    private final PlayerPositionIndex positions;
+    private final MetricsService metrics;
     private final boolean debug;
 
+    // execuções aguardando o próximo dreno na main thread
+    private final ConcurrentLinkedQueue<Batch> pendingBatches = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    public ActionExecutor(@NotNull Plugin plugin,
+            @NotNull ConditionService conditionService,
+            @NotNull SchedulerService scheduler,
+            @NotNull Map<String, ActionHandler> handlers,
+            boolean debug) {
+        this(plugin, conditionService, scheduler, handlers, 0, debug);
+    }
+
+    public ActionExecutor(@NotNull Plugin plugin,
+            @NotNull ConditionService conditionService,
+            @NotNull SchedulerService scheduler,
+            @NotNull Map<String, ActionHandler> handlers,
+            int maxStepsPerTick,
+            boolean debug) {
+        this(plugin, conditionService, scheduler, handlers, maxStepsPerTick, null, debug);
+    }
+
+    /**
+     * @param maxStepsPerTick Limite de passos de timeline despachados por tick (&lt;= 0 = sem limite)
+     * @param metrics         Métricas dos drenos na main thread (opcional)
+     */
+    public ActionExecutor(@NotNull Plugin plugin,
+            @NotNull ConditionService conditionService,
+            @NotNull SchedulerService scheduler,
+            @NotNull Map<String, ActionHandler> handlers,
+            int maxStepsPerTick,
+            @Nullable MetricsService metrics,
+            boolean debug) {
+        this(plugin, conditionService, scheduler, handlers, maxStepsPerTick, null, metrics, debug);
+    }
+
+    /**
+     * @param maxStepsPerTick Limite de passos de timeline despachados por tick (&lt;= 0 = sem limite)
+     * @param positions       Índice de posições do core para NEARBY (null = percorre os players do mundo)
+     * @param metrics         Métricas dos drenos na main thread (opcional)
+     */
     public ActionExecutor(@NotNull Plugin plugin,
             @NotNull ConditionService conditionService,
             @NotNull SchedulerService scheduler,
             @NotNull Map<String, ActionHandler> handlers,
+            int maxStepsPerTick,
+            @Nullable PlayerPositionIndex positions,
+            @Nullable MetricsService metrics,
             boolean debug) {
         this.plugin = plugin;
         this.conditionService = conditionService;
         this.scheduler = scheduler;
         this.handlers = handlers;
+        this.timeline = new ActionTimeline(plugin, this::dispatchStep, maxStepsPerTick);
+        this.positions = positions;
+        this.metrics = metrics;
         this.debug = debug;
     }
 
@@ -60,6 +122,12 @@ public final class ActionExecutor {
     /**
      * Executa uma lista de actions em sequência, respeitando delays (wait).
      *
+     * <p>
+     * A lista é compilada em um {@link ActionProgram} e agendada na
+     * {@link ActionTimeline} (sem future/task por passo). Para sequências
+     * reexecutadas, prefira compilar uma vez via {@link ActionService#compile(List)}.
+     * </p>
+     *
      * @param specs  Lista de ActionSpec
      * @param viewer Player visualizador
      * @param origin Localização de origem
@@ -67,29 +135,121 @@ public final class ActionExecutor {
      */
     public CompletableFuture<Void> executeSequence(@NotNull List<ActionSpec> specs, @NotNull Player viewer,
             @NotNull Location origin) {
-        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        return execute(ActionProgram.compile(specs, handlers, conditionService, plugin.getLogger(), debug), viewer, origin);
+    }
+
+    /**
+     * Executa um programa pré-compilado ({@link ActionService#compile(List)}),
+     * respeitando os offsets dos waits.
+     *
+     * <p>
+     * Sem parsing nem lookup de handler: cada passo já traz handler, payload e
+     * condição compilada.
+     * </p>
+     *
+     * @return Future que completa quando o programa inteiro terminar (incluindo waits finais)
+     */
+    public CompletableFuture<Void> execute(@NotNull ActionProgram program, @NotNull Player viewer,
+            @NotNull Location origin) {
+        return schedule(program, viewer, origin).future();
+    }
+
+    /**
+     * Agenda um programa na timeline e retorna o handle (permite cancelar).
+     */
+    @NotNull
+    public ActionTimeline.Handle schedule(@NotNull ActionProgram program, @NotNull Player viewer,
+            @NotNull Location origin) {
+        return timeline.schedule(program, viewer, origin);
+    }
+
+    /**
+     * Cancela as timelines e as execuções ainda não drenadas.
+     */
+    public void shutdown() {
+        timeline.stop();
+        Batch batch;
+        while ((batch = pendingBatches.poll()) != null) {
+            batch.future.completeExceptionally(new CancellationException("ActionExecutor shutdown"));
+        }
+    }
 
-        for (ActionSpec spec : specs) {
-            chain = chain.thenCompose(v -> executeAsync(spec, viewer, origin));
+    /**
+     * Executa um passo da timeline para todos os targets (main thread; condições
+     * avaliadas inline).
+     */
+    private void dispatchStep(@NotNull ActionProgram.Step step, @NotNull Player viewer, @NotNull Location origin) {
+        ActionSpec spec = step.spec();
+        Collection<Player> targets = resolveTargets(spec.scope(), viewer, origin, spec.scopeRadius());
+        runForTargets(step.handler(), spec, step.payload(), step.condition(), targets);
+    }
+
+    /**
+     * Avalia a condição e executa o handler para os targets (main thread).
+     *
+     * <p>
+     * Em scopes ALL/NEARBY, um {@link BroadcastCapableHandler} recebe todos os
+     * targets aprovados de uma vez; se recusar, cai para execução por target.
+     * </p>
+     *
+     * @return Número de invocações do handler
+     */
+    private int runForTargets(@NotNull ActionHandler handler, @NotNull ActionSpec spec, @Nullable Object payload,
+            @Nullable CompiledCondition condition, @NotNull Collection<Player> targets) {
+        Collection<Player> accepted = targets;
+        if (condition != null) {
+            accepted = new ArrayList<>(targets.size());
+            for (Player target : targets) {
+                if (conditionService.evaluateSync(target, condition, EmptyConditionContext.getInstance())) {
+                    accepted.add(target);
+                }
+            }
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        if (handler instanceof BroadcastCapableHandler broadcaster && spec.scope() != ActionScope.VIEWER
+                && accepted.size() > 1) {
+            try {
+                if (broadcaster.broadcast(accepted, spec, payload)) {
+                    return 1;
+                }
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Erro executando action: " + spec.rawLine(), e);
+                return 1;
+            }
         }
 
-        return chain;
+        int invocations = 0;
+        for (Player target : accepted) {
+            try {
+                handler.execute(target, spec, payload);
+                invocations++;
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Erro executando action: " + spec.rawLine(), e);
+            }
+        }
+        return invocations;
     }
 
     /**
      * Executa uma action de forma assíncrona (retorna Future).
      * Suporta 'wait' (delay) e scopes.
+     *
+     * <p>
+     * Na main thread executa na hora. Fora dela, a execução entra no dreno do
+     * próximo tick junto com as demais do mesmo tick (uma task sync no total,
+     * não uma por target).
+     * </p>
+     *
+     * @return Future único que completa após todos os targets serem processados
      */
     public CompletableFuture<Void> executeAsync(@NotNull ActionSpec spec, @NotNull Player viewer,
             @NotNull Location origin) {
         // Verificar se é 'wait'
-        if (spec.typeKey().equalsIgnoreCase("wait") || spec.typeKey().equalsIgnoreCase("delay")) {
-            long ticks = 20; // Default 1s
-            try {
-                ticks = Long.parseLong(spec.rawArgs().trim());
-            } catch (NumberFormatException ignored) {
-            }
-            return scheduler.delay(ticks);
+        if (WaitHandler.isWait(spec)) {
+            return scheduler.delay(WaitHandler.ticks(spec));
         }
 
         // Action normal
@@ -114,40 +274,67 @@ public final class ActionExecutor {
             return CompletableFuture.completedFuture(null);
         }
 
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        CompiledCondition condition = null;
+        Object payload;
+        try {
+            if (spec.condition() != null && !spec.condition().isEmpty()) {
+                condition = conditionService.compile(spec.condition());
+            }
+            // argumentos interpretados uma vez para todos os targets
+            payload = handler.prepare(spec);
+        } catch (RuntimeException e) {
+            // condição/argumentos inválidos: nada a executar
+            if (debug) {
+                plugin.getLogger().warning("Ignorando action '" + spec.rawLine() + "': " + e.getMessage());
+            }
+            return CompletableFuture.completedFuture(null);
+        }
 
-        for (Player target : targets) {
-            futures.add(executeForTargetAsync(spec, target, handler));
+        Batch batch = new Batch(spec, handler, payload, condition, targets);
+        if (Bukkit.isPrimaryThread()) {
+            recordDrain(runBatch(batch));
+            return batch.future;
         }
 
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        pendingBatches.add(batch);
+        if (drainScheduled.compareAndSet(false, true)) {
+            scheduler.runSync(this::drainBatches);
+        }
+        return batch.future;
     }
 
     /**
-     * Executa action para um target específico (com checagem de condição).
+     * Executa todas as execuções pendentes (main thread).
      */
-    private CompletableFuture<Void> executeForTargetAsync(@NotNull ActionSpec spec, @NotNull Player target,
-            @NotNull ActionHandler handler) {
-        // Se tem condição, avaliar na main thread antes de executar
-        if (spec.condition() != null && !spec.condition().isEmpty()) {
-            return scheduler.supplySync(() -> {
-                ConditionContext ctx = EmptyConditionContext.getInstance();
-                return conditionService.evaluateSync(target, spec.condition(), ctx);
-            }).thenCompose(met -> {
-                if (!met) {
-                    return CompletableFuture.completedFuture(null);
-                }
-                return runHandler(target, spec, handler);
-            });
+    private void drainBatches() {
+        // liberar antes de drenar: o que chegar durante o dreno agenda outro
+        drainScheduled.set(false);
+
+        int invocations = 0;
+        Batch batch;
+        while ((batch = pendingBatches.poll()) != null) {
+            invocations += runBatch(batch);
         }
+        recordDrain(invocations);
+    }
 
-        return runHandler(target, spec, handler);
+    /**
+     * Executa uma chamada pendente e completa seu future (main thread).
+     *
+     * @return Número de invocações do handler
+     */
+    private int runBatch(Batch batch) {
+        int invocations = runForTargets(batch.handler, batch.spec, batch.payload, batch.condition, batch.targets);
+        batch.future.complete(null);
+        return invocations;
     }
 
-    private CompletableFuture<Void> runHandler(Player target, ActionSpec spec, ActionHandler handler) {
-        // Executar handler (garantir main thread)
-        // A maioria dos handlers do Bukkit precisa rodar na main thread
-        return scheduler.runSync(() -> handler.execute(target, spec));
+    private void recordDrain(int invocations) {
+        if (metrics != null) {
+            metrics.increment("actions.drains");
+            metrics.increment("actions.drain_invocations", invocations);
+            metrics.gauge("actions.invocations_per_drain", invocations);
+        }
     }
 
     /**
@@ -173,21 +360,23 @@ public final class ActionExecutor {
     }
 
     /**
-     * Obtém players próximos de uma localização (otimizado).
+     * Obtém players próximos de uma localização.
      *
      * <p>
-     * Performance: O(chunks × players_per_chunk) em vez de O(all_players)
+     * Performance: com índice, O(chunks no raio + players nessas chunks) em vez
+     * de O(players do mundo); sem {@code getLocation()} por player.
      * </p>
      */
     private Collection<Player> getNearbyPlayers(@NotNull Location origin, int radius) {
         if (radius <= 0) {
             radius = 32; // default
         }
+        if (positions != null) {
+            return positions.nearby(origin, radius);
+        }
 
-        Set<Player> result = new HashSet<>();
-        double radiusSquared = radius * radius;
-
-        // Iterar apenas pelo mundo da origem
+        List<Player> result = new ArrayList<>();
+        double radiusSquared = (double) radius * radius;
         if (origin.getWorld() != null) {
             for (Player player : origin.getWorld().getPlayers()) {
                 if (player.getLocation().distanceSquared(origin) <= radiusSquared) {
@@ -195,7 +384,6 @@ public final class ActionExecutor {
                 }
             }
         }
-
         return result;
     }
 
@@ -206,4 +394,25 @@ public final class ActionExecutor {
         String key = actionType.toLowerCase(Locale.ROOT);
         return handlers.containsKey(key) || key.equals("wait") || key.equals("delay");
     }
+
+    /**
+     * Uma chamada de {@link #executeAsync} com os targets já resolvidos.
+     */
+    private static final class Batch {
+        final ActionSpec spec;
+        final ActionHandler handler;
+        final Object payload;
+        final CompiledCondition condition;
+        final Collection<Player> targets;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Batch(ActionSpec spec, ActionHandler handler, Object payload, CompiledCondition condition,
+                Collection<Player> targets) {
+            this.spec = spec;
+            this.handler = handler;
+            this.payload = payload;
+            this.condition = condition;
+            this.targets = targets;
+        }
+    }
 }
@@ -2,14 +2,40 @@ package com.afterlands.core.actions;
 
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Handler genérico (plugins registram suas actions).
  *
  * <p>Execução não é implementada no core nesta fase; este contrato é o ponto de extensão.</p>
+ *
+ * <p><b>Pré-processamento:</b> handlers que interpretam {@code rawArgs} podem
+ * implementar {@link #prepare(ActionSpec)} para fazer o parsing uma única vez em
+ * {@link ActionService#compile(java.util.List)}; o resultado volta em
+ * {@link #execute(Player, ActionSpec, Object)} a cada execução.</p>
  */
 @FunctionalInterface
 public interface ActionHandler {
     void execute(@NotNull Player target, @NotNull ActionSpec spec);
-}
 
+    /**
+     * Interpreta os argumentos da action uma vez (ex.: som, volume e pitch).
+     *
+     * <p>Não deve depender do player nem do estado do mundo. Pode ser chamado em qualquer thread.</p>
+     *
+     * @return Payload tipado do handler, ou null se não houver pré-processamento
+     */
+    @Nullable
+    default Object prepare(@NotNull ActionSpec spec) {
+        return null;
+    }
+
+    /**
+     * Executa com o payload de {@link #prepare(ActionSpec)}.
+     *
+     * <p>Padrão: ignora o payload e chama {@link #execute(Player, ActionSpec)}.</p>
+     */
+    default void execute(@NotNull Player target, @NotNull ActionSpec spec, @Nullable Object prepared) {
+        execute(target, spec);
+    }
+}
@@ -0,0 +1,134 @@
+package com.afterlands.core.actions;
+
+import com.afterlands.core.actions.handlers.WaitHandler;
+import com.afterlands.core.conditions.CompiledCondition;
+import com.afterlands.core.conditions.ConditionService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Sequência de actions pré-compilada via {@link ActionService#compile(List)}.
+ *
+ * <p>
+ * Tudo que não depende do player é resolvido na compilação: handler (sem
+ * lookup por string), argumentos interpretados por
+ * {@link ActionHandler#prepare(ActionSpec)}, condição compilada e o tick de
+ * cada passo (os {@code wait}/{@code delay} viram offsets e não são passos).
+ * Executar o programa ({@link ActionExecutor#execute(ActionProgram, org.bukkit.entity.Player, org.bukkit.Location)})
+ * não faz parsing.
+ * </p>
+ *
+ * <p>
+ * Handlers registrados depois da compilação não afetam o programa.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Imutável (desde que os payloads dos handlers sejam).
+ * </p>
+ */
+public final class ActionProgram {
+
+    private static final ActionProgram EMPTY = new ActionProgram(List.of(), 0);
+
+    private final List<Step> steps;
+    private final long durationTicks;
+
+    /**
+     * @param steps         Passos em ordem de execução (offsets não decrescentes)
+     * @param durationTicks Duração total, incluindo waits após o último passo
+     */
+    public ActionProgram(@NotNull List<Step> steps, long durationTicks) {
+        this.steps = List.copyOf(steps);
+        this.durationTicks = durationTicks;
+    }
+
+    @NotNull
+    public static ActionProgram empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Compila specs já parseadas.
+     *
+     * <p>Actions sem handler e condições/argumentos inválidos são descartados
+     * (mesmo efeito de executá-los).</p>
+     *
+     * @param handlers   Registry de handlers (chaves em lower-case)
+     * @param conditions Serviço usado para compilar as condições
+     * @param logger     Logger do plugin
+     * @param debug      Loga as actions descartadas
+     */
+    @NotNull
+    public static ActionProgram compile(@NotNull List<ActionSpec> specs, @NotNull Map<String, ActionHandler> handlers,
+            @NotNull ConditionService conditions, @NotNull Logger logger, boolean debug) {
+        List<Step> steps = new ArrayList<>(specs.size());
+        long offset = 0;
+
+        for (ActionSpec spec : specs) {
+            if (WaitHandler.isWait(spec)) {
+                offset += Math.max(0, WaitHandler.ticks(spec));
+                continue;
+            }
+
+            ActionHandler handler = handlers.get(spec.typeKey().toLowerCase(Locale.ROOT));
+            if (handler == null || handler instanceof WaitHandler) {
+                continue;
+            }
+
+            CompiledCondition condition = null;
+            Object payload;
+            try {
+                if (spec.condition() != null && !spec.condition().isEmpty()) {
+                    condition = conditions.compile(spec.condition());
+                }
+                payload = handler.prepare(spec);
+            } catch (RuntimeException e) {
+                if (debug) {
+                    logger.warning("Ignorando action '" + spec.rawLine() + "': " + e.getMessage());
+                }
+                continue;
+            }
+            steps.add(new Step(spec, handler, payload, condition, offset));
+        }
+
+        if (steps.isEmpty() && offset == 0) {
+            return EMPTY;
+        }
+        return new ActionProgram(steps, offset);
+    }
+
+    @NotNull
+    public List<Step> steps() {
+        return steps;
+    }
+
+    /**
+     * Ticks entre o início e o fim do programa.
+     */
+    public long durationTicks() {
+        return durationTicks;
+    }
+
+    public boolean isEmpty() {
+        return steps.isEmpty();
+    }
+
+    /**
+     * Passo do programa.
+     *
+     * @param spec        Action original (scope, raio, rawArgs)
+     * @param handler     Handler resolvido
+     * @param payload     Resultado de {@link ActionHandler#prepare(ActionSpec)} (pode ser null)
+     * @param condition   Condição compilada, ou null se não houver
+     * @param offsetTicks Tick do passo a partir do início do programa
+     */
+    public record Step(@NotNull ActionSpec spec, @NotNull ActionHandler handler, @Nullable Object payload,
+            @Nullable CompiledCondition condition, long offsetTicks) {
+    }
+}
@@ -3,6 +3,7 @@ package com.afterlands.core.actions;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -19,6 +20,15 @@ public interface ActionService {
 
     @Nullable ActionSpec parse(@NotNull String line);
 
+    /**
+     * Compila uma lista de actions em um {@link ActionProgram} imutável.
+     *
+     * <p>Linhas inválidas, actions sem handler e condições inválidas são
+     * descartadas (mesmo efeito de executá-las). Guarde o programa e execute-o
+     * quantas vezes precisar.</p>
+     */
+    @NotNull ActionProgram compile(@NotNull List<String> lines);
+
     void registerHandler(@NotNull String actionTypeKey, @NotNull ActionHandler handler);
 
     /**
@@ -0,0 +1,317 @@
+package com.afterlands.core.actions;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Scheduler de timelines de actions: uma timing wheel avançada por uma única
+ * task repetida (1 tick).
+ *
+ * <p>
+ * <b>Modelo:</b> cada execução de um {@link ActionProgram} vira entradas
+ * (tick, passo) na roda; a cada tick todas as entradas vencidas são
+ * despachadas em uma passada, na ordem em que foram agendadas. Não há
+ * {@code CompletableFuture} nem task Bukkit por passo ou por wait: só um
+ * future por execução, completado após {@link ActionProgram#durationTicks()}.
+ * </p>
+ *
+ * <p>
+ * <b>Limite por tick:</b> no máximo {@code maxStepsPerTick} passos por tick; o
+ * excedente é adiado para o próximo tick, mantendo a ordem.
+ * </p>
+ *
+ * <p>
+ * <b>Ociosidade:</b> a task para quando a roda, o carry e os agendamentos
+ * pendentes ficam vazios, e volta no próximo {@link #schedule}. Entradas de
+ * execuções canceladas saem da roda na primeira visita ao bucket.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> {@link #schedule} é thread-safe. Chamado na main thread,
+ * os passos do tick 0 rodam na hora; fora dela, entram na roda no próximo tick.
+ * A roda em si só é acessada na main thread.
+ * </p>
+ */
+public final class ActionTimeline {
+
+    // potência de 2; offsets maiores dão "voltas" (entrada fica no bucket até vencer)
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /**
+     * Executa um passo para uma execução (na main thread).
+     */
+    @FunctionalInterface
+    public interface StepDispatcher {
+        void dispatch(@NotNull ActionProgram.Step step, @NotNull Player viewer, @NotNull Location origin);
+    }
+
+    private final Plugin plugin;
+    private final Logger logger;
+    private final StepDispatcher dispatcher;
+    private final int maxStepsPerTick;
+
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Entry>[] wheel = new ArrayDeque[WHEEL_SIZE];
+    // vencidas que não couberam no limite do tick anterior
+    private final ArrayDeque<Entry> carry = new ArrayDeque<>();
+    // agendamentos feitos fora da main thread
+    private final ConcurrentLinkedQueue<Run> pending = new ConcurrentLinkedQueue<>();
+
+    private long tick;
+    // entradas na roda + carry (main thread)
+    private int live;
+    private volatile BukkitTask task;
+
+    /**
+     * @param maxStepsPerTick Passos despachados por tick (&lt;= 0 = sem limite)
+     */
+    public ActionTimeline(@NotNull Plugin plugin, @NotNull StepDispatcher dispatcher, int maxStepsPerTick) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        this.dispatcher = dispatcher;
+        this.maxStepsPerTick = maxStepsPerTick <= 0 ? Integer.MAX_VALUE : maxStepsPerTick;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Agenda a execução de um programa.
+     *
+     * @return Handle para cancelar/aguardar a execução
+     */
+    @NotNull
+    public Handle schedule(@NotNull ActionProgram program, @NotNull Player viewer, @NotNull Location origin) {
+        Run run = new Run(program, viewer, origin);
+        if (program.isEmpty() && program.durationTicks() <= 0) {
+            run.handle.future.complete(null);
+            return run.handle;
+        }
+        if (Bukkit.isPrimaryThread()) {
+            insert(run);
+            if (live > 0) {
+                ensureStarted();
+            }
+        } else {
+            // enfileira antes de ligar: park() só para a task com pending vazio
+            pending.add(run);
+            ensureStarted();
+        }
+        return run.handle;
+    }
+
+    /**
+     * Para a task e cancela todas as execuções pendentes.
+     */
+    public void stop() {
+        synchronized (this) {
+            BukkitTask current = task;
+            if (current != null) {
+                current.cancel();
+                task = null;
+            }
+        }
+        Run run;
+        while ((run = pending.poll()) != null) {
+            run.handle.cancel();
+        }
+        cancelAll(carry);
+        for (ArrayDeque<Entry> bucket : wheel) {
+            cancelAll(bucket);
+        }
+        live = 0;
+    }
+
+    private synchronized void ensureStarted() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::advance, 1L, 1L);
+        }
+    }
+
+    /**
+     * Para a task se não houver mais nada agendado (main thread).
+     */
+    private synchronized void park() {
+        if (live == 0 && pending.isEmpty() && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Insere os passos de uma execução a partir do tick atual (main thread).
+     * Passos do offset 0 rodam imediatamente.
+     */
+    private void insert(Run run) {
+        for (ActionProgram.Step step : run.program.steps()) {
+            if (step.offsetTicks() <= 0) {
+                dispatch(new Entry(run, step, tick));
+            } else {
+                add(new Entry(run, step, tick + step.offsetTicks()));
+            }
+        }
+        // marcador de fim (waits após o último passo)
+        if (run.program.durationTicks() <= 0) {
+            run.endReached = true;
+            run.tryComplete();
+        } else {
+            add(new Entry(run, null, tick + run.program.durationTicks()));
+        }
+    }
+
+    private void add(Entry entry) {
+        wheel[(int) (entry.dueTick & WHEEL_MASK)].addLast(entry);
+        live++;
+    }
+
+    private void advance() {
+        tick++;
+
+        Run run;
+        while ((run = pending.poll()) != null) {
+            if (!run.handle.isCancelled()) {
+                insert(run);
+            }
+        }
+
+        int budget = maxStepsPerTick;
+        while (!carry.isEmpty() && budget > 0) {
+            live--;
+            budget -= dispatch(carry.pollFirst());
+        }
+
+        ArrayDeque<Entry> bucket = wheel[(int) (tick & WHEEL_MASK)];
+        int size = bucket.size();
+        for (int i = 0; i < size; i++) {
+            Entry entry = bucket.pollFirst();
+            if (entry.run.handle.isCancelled()) {
+                live--;
+            } else if (entry.dueTick > tick) {
+                bucket.addLast(entry); // próxima volta da roda
+            } else if (budget > 0 || entry.step == null) {
+                live--;
+                budget -= dispatch(entry);
+            } else {
+                carry.addLast(entry); // continua contada em live
+            }
+        }
+
+        if (live == 0) {
+            park();
+        }
+    }
+
+    /**
+     * @return 1 se um passo foi despachado, 0 caso contrário
+     */
+    private int dispatch(Entry entry) {
+        Run run = entry.run;
+        if (run.handle.isCancelled()) {
+            return 0;
+        }
+        if (entry.step == null) {
+            run.endReached = true;
+            run.tryComplete();
+            return 0;
+        }
+        try {
+            dispatcher.dispatch(entry.step, run.viewer, run.origin);
+        } catch (Throwable t) {
+            logger.log(Level.WARNING, "Erro executando action: " + entry.step.spec().rawLine(), t);
+        }
+        run.dispatched++;
+        run.tryComplete();
+        return 1;
+    }
+
+    private static void cancelAll(ArrayDeque<Entry> entries) {
+        Entry entry;
+        while ((entry = entries.pollFirst()) != null) {
+            entry.run.handle.cancel();
+        }
+    }
+
+    /**
+     * Handle de uma execução agendada.
+     */
+    public static final class Handle {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile boolean cancelled;
+
+        private Handle() {
+        }
+
+        /**
+         * Cancela os passos ainda não executados. O future completa com
+         * {@link CancellationException}.
+         */
+        public void cancel() {
+            if (!cancelled && !future.isDone()) {
+                cancelled = true;
+                future.cancel(false);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        /**
+         * Completa quando o programa termina (incluindo waits finais).
+         */
+        @NotNull
+        public CompletableFuture<Void> future() {
+            return future;
+        }
+    }
+
+    private static final class Run {
+        final ActionProgram program;
+        final Player viewer;
+        final Location origin;
+        final Handle handle = new Handle();
+        // main thread
+        int dispatched;
+        boolean endReached;
+
+        Run(ActionProgram program, Player viewer, Location origin) {
+            this.program = program;
+            this.viewer = viewer;
+            this.origin = origin;
+        }
+
+        void tryComplete() {
+            if (endReached && dispatched >= program.steps().size()) {
+                handle.future.complete(null);
+            }
+        }
+    }
+
+    private static final class Entry {
+        final Run run;
+        final ActionProgram.Step step; // null = fim da execução
+        final long dueTick;
+
+        Entry(Run run, ActionProgram.Step step, long dueTick) {
+            this.run = run;
+            this.step = step;
+            this.dueTick = dueTick;
+        }
+    }
+}
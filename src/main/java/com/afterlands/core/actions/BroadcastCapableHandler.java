@@ -0,0 +1,37 @@
+package com.afterlands.core.actions;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+
+/**
+ * Handler capaz de enviar o mesmo pacote a vários targets.
+ *
+ * <p>
+ * Para scopes {@link ActionScope#ALL} e {@link ActionScope#NEARBY}, o
+ * {@link ActionExecutor} chama {@link #broadcast} uma vez com todos os targets
+ * que passaram na condição, em vez de {@code execute} por target. O handler
+ * monta o pacote uma vez e o escreve na conexão de cada target.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Chamado na main thread.
+ * </p>
+ */
+public interface BroadcastCapableHandler extends ActionHandler {
+
+    /**
+     * Envia a action a todos os targets de uma vez.
+     *
+     * @param targets  Targets (já filtrados pela condição)
+     * @param spec     Action
+     * @param prepared Payload de {@link #prepare(ActionSpec)}
+     * @return false se o payload depende do player (ex.: placeholders) ou não
+     *         houver envio por pacote; nesse caso nada foi enviado e o executor
+     *         chama {@code execute} por target
+     */
+    boolean broadcast(@NotNull Collection<? extends Player> targets, @NotNull ActionSpec spec,
+            @Nullable Object prepared);
+}
@@ -0,0 +1,224 @@
+package com.afterlands.core.actions;
+
+import com.afterlands.core.spatial.ChunkKey;
+import com.afterlands.core.spatial.ChunkSpatialIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Posição dos players online em um grid de chunks por mundo
+ * ({@link ChunkSpatialIndex}), usado para resolver o scope NEARBY.
+ *
+ * <p>
+ * Serviço único do core: criado e iniciado pelo {@code PluginRegistry} e
+ * compartilhado pelos {@link ActionExecutor}s.
+ * </p>
+ *
+ * <p>
+ * <b>Atualização:</b> join, quit, move, teleport, respawn e movimento de
+ * veículo. Dentro do mesmo chunk só as coordenadas são atualizadas; a troca de
+ * célula é publicada atomicamente via {@link ChunkSpatialIndex#batch}.
+ * </p>
+ *
+ * <p>
+ * <b>Consulta:</b> {@link #nearby(Location, int)} visita só as células que
+ * cobrem o raio e testa a distância ao quadrado em coordenadas primitivas (sem
+ * {@code getLocation()} por player).
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Eventos na main thread; {@link #nearby} pode ser
+ * chamado de qualquer thread (lê o snapshot publicado do índice e coordenadas
+ * publicadas como um único objeto imutável).
+ * </p>
+ */
+public final class PlayerPositionIndex implements Listener {
+
+    private final ChunkSpatialIndex<Position> index = new ChunkSpatialIndex<>();
+    private final Map<UUID, Position> positions = new ConcurrentHashMap<>();
+
+    /**
+     * Registra os listeners e indexa os players já online (reload/enable
+     * tardio). Main thread.
+     */
+    public void start(@NotNull Plugin plugin) {
+        HandlerList.unregisterAll(this);
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            update(player, player.getLocation());
+        }
+    }
+
+    /**
+     * Remove os listeners e descarta as posições.
+     */
+    public void stop() {
+        HandlerList.unregisterAll(this);
+        positions.clear();
+        index.clear();
+    }
+
+    /**
+     * Players a até {@code radius} blocos de {@code origin} (distância 3D).
+     */
+    @NotNull
+    public List<Player> nearby(@NotNull Location origin, int radius) {
+        World world = origin.getWorld();
+        if (world == null) {
+            return Collections.emptyList();
+        }
+        ChunkSpatialIndex.WorldHandle handle = index.findWorld(world.getName());
+        if (handle == null) {
+            return Collections.emptyList();
+        }
+
+        double ox = origin.getX();
+        double oy = origin.getY();
+        double oz = origin.getZ();
+        double radiusSquared = (double) radius * radius;
+        int minCx = ChunkKey.blockToChunk((int) Math.floor(ox - radius));
+        int maxCx = ChunkKey.blockToChunk((int) Math.floor(ox + radius));
+        int minCz = ChunkKey.blockToChunk((int) Math.floor(oz - radius));
+        int maxCz = ChunkKey.blockToChunk((int) Math.floor(oz + radius));
+
+        List<Player> result = new ArrayList<>();
+        ChunkSpatialIndex.Snapshot<Position> snapshot = index.snapshot();
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cz = minCz; cz <= maxCz; cz++) {
+                snapshot.forEachInChunk(handle, cx, cz, position -> {
+                    Coords coords = position.coords;
+                    double dx = coords.x() - ox;
+                    double dy = coords.y() - oy;
+                    double dz = coords.z() - oz;
+                    if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                        result.add(position.player);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        Position position = positions.remove(event.getPlayer().getUniqueId());
+        if (position != null) {
+            index.unregister(position.world.getName(), position.chunkX, position.chunkZ, position);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        update(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        update(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        update(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(VehicleMoveEvent event) {
+        // players montados não disparam PlayerMoveEvent
+        Entity passenger = event.getVehicle().getPassenger();
+        if (passenger instanceof Player player) {
+            update(player, event.getTo());
+        }
+    }
+
+    private void update(Player player, Location to) {
+        if (to == null || to.getWorld() == null) {
+            return;
+        }
+        World world = to.getWorld();
+        int chunkX = ChunkKey.blockToChunk(to.getBlockX());
+        int chunkZ = ChunkKey.blockToChunk(to.getBlockZ());
+
+        Position position = positions.get(player.getUniqueId());
+        if (position == null) {
+            position = new Position(player);
+            position.moveTo(to, world, chunkX, chunkZ);
+            positions.put(player.getUniqueId(), position);
+            index.register(world.getName(), chunkX, chunkZ, position);
+            return;
+        }
+
+        if (position.world == world && position.chunkX == chunkX && position.chunkZ == chunkZ) {
+            position.moveTo(to, world, chunkX, chunkZ);
+            return;
+        }
+
+        // troca de célula: remove + registra publicados juntos
+        String fromWorld = position.world.getName();
+        int fromX = position.chunkX;
+        int fromZ = position.chunkZ;
+        Position moved = position;
+        moved.moveTo(to, world, chunkX, chunkZ);
+        index.batch(idx -> {
+            idx.unregister(fromWorld, fromX, fromZ, moved);
+            idx.register(world.getName(), chunkX, chunkZ, moved);
+        });
+    }
+
+    /**
+     * Posição de um player (identidade = valor no índice).
+     */
+    private static final class Position {
+        final Player player;
+        // escrito na main thread; lido por consultas de qualquer thread
+        volatile Coords coords;
+        // main thread
+        World world;
+        int chunkX;
+        int chunkZ;
+
+        Position(Player player) {
+            this.player = player;
+        }
+
+        void moveTo(Location to, World world, int chunkX, int chunkZ) {
+            this.coords = new Coords(to.getX(), to.getY(), to.getZ());
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+    }
+
+    /**
+     * Coordenadas publicadas juntas (sem leitura parcial fora da main thread).
+     */
+    private record Coords(double x, double y, double z) {
+    }
+}
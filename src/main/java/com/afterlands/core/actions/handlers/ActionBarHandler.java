@@ -1,13 +1,14 @@
 package com.afterlands.core.actions.handlers;
 
-import com.afterlands.core.actions.ActionHandler;
 import com.afterlands.core.actions.ActionSpec;
+import com.afterlands.core.actions.BroadcastCapableHandler;
+import com.afterlands.core.util.reflect.NmsPackets;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
+import java.util.Collection;
 
 /**
  * Handler para enviar mensagens na action bar (barra acima do hotbar).
@@ -26,77 +27,63 @@ import java.lang.reflect.Method;
  * </pre>
  *
  * <p>Compatibilidade: Spigot 1.8.8+ (usa NMS para 1.8.8, Spigot API para versões mais novas)</p>
+ * <p>Sem placeholders, a action bar para vários targets é um único pacote
+ * ({@link BroadcastCapableHandler}).</p>
  */
-public final class ActionBarHandler implements ActionHandler {
+public final class ActionBarHandler implements BroadcastCapableHandler {
 
-    // NMS reflection caching (para 1.8.8)
-    private static Class<?> chatSerializerClass;
-    private static Class<?> packetClass;
-    private static Constructor<?> packetConstructor;
-    private static Method serializeMethod;
-    private static Method getHandleMethod;
-    private static Object playerConnectionField;
-    private static Method sendPacketMethod;
-
-    static {
-        try {
-            // Tentar inicializar NMS (1.8.8)
-            String version = org.bukkit.Bukkit.getServer().getClass().getPackage().getName().split("\\.")[3];
-            chatSerializerClass = Class.forName("net.minecraft.server." + version + ".IChatBaseComponent$ChatSerializer");
-            packetClass = Class.forName("net.minecraft.server." + version + ".PacketPlayOutChat");
-
-            // PacketPlayOutChat(IChatBaseComponent, byte) - byte 2 = action bar
-            Class<?> baseComponentClass = Class.forName("net.minecraft.server." + version + ".IChatBaseComponent");
-            packetConstructor = packetClass.getConstructor(baseComponentClass, byte.class);
+    @Override
+    public void execute(@NotNull Player target, @NotNull ActionSpec spec) {
+        execute(target, spec, prepare(spec));
+    }
 
-            serializeMethod = chatSerializerClass.getMethod("a", String.class);
+    @Override
+    public void execute(@NotNull Player target, @NotNull ActionSpec spec, @Nullable Object prepared) {
+        if (!(prepared instanceof Params params)) {
+            return;
+        }
 
-            Class<?> craftPlayerClass = Class.forName("org.bukkit.craftbukkit." + version + ".entity.CraftPlayer");
-            getHandleMethod = craftPlayerClass.getMethod("getHandle");
+        String colored = params.colored();
+        if (params.placeholders() && PlaceholderUtil.isAvailable()) {
+            // Processar PlaceholderAPI (main thread) e color codes
+            colored = ChatColor.translateAlternateColorCodes('&', PlaceholderUtil.process(target, params.raw()));
+        }
 
-            Class<?> entityPlayerClass = Class.forName("net.minecraft.server." + version + ".EntityPlayer");
-            playerConnectionField = entityPlayerClass.getField("playerConnection");
+        // Enviar action bar
+        sendActionBar(target, colored);
+    }
 
-            Class<?> playerConnectionClass = Class.forName("net.minecraft.server." + version + ".PlayerConnection");
-            Class<?> packetSuperClass = Class.forName("net.minecraft.server." + version + ".Packet");
-            sendPacketMethod = playerConnectionClass.getMethod("sendPacket", packetSuperClass);
-        } catch (Exception e) {
-            // NMS não disponível, fallback para APIs modernas
-            chatSerializerClass = null;
+    @Override
+    public boolean broadcast(@NotNull Collection<? extends Player> targets, @NotNull ActionSpec spec,
+            @Nullable Object prepared) {
+        if (!(prepared instanceof Params params) || (params.placeholders() && PlaceholderUtil.isAvailable())) {
+            return false;
         }
+        return PacketBroadcaster.send(targets,
+                NmsPackets.chatPacket(NmsPackets.textJson(params.colored()), NmsPackets.ACTION_BAR));
     }
 
     @Override
-    public void execute(@NotNull Player target, @NotNull ActionSpec spec) {
+    public @Nullable Object prepare(@NotNull ActionSpec spec) {
         String rawMessage = spec.rawArgs();
         if (rawMessage == null || rawMessage.isEmpty()) {
-            return;
+            return null;
         }
-
-        // Processar PlaceholderAPI (main thread)
-        String processed = PlaceholderUtil.process(target, rawMessage);
-
-        // Processar color codes
-        String colored = ChatColor.translateAlternateColorCodes('&', processed);
-
-        // Enviar action bar
-        sendActionBar(target, colored);
+        // Sem PAPI (ou sem placeholders) o texto final já é conhecido
+        return new Params(rawMessage, ChatColor.translateAlternateColorCodes('&', rawMessage),
+                PlaceholderUtil.hasPlaceholders(rawMessage));
     }
 
     /**
      * Envia action bar usando NMS (1.8.8) ou fallback para chat normal.
      */
     private void sendActionBar(Player player, String message) {
-        if (chatSerializerClass != null) {
-            // Usar NMS (1.8.8)
+        if (NmsPackets.isAvailable()) {
             try {
-                Object chatComponent = serializeMethod.invoke(null, "{\"text\":\"" + escapeJson(message) + "\"}");
-                Object packet = packetConstructor.newInstance(chatComponent, (byte) 2); // 2 = action bar
-
-                Object nmsPlayer = getHandleMethod.invoke(player);
-                Object connection = ((java.lang.reflect.Field) playerConnectionField).get(nmsPlayer);
-                sendPacketMethod.invoke(connection, packet);
-                return;
+                Object packet = NmsPackets.chatPacket(NmsPackets.textJson(message), NmsPackets.ACTION_BAR);
+                if (packet != null && NmsPackets.sendPacket(player, packet)) {
+                    return;
+                }
             } catch (Exception e) {
                 // Falhou, fallback
             }
@@ -107,13 +94,9 @@ public final class ActionBarHandler implements ActionHandler {
     }
 
     /**
-     * Escapa JSON para uso seguro em componentes de chat.
+     * @param colored      Texto com color codes, sem placeholders resolvidos
+     * @param placeholders Se contém {@code %placeholder%} (por player quando o PAPI estiver disponível)
      */
-    private String escapeJson(String text) {
-        return text.replace("\\", "\\\\")
-                   .replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
+    private record Params(String raw, String colored, boolean placeholders) {
     }
 }
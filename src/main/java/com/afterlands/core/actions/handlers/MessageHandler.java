@@ -1,10 +1,14 @@
 package com.afterlands.core.actions.handlers;
 
-import com.afterlands.core.actions.ActionHandler;
 import com.afterlands.core.actions.ActionSpec;
+import com.afterlands.core.actions.BroadcastCapableHandler;
+import com.afterlands.core.util.reflect.NmsPackets;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
 
 /**
  * Handler para enviar mensagens no chat.
@@ -23,26 +27,65 @@ import org.jetbrains.annotations.NotNull;
  * message: &7Você tem &e%player_level% &7níveis
  * message: &cLinha 1\n&aLinha 2
  * </pre>
+ *
+ * <p>Sem placeholders, mensagens para vários targets são enviadas como um único
+ * pacote de chat ({@link BroadcastCapableHandler}).</p>
  */
-public final class MessageHandler implements ActionHandler {
+public final class MessageHandler implements BroadcastCapableHandler {
 
     @Override
     public void execute(@NotNull Player target, @NotNull ActionSpec spec) {
-        String rawMessage = spec.rawArgs();
-        if (rawMessage == null || rawMessage.isEmpty()) {
+        execute(target, spec, prepare(spec));
+    }
+
+    @Override
+    public void execute(@NotNull Player target, @NotNull ActionSpec spec, @Nullable Object prepared) {
+        if (!(prepared instanceof Params params)) {
             return;
         }
 
-        // Processar PlaceholderAPI (main thread)
-        String processed = PlaceholderUtil.process(target, rawMessage);
-
-        // Processar color codes
-        String colored = ChatColor.translateAlternateColorCodes('&', processed);
-
-        // Suportar múltiplas linhas
-        String[] lines = colored.split("\\\\n");
+        String[] lines = params.lines();
+        if (params.placeholders() && PlaceholderUtil.isAvailable()) {
+            // Processar PlaceholderAPI (main thread) e color codes
+            lines = colorLines(PlaceholderUtil.process(target, params.raw()));
+        }
         for (String line : lines) {
             target.sendMessage(line);
         }
     }
+
+    @Override
+    public boolean broadcast(@NotNull Collection<? extends Player> targets, @NotNull ActionSpec spec,
+            @Nullable Object prepared) {
+        if (!(prepared instanceof Params params) || (params.placeholders() && PlaceholderUtil.isAvailable())) {
+            return false;
+        }
+        Object[] packets = new Object[params.lines().length];
+        for (int i = 0; i < packets.length; i++) {
+            packets[i] = NmsPackets.chatPacket(NmsPackets.textJson(params.lines()[i]), NmsPackets.SYSTEM);
+        }
+        return PacketBroadcaster.send(targets, packets);
+    }
+
+    @Override
+    public @Nullable Object prepare(@NotNull ActionSpec spec) {
+        String rawMessage = spec.rawArgs();
+        if (rawMessage == null || rawMessage.isEmpty()) {
+            return null;
+        }
+        // Sem PAPI (ou sem placeholders) o texto final já é conhecido
+        return new Params(rawMessage, colorLines(rawMessage), PlaceholderUtil.hasPlaceholders(rawMessage));
+    }
+
+    private static String[] colorLines(String message) {
+        // Processar color codes e suportar múltiplas linhas
+        return ChatColor.translateAlternateColorCodes('&', message).split("\\\\n");
+    }
+
+    /**
+     * @param lines        Linhas com color codes, sem placeholders resolvidos
+     * @param placeholders Se contém {@code %placeholder%} (por player quando o PAPI estiver disponível)
+     */
+    private record Params(String raw, String[] lines, boolean placeholders) {
+    }
 }
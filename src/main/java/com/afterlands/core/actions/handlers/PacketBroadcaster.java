@@ -0,0 +1,92 @@
+package com.afterlands.core.actions.handlers;
+
+import com.afterlands.core.util.reflect.NmsPackets;
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.PacketContainer;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.logging.Level;
+
+/**
+ * Escreve pacotes NMS já montados na conexão de vários players.
+ *
+ * <p>
+ * Com ProtocolLib os pacotes passam pelo {@code ProtocolManager} (listeners de
+ * outros plugins os enxergam); sem ProtocolLib, vão direto pela
+ * {@code PlayerConnection} via {@link NmsPackets}.
+ * </p>
+ *
+ * <p>
+ * Thread safety: SEMPRE deve ser chamado na main thread.
+ * </p>
+ */
+final class PacketBroadcaster {
+
+    private PacketBroadcaster() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Envia os pacotes, na ordem, a todos os targets.
+     *
+     * @param packets Pacotes NMS (null = pacote indisponível)
+     * @return false se nada foi enviado (pacote indisponível ou sem envio direto)
+     */
+    static boolean send(@NotNull Collection<? extends Player> targets, Object... packets) {
+        if (packets == null) {
+            return false;
+        }
+        for (Object packet : packets) {
+            if (packet == null) {
+                return false;
+            }
+        }
+
+        if (Bukkit.getPluginManager().isPluginEnabled("ProtocolLib")) {
+            ProtocolLibSender.send(targets, packets);
+            return true;
+        }
+        if (!NmsPackets.canSend()) {
+            return false;
+        }
+        for (Player target : targets) {
+            try {
+                for (Object packet : packets) {
+                    NmsPackets.sendPacket(target, packet);
+                }
+            } catch (Exception e) {
+                // conexão fechando; segue para os demais
+                Bukkit.getLogger().log(Level.FINE, "Falha ao enviar pacote para " + target.getName(), e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Isolado para que as classes do ProtocolLib só sejam carregadas quando o
+     * plugin estiver presente.
+     */
+    private static final class ProtocolLibSender {
+
+        static void send(Collection<? extends Player> targets, Object[] packets) {
+            ProtocolManager manager = ProtocolLibrary.getProtocolManager();
+            PacketContainer[] containers = new PacketContainer[packets.length];
+            for (int i = 0; i < packets.length; i++) {
+                containers[i] = PacketContainer.fromPacket(packets[i]);
+            }
+            for (Player target : targets) {
+                try {
+                    for (PacketContainer container : containers) {
+                        manager.sendServerPacket(target, container);
+                    }
+                } catch (Exception e) {
+                    Bukkit.getLogger().log(Level.FINE, "Falha ao enviar pacote para " + target.getName(), e);
+                }
+            }
+        }
+    }
+}
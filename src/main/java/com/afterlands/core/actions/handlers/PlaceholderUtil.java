@@ -1,9 +1,12 @@
 package com.afterlands.core.actions.handlers;
 
+import com.afterlands.core.placeholders.PlaceholderApiBridge;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.regex.Pattern;
+
 /**
  * Utilitário para processar PlaceholderAPI de forma segura.
  *
@@ -12,7 +15,7 @@ import org.jetbrains.annotations.NotNull;
  */
 final class PlaceholderUtil {
 
-    private static final boolean PAPI_AVAILABLE = checkPlaceholderAPI();
+    private static final Pattern PLACEHOLDER = Pattern.compile("%[^%\\s]+%");
 
     private PlaceholderUtil() {
         throw new UnsupportedOperationException("Utility class");
@@ -25,7 +28,7 @@ final class PlaceholderUtil {
      */
     @NotNull
     static String process(@NotNull Player player, @NotNull String text) {
-        if (!PAPI_AVAILABLE) {
+        if (!PlaceholderApiBridge.isAvailable()) {
             return text; // Sem PAPI, retorna literal
         }
 
@@ -35,7 +38,7 @@ final class PlaceholderUtil {
         }
 
         try {
-            return me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, text);
+            return PlaceholderApiBridge.setPlaceholders(player, text);
         } catch (Throwable t) {
             // Fallback se algo der errado
             return text;
@@ -43,21 +46,22 @@ final class PlaceholderUtil {
     }
 
     /**
-     * Verifica se PlaceholderAPI está disponível no servidor.
+     * Indica se o texto contém {@code %placeholder%}.
+     *
+     * <p>Não depende do PAPI: o texto só muda por player se, além disso,
+     * {@link #isAvailable()} for true no momento da execução (o PAPI pode ser
+     * habilitado depois da compilação).</p>
+     *
+     * <p>Pode ser chamado em qualquer thread.</p>
      */
-    private static boolean checkPlaceholderAPI() {
-        try {
-            Class.forName("me.clip.placeholderapi.PlaceholderAPI");
-            return Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null;
-        } catch (ClassNotFoundException e) {
-            return false;
-        }
+    static boolean hasPlaceholders(@NotNull String text) {
+        return PLACEHOLDER.matcher(text).find();
     }
 
     /**
      * Retorna se PlaceholderAPI está disponível.
      */
     static boolean isAvailable() {
-        return PAPI_AVAILABLE;
+        return PlaceholderApiBridge.isAvailable();
     }
 }
@@ -6,6 +6,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Handler para aplicar efeitos de poção.
@@ -36,22 +37,45 @@ public final class PotionHandler implements ActionHandler {
 
     @Override
     public void execute(@NotNull Player target, @NotNull ActionSpec spec) {
+        execute(target, spec, prepare(spec));
+    }
+
+    @Override
+    public void execute(@NotNull Player target, @NotNull ActionSpec spec, @Nullable Object prepared) {
+        if (!(prepared instanceof Params params)) {
+            return;
+        }
+
+        // Remover efeito se duração = 0
+        if (params.duration() <= 0) {
+            target.removePotionEffect(params.type());
+            return;
+        }
+
+        // Aplicar efeito
+        PotionEffect effect = new PotionEffect(params.type(), params.duration(), params.amplifier(),
+                params.ambient(), params.particles());
+        target.addPotionEffect(effect, true); // Override existing
+    }
+
+    @Override
+    public @Nullable Object prepare(@NotNull ActionSpec spec) {
         String args = spec.rawArgs();
         if (args == null || args.isEmpty()) {
-            return;
+            return null;
         }
 
         // Parse: type duration amplifier [ambient] [particles]
         // Support both space and semicolon separators for backward compatibility
         String[] parts = args.split("[\\s;]+");
         if (parts.length < 3) {
-            return; // Mínimo: type duration amplifier
+            return null; // Mínimo: type duration amplifier
         }
 
         String typeName = parts[0].toUpperCase();
         PotionEffectType type = PotionEffectType.getByName(typeName);
         if (type == null) {
-            return; // Tipo inválido
+            return null; // Tipo inválido
         }
 
         int duration;
@@ -60,13 +84,7 @@ public final class PotionHandler implements ActionHandler {
             duration = Integer.parseInt(parts[1]);
             amplifier = Integer.parseInt(parts[2]);
         } catch (NumberFormatException e) {
-            return;
-        }
-
-        // Remover efeito se duração = 0
-        if (duration <= 0) {
-            target.removePotionEffect(type);
-            return;
+            return null;
         }
 
         boolean ambient = false;
@@ -80,8 +98,9 @@ public final class PotionHandler implements ActionHandler {
             particles = Boolean.parseBoolean(parts[4]);
         }
 
-        // Aplicar efeito
-        PotionEffect effect = new PotionEffect(type, duration, amplifier, ambient, particles);
-        target.addPotionEffect(effect, true); // Override existing
+        return new Params(type, duration, amplifier, ambient, particles);
+    }
+
+    private record Params(PotionEffectType type, int duration, int amplifier, boolean ambient, boolean particles) {
     }
 }
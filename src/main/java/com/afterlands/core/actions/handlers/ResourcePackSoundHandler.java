@@ -4,6 +4,7 @@ import com.afterlands.core.actions.ActionHandler;
 import com.afterlands.core.actions.ActionSpec;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Handler para tocar sons customizados de resource pack.
@@ -36,16 +37,30 @@ public final class ResourcePackSoundHandler implements ActionHandler {
 
     @Override
     public void execute(@NotNull Player target, @NotNull ActionSpec spec) {
+        execute(target, spec, prepare(spec));
+    }
+
+    @Override
+    public void execute(@NotNull Player target, @NotNull ActionSpec spec, @Nullable Object prepared) {
+        if (!(prepared instanceof Params params)) {
+            return;
+        }
+        // Tocar som customizado usando string literal
+        target.playSound(target.getLocation(), params.sound(), params.volume(), params.pitch());
+    }
+
+    @Override
+    public @Nullable Object prepare(@NotNull ActionSpec spec) {
         String args = spec.rawArgs();
         if (args == null || args.isEmpty()) {
-            return;
+            return null;
         }
 
         // Parse: sound_name [volume] [pitch]
         // Support both space and semicolon separators for backward compatibility
         String[] parts = args.split("[\\s;]+");
         if (parts.length == 0) {
-            return;
+            return null;
         }
 
         String soundName = parts[0];
@@ -68,7 +83,9 @@ public final class ResourcePackSoundHandler implements ActionHandler {
             }
         }
 
-        // Tocar som customizado usando string literal
-        target.playSound(target.getLocation(), soundName, volume, pitch);
+        return new Params(soundName, volume, pitch);
+    }
+
+    private record Params(String sound, float volume, float pitch) {
     }
 }
@@ -5,6 +5,7 @@ import com.afterlands.core.actions.ActionSpec;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Handler para tocar sons padrão do Minecraft.
@@ -41,16 +42,30 @@ public final class SoundHandler implements ActionHandler {
 
     @Override
     public void execute(@NotNull Player target, @NotNull ActionSpec spec) {
+        execute(target, spec, prepare(spec));
+    }
+
+    @Override
+    public void execute(@NotNull Player target, @NotNull ActionSpec spec, @Nullable Object prepared) {
+        if (!(prepared instanceof Params params)) {
+            return;
+        }
+        // Tocar som na localização do player
+        target.playSound(target.getLocation(), params.sound(), params.volume(), params.pitch());
+    }
+
+    @Override
+    public @Nullable Object prepare(@NotNull ActionSpec spec) {
         String args = spec.rawArgs();
         if (args == null || args.isEmpty()) {
-            return;
+            return null;
         }
 
         // Parse: SOUND_NAME [volume] [pitch]
         // Support both space and semicolon separators for backward compatibility
         String[] parts = args.split("[\\s;]+");
         if (parts.length == 0) {
-            return;
+            return null;
         }
 
         String soundName = parts[0].toUpperCase();
@@ -81,10 +96,12 @@ public final class SoundHandler implements ActionHandler {
             // Som inválido, log warning para debug
             // Note: Using Bukkit logger since we don't have plugin reference
             org.bukkit.Bukkit.getLogger().warning("Invalid sound name: " + soundName);
-            return;
+            return null;
         }
 
-        // Tocar som na localização do player
-        target.playSound(target.getLocation(), sound, volume, pitch);
+        return new Params(sound, volume, pitch);
+    }
+
+    private record Params(Sound sound, float volume, float pitch) {
     }
 }
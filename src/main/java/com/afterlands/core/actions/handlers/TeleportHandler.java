@@ -7,6 +7,7 @@ import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Handler para teleportar players.
@@ -31,33 +32,49 @@ public final class TeleportHandler implements ActionHandler {
 
     @Override
     public void execute(@NotNull Player target, @NotNull ActionSpec spec) {
-        String args = spec.rawArgs();
-        if (args == null || args.isEmpty()) {
-            return;
-        }
+        execute(target, spec, prepare(spec));
+    }
 
-        // Parse: world x y z [yaw] [pitch]
-        // Support both space and semicolon separators for backward compatibility
-        String[] parts = args.split("[\\s;]+");
-        if (parts.length < 4) {
-            return; // Mínimo: world x y z
+    @Override
+    public void execute(@NotNull Player target, @NotNull ActionSpec spec, @Nullable Object prepared) {
+        if (!(prepared instanceof Params params)) {
+            return;
         }
 
-        String worldName = parts[0];
-        World world = Bukkit.getWorld(worldName);
+        World world = Bukkit.getWorld(params.worldName());
         if (world == null) {
             return; // Mundo inválido
         }
 
         Location currentLoc = target.getLocation();
 
-        // Parse coordenadas (suportar relativas ~)
-        double x = parseCoordinate(parts[1], currentLoc.getX());
-        double y = parseCoordinate(parts[2], currentLoc.getY());
-        double z = parseCoordinate(parts[3], currentLoc.getZ());
+        double x = params.x().resolve(currentLoc.getX());
+        double y = params.y().resolve(currentLoc.getY());
+        double z = params.z().resolve(currentLoc.getZ());
 
-        float yaw = currentLoc.getYaw();
-        float pitch = currentLoc.getPitch();
+        float yaw = params.yaw() != null ? params.yaw() : currentLoc.getYaw();
+        float pitch = params.pitch() != null ? params.pitch() : currentLoc.getPitch();
+
+        Location destination = new Location(world, x, y, z, yaw, pitch);
+        target.teleport(destination);
+    }
+
+    @Override
+    public @Nullable Object prepare(@NotNull ActionSpec spec) {
+        String args = spec.rawArgs();
+        if (args == null || args.isEmpty()) {
+            return null;
+        }
+
+        // Parse: world x y z [yaw] [pitch]
+        // Support both space and semicolon separators for backward compatibility
+        String[] parts = args.split("[\\s;]+");
+        if (parts.length < 4) {
+            return null; // Mínimo: world x y z
+        }
+
+        Float yaw = null;
+        Float pitch = null;
 
         if (parts.length >= 5) {
             try {
@@ -73,39 +90,49 @@ public final class TeleportHandler implements ActionHandler {
             }
         }
 
-        Location destination = new Location(world, x, y, z, yaw, pitch);
-        target.teleport(destination);
+        // Mundo resolvido na execução (pode ser carregado depois)
+        return new Params(parts[0], parseCoordinate(parts[1]), parseCoordinate(parts[2]),
+                parseCoordinate(parts[3]), yaw, pitch);
     }
 
     /**
      * Parse coordenada com suporte a relativas (~).
      *
      * @param input Coordenada (ex: "100", "~", "~5", "~-10")
-     * @param current Valor atual (para relativas)
-     * @return Coordenada absoluta
+     * @return Coordenada (inválida = relativa sem offset)
      */
-    private double parseCoordinate(@NotNull String input, double current) {
+    private Coordinate parseCoordinate(@NotNull String input) {
         String trimmed = input.trim();
 
         if (trimmed.equals("~")) {
-            return current; // Relativa sem offset
+            return Coordinate.CURRENT; // Relativa sem offset
         }
 
         if (trimmed.startsWith("~")) {
             // Relativa com offset: ~5 = current + 5
             try {
-                double offset = Double.parseDouble(trimmed.substring(1));
-                return current + offset;
+                return new Coordinate(true, Double.parseDouble(trimmed.substring(1)));
             } catch (NumberFormatException e) {
-                return current; // Fallback
+                return Coordinate.CURRENT; // Fallback
             }
         }
 
         // Absoluta
         try {
-            return Double.parseDouble(trimmed);
+            return new Coordinate(false, Double.parseDouble(trimmed));
         } catch (NumberFormatException e) {
-            return current; // Fallback
+            return Coordinate.CURRENT; // Fallback
+        }
+    }
+
+    private record Params(String worldName, Coordinate x, Coordinate y, Coordinate z, Float yaw, Float pitch) {
+    }
+
+    private record Coordinate(boolean relative, double value) {
+        static final Coordinate CURRENT = new Coordinate(true, 0);
+
+        double resolve(double current) {
+            return relative ? current + value : value;
         }
     }
 }
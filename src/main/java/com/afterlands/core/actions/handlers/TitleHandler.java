@@ -1,12 +1,16 @@
 package com.afterlands.core.actions.handlers;
 
-import com.afterlands.core.actions.ActionHandler;
 import com.afterlands.core.actions.ActionSpec;
+import com.afterlands.core.actions.BroadcastCapableHandler;
+import com.afterlands.core.util.reflect.NmsPackets;
+import com.afterlands.core.util.reflect.ReflectionBridge;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
 
 /**
  * Handler para enviar títulos (title + subtitle).
@@ -41,21 +45,92 @@ import java.lang.reflect.Method;
  * <p>
  * Compatibilidade: Spigot 1.8.8+ (usa reflection para suportar ambas APIs)
  * </p>
+ * <p>
+ * Sem placeholders, o title para vários targets é montado uma vez em pacotes
+ * NMS ({@link BroadcastCapableHandler}).
+ * </p>
  */
-public final class TitleHandler implements ActionHandler {
+public final class TitleHandler implements BroadcastCapableHandler {
 
     private static final int DEFAULT_FADE_IN = 10;
     private static final int DEFAULT_STAY = 70;
     private static final int DEFAULT_FADE_OUT = 20;
 
-    // Reflection para suportar ambas versões do Spigot
-    private static final Method SEND_TITLE_METHOD = findSendTitleMethod();
+    // Ligados uma vez (ReflectionBridge) para suportar ambas versões do Spigot
+    private static final TitleSender TITLE_SENDER = ReflectionBridge.bind(MethodHandles.lookup(),
+            TitleSender.class, ReflectionBridge.findMethod(Player.class, "sendTitle",
+                    String.class, String.class, int.class, int.class, int.class));
+    private static final LegacyTitleSender LEGACY_TITLE_SENDER = TITLE_SENDER != null ? null
+            : ReflectionBridge.bind(MethodHandles.lookup(), LegacyTitleSender.class,
+                    ReflectionBridge.findMethod(Player.class, "sendTitle", String.class, String.class));
+
+    @FunctionalInterface
+    interface TitleSender {
+        void send(Player player, String title, String subtitle, int fadeIn, int stay, int fadeOut);
+    }
+
+    @FunctionalInterface
+    interface LegacyTitleSender {
+        void send(Player player, String title, String subtitle);
+    }
 
     @Override
     public void execute(@NotNull Player target, @NotNull ActionSpec spec) {
+        execute(target, spec, prepare(spec));
+    }
+
+    @Override
+    public void execute(@NotNull Player target, @NotNull ActionSpec spec, @Nullable Object prepared) {
+        if (!(prepared instanceof Params params)) {
+            return;
+        }
+
+        String title = params.title();
+        String subtitle = params.subtitle();
+
+        // Processar PlaceholderAPI e color codes
+        if (!title.isEmpty()) {
+            title = PlaceholderUtil.process(target, title);
+            title = ChatColor.translateAlternateColorCodes('&', title);
+        }
+
+        if (!subtitle.isEmpty()) {
+            subtitle = PlaceholderUtil.process(target, subtitle);
+            subtitle = ChatColor.translateAlternateColorCodes('&', subtitle);
+        }
+
+        // Enviar title (Spigot 1.8.8+)
+        if (title.isEmpty() && subtitle.isEmpty()) {
+            return; // Nada para enviar
+        }
+
+        sendTitle(target, title.isEmpty() ? " " : title, subtitle.isEmpty() ? " " : subtitle,
+                params.fadeIn(), params.stay(), params.fadeOut());
+    }
+
+    @Override
+    public boolean broadcast(@NotNull Collection<? extends Player> targets, @NotNull ActionSpec spec,
+            @Nullable Object prepared) {
+        if (!(prepared instanceof Params params) || (params.placeholders() && PlaceholderUtil.isAvailable())) {
+            return false;
+        }
+        if (params.title().isEmpty() && params.subtitle().isEmpty()) {
+            return true; // Nada para enviar
+        }
+
+        String title = ChatColor.translateAlternateColorCodes('&', params.title());
+        String subtitle = ChatColor.translateAlternateColorCodes('&', params.subtitle());
+        return PacketBroadcaster.send(targets, NmsPackets.titlePackets(
+                NmsPackets.textJson(title.isEmpty() ? " " : title),
+                NmsPackets.textJson(subtitle.isEmpty() ? " " : subtitle),
+                params.fadeIn(), params.stay(), params.fadeOut()));
+    }
+
+    @Override
+    public @Nullable Object prepare(@NotNull ActionSpec spec) {
         String args = spec.rawArgs();
         if (args == null || args.isEmpty()) {
-            return;
+            return null;
         }
 
         // Parse: title;subtitle;fadeIn;stay;fadeOut
@@ -80,61 +155,30 @@ public final class TitleHandler implements ActionHandler {
             }
         }
 
-        // Processar PlaceholderAPI e color codes
-        if (!title.isEmpty()) {
-            title = PlaceholderUtil.process(target, title);
-            title = ChatColor.translateAlternateColorCodes('&', title);
-        }
-
-        if (!subtitle.isEmpty()) {
-            subtitle = PlaceholderUtil.process(target, subtitle);
-            subtitle = ChatColor.translateAlternateColorCodes('&', subtitle);
-        }
-
-        // Enviar title (Spigot 1.8.8+)
-        if (title.isEmpty() && subtitle.isEmpty()) {
-            return; // Nada para enviar
-        }
-
-        sendTitle(target, title.isEmpty() ? " " : title, subtitle.isEmpty() ? " " : subtitle, fadeIn, stay, fadeOut);
+        boolean placeholders = PlaceholderUtil.hasPlaceholders(title) || PlaceholderUtil.hasPlaceholders(subtitle);
+        return new Params(title, subtitle, fadeIn, stay, fadeOut, placeholders);
     }
 
     /**
-     * Detecta qual método sendTitle está disponível.
-     */
-    private static Method findSendTitleMethod() {
-        try {
-            // Tentar API moderna (1.11+): sendTitle(String, String, int, int, int)
-            return Player.class.getMethod("sendTitle", String.class, String.class, int.class, int.class, int.class);
-        } catch (NoSuchMethodException e) {
-            // Fallback para API antiga (1.8.8): sendTitle(String, String)
-            try {
-                return Player.class.getMethod("sendTitle", String.class, String.class);
-            } catch (NoSuchMethodException ex) {
-                return null; // Sem suporte
-            }
-        }
-    }
-
-    /**
-     * Envia title usando reflection para compatibilidade.
+     * Envia title pela API disponível (moderna com timings ou 1.8.8).
      */
     private void sendTitle(Player player, String title, String subtitle, int fadeIn, int stay, int fadeOut) {
-        if (SEND_TITLE_METHOD == null) {
-            return; // Sem suporte
-        }
-
         try {
-            int paramCount = SEND_TITLE_METHOD.getParameterCount();
-            if (paramCount == 5) {
+            if (TITLE_SENDER != null) {
                 // API moderna
-                SEND_TITLE_METHOD.invoke(player, title, subtitle, fadeIn, stay, fadeOut);
-            } else if (paramCount == 2) {
+                TITLE_SENDER.send(player, title, subtitle, fadeIn, stay, fadeOut);
+            } else if (LEGACY_TITLE_SENDER != null) {
                 // API antiga (sem timing control)
-                SEND_TITLE_METHOD.invoke(player, title, subtitle);
+                LEGACY_TITLE_SENDER.send(player, title, subtitle);
             }
         } catch (Exception ignored) {
             // Falhou silenciosamente
         }
     }
+
+    /**
+     * @param placeholders Se contém {@code %placeholder%} (por player quando o PAPI estiver disponível)
+     */
+    private record Params(String title, String subtitle, int fadeIn, int stay, int fadeOut, boolean placeholders) {
+    }
 }
@@ -21,6 +21,27 @@ import org.jetbrains.annotations.NotNull;
  */
 public final class WaitHandler implements ActionHandler {
 
+    /** Espera padrão quando o argumento não é um número (1s). */
+    public static final long DEFAULT_TICKS = 20;
+
+    /**
+     * Indica se a action é um wait ({@code wait} ou {@code delay}).
+     */
+    public static boolean isWait(@NotNull ActionSpec spec) {
+        return spec.typeKey().equalsIgnoreCase("wait") || spec.typeKey().equalsIgnoreCase("delay");
+    }
+
+    /**
+     * Ticks de espera de um wait ({@link #DEFAULT_TICKS} se inválido).
+     */
+    public static long ticks(@NotNull ActionSpec spec) {
+        try {
+            return Long.parseLong(spec.rawArgs().trim());
+        } catch (NumberFormatException e) {
+            return DEFAULT_TICKS;
+        }
+    }
+
     @Override
     public void execute(@NotNull Player target, @NotNull ActionSpec spec) {
         // No-op: Logic handled by ActionExecutor
@@ -1,6 +1,7 @@
 package com.afterlands.core.actions.impl;
 
 import com.afterlands.core.actions.ActionHandler;
+import com.afterlands.core.actions.ActionProgram;
 import com.afterlands.core.actions.ActionService;
 import com.afterlands.core.actions.ActionSpec;
 import com.afterlands.core.actions.dialect.ActionDialect;
@@ -13,18 +14,27 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
 
 public final class DefaultActionService implements ActionService {
 
-    @SuppressWarnings("unused")
     private final ConditionService conditions;
+    private final Logger logger;
     private final boolean debug;
 
     private final List<ActionDialect> dialects;
     private final Map<String, ActionHandler> handlers = new ConcurrentHashMap<>();
 
     public DefaultActionService(@NotNull ConditionService conditions, boolean debug) {
+        this(conditions, Bukkit.getLogger(), debug);
+    }
+
+    /**
+     * @param logger Logger do plugin (actions descartadas na compilação, só em debug)
+     */
+    public DefaultActionService(@NotNull ConditionService conditions, @NotNull Logger logger, boolean debug) {
         this.conditions = conditions;
+        this.logger = logger;
         this.debug = debug;
         this.dialects = List.of(
                 new MotionActionDialect(),
@@ -51,6 +61,18 @@ public final class DefaultActionService implements ActionService {
         return null;
     }
 
+    @Override
+    public @NotNull ActionProgram compile(@NotNull List<String> lines) {
+        List<ActionSpec> specs = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            ActionSpec spec = parse(line);
+            if (spec != null) {
+                specs.add(spec);
+            }
+        }
+        return ActionProgram.compile(specs, handlers, conditions, logger, debug);
+    }
+
     /**
      * Normalizes action format for compatibility.
      * Converts alternative formats to standard format:
@@ -3,6 +3,7 @@ package com.afterlands.core.bootstrap;
 import com.afterlands.core.AfterCorePlugin;
 import com.afterlands.core.actions.ActionExecutor;
 import com.afterlands.core.actions.ActionService;
+import com.afterlands.core.actions.PlayerPositionIndex;
 import com.afterlands.core.actions.handlers.*;
 import com.afterlands.core.actions.handlers.WaitHandler;
 import com.afterlands.core.actions.handlers.inventory.ClosePanelHandler;
@@ -13,6 +14,7 @@ import com.afterlands.core.commands.CommandService;
 import com.afterlands.core.commands.impl.DefaultCommandService;
 import com.afterlands.core.concurrent.SchedulerService;
 import com.afterlands.core.concurrent.impl.DefaultSchedulerService;
+import com.afterlands.core.conditions.ConditionDependency;
 import com.afterlands.core.conditions.ConditionService;
 import com.afterlands.core.conditions.impl.DefaultConditionService;
 import com.afterlands.core.config.ConfigService;
@@ -36,9 +38,13 @@ import com.afterlands.core.inventory.impl.DefaultInventoryService;
 import com.afterlands.core.inventory.migrations.CreateInventoryStatesMigration;
 import com.afterlands.core.metrics.MetricsService;
 import com.afterlands.core.metrics.impl.DefaultMetricsService;
+import com.afterlands.core.placeholders.PlaceholderApiBridge;
+import com.afterlands.core.placeholders.PlaceholderCache;
 import com.afterlands.core.protocol.ProtocolService;
 import com.afterlands.core.protocol.impl.DefaultProtocolService;
+import com.afterlands.core.protocol.impl.ProtocolConfig;
 import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
@@ -46,6 +52,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Locale;
 import java.util.logging.Logger;
 
 /**
@@ -69,6 +76,8 @@ public class PluginRegistry {
     private ProtocolService protocol;
     private DiagnosticsService diagnostics;
     private MetricsService metrics;
+    private PlaceholderCache placeholderCache;
+    private PlayerPositionIndex positions;
     private InventoryService inventory;
     private HologramService holograms;
 
@@ -146,15 +155,28 @@ public class PluginRegistry {
         registerMigrations();
         this.sql.reloadFromConfig(plugin.getConfig().getConfigurationSection("database"));
 
-        // 4. Logic Services
-        this.conditions = new DefaultConditionService(plugin, scheduler, debug);
-        this.actions = new DefaultActionService(conditions, debug);
+        // 4. Metrics + Logic Services
+        this.metrics = new DefaultMetricsService();
+        PlaceholderApiBridge.start(plugin);
+        this.placeholderCache = PlaceholderCache.fromConfig(
+                plugin.getConfig().getConfigurationSection("placeholders.cache"), metrics);
+        this.placeholderCache.start(plugin);
+
+        this.conditions = new DefaultConditionService(plugin, scheduler, placeholderCache,
+                plugin.getConfig().getLong("conditions.memo.max-age-ms", 60_000), debug);
+        for (String placeholder : plugin.getConfig().getStringList("placeholders.thread-safe")) {
+            conditions.registerThreadSafePlaceholder(placeholder);
+        }
+        registerPlaceholderDependencies(plugin.getConfig().getConfigurationSection("conditions.memo.dependencies"));
+        this.actions = new DefaultActionService(conditions, plugin.getLogger(), debug);
         registerDefaultActionHandlers(debug);
 
-        this.actionExecutor = new ActionExecutor(plugin, conditions, scheduler, actions.getHandlers(), debug);
+        this.positions = new PlayerPositionIndex();
+        this.positions.start(plugin);
+        this.actionExecutor = new ActionExecutor(plugin, conditions, scheduler, actions.getHandlers(),
+                plugin.getConfig().getInt("actions.timeline.max-steps-per-tick", 2000), positions, metrics, debug);
 
-        // 5. Metrics & Diagnostics
-        this.metrics = new DefaultMetricsService();
+        // 5. Diagnostics
         int ioThreads = plugin.getConfig().getInt("concurrency.io-threads", 8);
         int cpuThreads = plugin.getConfig().getInt("concurrency.cpu-threads", 4);
         this.diagnostics = new DefaultDiagnosticsService(plugin, sql, ioThreads, cpuThreads);
@@ -163,16 +185,14 @@ public class PluginRegistry {
         this.commands = new DefaultCommandService(plugin, config, messages, scheduler, metrics, debug);
 
         // 7. Protocol
-        long batchIntervalMs = plugin.getConfig().getLong("protocol.batch-interval-ms", 50);
-        int maxChunksPerBatch = plugin.getConfig().getInt("protocol.max-chunks-per-batch", 16);
-        this.protocol = new DefaultProtocolService(plugin, scheduler, metrics, debug, batchIntervalMs,
-                maxChunksPerBatch);
+        ProtocolConfig protocolConfig = ProtocolConfig.from(plugin.getConfig().getConfigurationSection("protocol"));
+        this.protocol = new DefaultProtocolService(plugin, scheduler, metrics, debug, protocolConfig);
         this.protocol.start();
 
         // 8. Inventory Framework
         InventoryConfigManager invConfigManager = new InventoryConfigManager(plugin, config);
         this.inventory = new DefaultInventoryService(plugin, scheduler, sql, actions, actionExecutor, conditions,
-                messages, invConfigManager);
+                messages, invConfigManager, placeholderCache);
 
         // 9. Holograms (optional - checks if DecentHolograms is installed)
         if (Bukkit.getPluginManager().getPlugin("DecentHolograms") != null) {
@@ -203,6 +223,25 @@ public class PluginRegistry {
             } catch (Throwable ignored) {
             }
         }
+        if (actionExecutor != null) {
+            try {
+                actionExecutor.shutdown();
+            } catch (Throwable ignored) {
+            }
+        }
+        if (positions != null) {
+            try {
+                positions.stop();
+            } catch (Throwable ignored) {
+            }
+        }
+        if (placeholderCache != null) {
+            try {
+                placeholderCache.stop();
+            } catch (Throwable ignored) {
+            }
+        }
+        PlaceholderApiBridge.stop();
         if (inventory != null && inventory instanceof DefaultInventoryService) {
             try {
                 ((DefaultInventoryService) inventory).shutdown();
@@ -225,6 +264,21 @@ public class PluginRegistry {
 
     // ==================== Private Helpers ====================
 
+    private void registerPlaceholderDependencies(ConfigurationSection section) {
+        if (section == null) {
+            return;
+        }
+        for (String placeholder : section.getKeys(false)) {
+            String value = section.getString(placeholder, "");
+            try {
+                conditions.registerPlaceholderDependency(placeholder,
+                        ConditionDependency.valueOf(value.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                logger.warning("conditions.memo.dependencies: dependência inválida para " + placeholder + ": " + value);
+            }
+        }
+    }
+
     private void updateConfigFile(String filename) {
         if ("config.yml".equals(filename)) {
             config.update(plugin, filename, updater -> {
@@ -344,6 +398,10 @@ public class PluginRegistry {
         return metrics;
     }
 
+    public PlaceholderCache getPlaceholderCache() {
+        return placeholderCache;
+    }
+
     public InventoryService getInventory() {
         return inventory;
     }
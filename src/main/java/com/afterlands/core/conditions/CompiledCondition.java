@@ -0,0 +1,30 @@
+package com.afterlands.core.conditions;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Expressão de condição pré-compilada (groups expandidos, AST pronto).
+ *
+ * <p>
+ * Obtida via {@link ConditionService#compile(String)} e avaliada via
+ * {@link ConditionService#evaluateSync(org.bukkit.entity.Player, CompiledCondition, ConditionContext)}.
+ * Guarde a instância (ex.: no item do menu) para não re-parsear a cada render.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Imutável.
+ * </p>
+ */
+public interface CompiledCondition {
+
+    /**
+     * Texto original (antes da expansão de groups).
+     */
+    @NotNull
+    String expression();
+
+    /**
+     * Indica se o resultado não depende de placeholders (foi resolvido na compilação).
+     */
+    boolean isConstant();
+}
@@ -0,0 +1,27 @@
+package com.afterlands.core.conditions;
+
+/**
+ * Do que depende o valor de um placeholder do PlaceholderAPI, para a
+ * avaliação memoizada ({@link ConditionService#evaluateMemoized}).
+ *
+ * <p>Placeholders sem dependência declarada tornam a condição não memoizável
+ * (ela é sempre reavaliada).</p>
+ */
+public enum ConditionDependency {
+
+    /**
+     * Não muda durante a sessão do player (ex.: {@code player_name}, {@code player_uuid}).
+     */
+    STATIC,
+
+    /**
+     * Muda ao trocar de mundo (ex.: {@code player_world}).
+     */
+    WORLD,
+
+    /**
+     * Muda quando as permissões/grupo do player mudam
+     * (ver {@link ConditionService#invalidatePermissions}).
+     */
+    PERMISSION
+}
@@ -3,6 +3,8 @@ package com.afterlands.core.conditions;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -24,6 +26,22 @@ public interface ConditionService {
 
     void registerVariableProvider(@NotNull String namespace, @NotNull ConditionVariableProvider provider);
 
+    /**
+     * Declara um placeholder do PlaceholderAPI como seguro fora da main thread.
+     *
+     * @param placeholder Identificador sem {@code %} (case-insensitive), ou prefixo
+     *                    terminado em {@code *} (ex.: {@code server_*})
+     */
+    void registerThreadSafePlaceholder(@NotNull String placeholder);
+
+    /**
+     * Indica se a condição só usa fontes thread-safe (providers
+     * {@link ConditionVariableProvider#isThreadSafe() thread-safe} e placeholders
+     * declarados via {@link #registerThreadSafePlaceholder}), podendo ser avaliada
+     * fora da main thread.
+     */
+    boolean isAsyncSafe(@NotNull CompiledCondition condition);
+
     /**
      * Avaliação síncrona. Se o expression requer PlaceholderAPI, deve ser chamada na main thread.
      */
@@ -31,7 +49,103 @@ public interface ConditionService {
 
     /**
      * Avaliação segura (garante main thread quando necessário).
+     *
+     * <p>Avalia na thread chamadora quando a condição é {@link #isAsyncSafe async-safe}.</p>
      */
     @NotNull CompletableFuture<Boolean> evaluate(@NotNull Player player, @NotNull String expression, @NotNull ConditionContext ctx);
-}
 
+    /**
+     * Compila a expressão (groups expandidos, AST com slots de placeholder).
+     *
+     * <p>Cacheado pelo texto; o cache é descartado ao trocar os groups.</p>
+     *
+     * @throws IllegalArgumentException se a expressão for inválida (ex.: parênteses não fechados)
+     */
+    @NotNull CompiledCondition compile(@NotNull String expression);
+
+    /**
+     * Avaliação síncrona de uma expressão compilada (sem parsing nem regex).
+     * Se usar PlaceholderAPI, deve ser chamada na main thread.
+     */
+    boolean evaluateSync(@NotNull Player player, @NotNull CompiledCondition condition, @NotNull ConditionContext ctx);
+
+    /**
+     * Avaliação segura de uma expressão compilada (garante main thread quando necessário).
+     *
+     * <p>Avalia na thread chamadora quando a condição é {@link #isAsyncSafe async-safe}.</p>
+     */
+    @NotNull CompletableFuture<Boolean> evaluate(@NotNull Player player, @NotNull CompiledCondition condition, @NotNull ConditionContext ctx);
+
+    /**
+     * Avalia a mesma condição para vários players (ex.: hologramas, scoreboards,
+     * actions com scope ALL).
+     *
+     * <p>Groups já vêm expandidos na compilação; placeholders de providers
+     * {@link ConditionVariableProvider#isPlayerIndependent() independentes de player}
+     * são resolvidos uma vez, as sub-expressões que só dependem deles viram
+     * constantes e, se a condição inteira ficar constante, nenhum player é avaliado.
+     * Se usar PlaceholderAPI, deve ser chamada na main thread.</p>
+     *
+     * @return Bit {@code i} = resultado do i-ésimo player na ordem de iteração de {@code players}
+     */
+    @NotNull BitSet evaluateBatch(@NotNull Collection<? extends Player> players, @NotNull CompiledCondition condition,
+            @NotNull ConditionContext ctx);
+
+    /**
+     * Versão assíncrona de {@link #evaluateBatch}: a parte independente de player é
+     * resolvida no {@link com.afterlands.core.concurrent.SchedulerService#cpuExecutor() cpuExecutor}
+     * quando o provider é {@link ConditionVariableProvider#isThreadSafe() thread-safe} (os demais
+     * uma vez na main thread) e só o restante (se houver e não for {@link #isAsyncSafe async-safe})
+     * vai para a main thread.
+     *
+     * @return Bit {@code i} = resultado do i-ésimo player na ordem de iteração de {@code players}
+     *         (a coleção é copiada na chamada)
+     */
+    @NotNull CompletableFuture<BitSet> evaluateBatchAsync(@NotNull Collection<? extends Player> players,
+            @NotNull CompiledCondition condition, @NotNull ConditionContext ctx);
+
+    /**
+     * Avaliação memoizada (opt-in): o resultado fica cacheado por player até uma
+     * dependência declarada mudar, então reavaliar a mesma condição vira uma
+     * busca em hash.
+     *
+     * <p>Dependências: variáveis de providers (invalidadas via
+     * {@link #invalidateVariable}), placeholders com {@link ConditionDependency}
+     * declarada ({@link #registerPlaceholderDependency}), troca de mundo e
+     * {@link #invalidatePermissions}. Condições com placeholders sem dependência
+     * declarada são sempre reavaliadas. Com variáveis de provider, o resultado só
+     * é reaproveitado para {@code ctx.variables()} iguais (sem elas, independe do
+     * contexto); vale no máximo {@code conditions.memo.max-age-ms}.</p>
+     *
+     * <p>Mesmas regras de thread de {@link #evaluateSync(Player, CompiledCondition, ConditionContext)}.</p>
+     */
+    boolean evaluateMemoized(@NotNull Player player, @NotNull CompiledCondition condition, @NotNull ConditionContext ctx);
+
+    /**
+     * Declara do que depende um placeholder do PlaceholderAPI, tornando-o
+     * memoizável em {@link #evaluateMemoized}.
+     *
+     * @param placeholder Identificador sem {@code %} (case-insensitive), ou prefixo terminado em {@code *}
+     */
+    void registerPlaceholderDependency(@NotNull String placeholder, @NotNull ConditionDependency dependency);
+
+    /**
+     * Notifica que o valor de uma variável de provider ({@code %namespace:key%}) mudou para o player.
+     */
+    void invalidateVariable(@NotNull Player player, @NotNull String namespace, @NotNull String key);
+
+    /**
+     * Notifica que o valor de uma variável de provider mudou para todos os players.
+     */
+    void invalidateVariable(@NotNull String namespace, @NotNull String key);
+
+    /**
+     * Notifica que as permissões/grupo do player mudaram.
+     */
+    void invalidatePermissions(@NotNull Player player);
+
+    /**
+     * Descarta todos os resultados memoizados do player.
+     */
+    void invalidateMemoized(@NotNull Player player);
+}
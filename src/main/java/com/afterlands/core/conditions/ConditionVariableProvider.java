@@ -6,6 +6,10 @@ import org.jetbrains.annotations.Nullable;
 
 /**
  * Provider para placeholders custom do core (ex.: %abs_flag:key%).
+ *
+ * <p>Se o valor puder mudar sem trocar o {@link ConditionContext}, notifique via
+ * {@link ConditionService#invalidateVariable} para não servir resultados
+ * memoizados antigos ({@link ConditionService#evaluateMemoized}).</p>
  */
 @FunctionalInterface
 public interface ConditionVariableProvider {
@@ -16,5 +20,87 @@ public interface ConditionVariableProvider {
      * @return valor substituto (nunca com %), ou null se não resolver
      */
     @Nullable String resolve(@NotNull Player player, @NotNull String namespace, @NotNull String key, @NotNull ConditionContext ctx);
-}
 
+    /**
+     * Indica se o valor depende só de namespace/key/contexto (não do player).
+     *
+     * <p>Em {@link ConditionService#evaluateBatch} esses placeholders são resolvidos
+     * uma única vez para todos os players (fora da main thread só se também for
+     * {@link #isThreadSafe() thread-safe}), com um player qualquer do lote como
+     * argumento.</p>
+     */
+    default boolean isPlayerIndependent() {
+        return false;
+    }
+
+    /**
+     * Indica se {@link #resolve} pode ser chamado fora da main thread.
+     *
+     * <p>Condições cujos placeholders só vêm de fontes thread-safe são avaliadas
+     * direto na thread chamadora por {@link ConditionService#evaluate}, sem esperar
+     * a main thread. Se o provider retornar null nesse caminho, o placeholder fica
+     * sem resolver (não cai no PlaceholderAPI fora da main thread).</p>
+     *
+     * <p>Padrão: false. Independência de player não implica thread-safety (ex.:
+     * valor lido do mundo); declare explicitamente.</p>
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Marca um provider (ex.: lambda) como thread-safe, mantendo
+     * {@link #isPlayerIndependent()} do provider envolvido (combinável com
+     * {@link #playerIndependent}).
+     *
+     * @see #isThreadSafe()
+     */
+    @NotNull
+    static ConditionVariableProvider threadSafe(@NotNull ConditionVariableProvider provider) {
+        return new ConditionVariableProvider() {
+            @Override
+            public @Nullable String resolve(@NotNull Player player, @NotNull String namespace, @NotNull String key,
+                    @NotNull ConditionContext ctx) {
+                return provider.resolve(player, namespace, key, ctx);
+            }
+
+            @Override
+            public boolean isPlayerIndependent() {
+                return provider.isPlayerIndependent();
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Marca um provider (ex.: lambda) como independente de player, mantendo
+     * {@link #isThreadSafe()} do provider envolvido (combinável com
+     * {@link #threadSafe}).
+     *
+     * @see #isPlayerIndependent()
+     */
+    @NotNull
+    static ConditionVariableProvider playerIndependent(@NotNull ConditionVariableProvider provider) {
+        return new ConditionVariableProvider() {
+            @Override
+            public @Nullable String resolve(@NotNull Player player, @NotNull String namespace, @NotNull String key,
+                    @NotNull ConditionContext ctx) {
+                return provider.resolve(player, namespace, key, ctx);
+            }
+
+            @Override
+            public boolean isPlayerIndependent() {
+                return true;
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return provider.isThreadSafe();
+            }
+        };
+    }
+}
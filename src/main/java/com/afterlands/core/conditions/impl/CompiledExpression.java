@@ -0,0 +1,83 @@
+package com.afterlands.core.conditions.impl;
+
+import com.afterlands.core.conditions.CompiledCondition;
+import com.afterlands.core.conditions.ConditionContext;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link CompiledCondition} do {@link DefaultConditionService}: AST + tabela
+ * de placeholders distintos da expressão.
+ *
+ * <p>
+ * <b>Thread Safety:</b> Imutável.
+ * </p>
+ */
+final class CompiledExpression implements CompiledCondition {
+
+    private final String expression;
+    private final ConditionNode root;
+    private final PlaceholderSlot[] slots;
+    // isAsyncSafe memoizado: (versão das fontes << 1) | resultado; -1 = não calculado
+    private volatile long asyncSafeState = -1;
+    private volatile ConditionMemo.Dependencies memoDependencies;
+
+    CompiledExpression(@NotNull String expression, @NotNull ConditionNode root, @NotNull PlaceholderSlot[] slots) {
+        this.expression = expression;
+        this.root = root;
+        this.slots = slots;
+    }
+
+    @Override
+    public @NotNull String expression() {
+        return expression;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return root instanceof ConditionNode.Constant;
+    }
+
+    @NotNull
+    ConditionNode root() {
+        return root;
+    }
+
+    @NotNull
+    PlaceholderSlot[] slots() {
+        return slots;
+    }
+
+    /**
+     * @return resultado memoizado para a versão das fontes, ou null se não calculado
+     */
+    Boolean asyncSafe(long sourcesVersion) {
+        long state = asyncSafeState;
+        return state >= 0 && (state >>> 1) == sourcesVersion ? (state & 1) != 0 : null;
+    }
+
+    void asyncSafe(long sourcesVersion, boolean safe) {
+        asyncSafeState = (sourcesVersion << 1) | (safe ? 1 : 0);
+    }
+
+    ConditionMemo.Dependencies memoDependencies() {
+        return memoDependencies;
+    }
+
+    void memoDependencies(@NotNull ConditionMemo.Dependencies dependencies) {
+        this.memoDependencies = dependencies;
+    }
+
+    boolean evaluate(@NotNull Player player, @NotNull ConditionContext ctx,
+            @NotNull ConditionFrame.SlotResolver resolver) {
+        if (root instanceof ConditionNode.Constant constant) {
+            return constant.value();
+        }
+        return root.evaluate(new ConditionFrame(slots, player, ctx, resolver));
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledCondition[" + expression + "]";
+    }
+}
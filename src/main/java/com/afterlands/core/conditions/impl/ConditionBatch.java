@@ -0,0 +1,67 @@
+package com.afterlands.core.conditions.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Especialização de um AST para avaliação em lote: nós cujos slots já foram
+ * resolvidos (independentes de player) viram constantes e AND/OR/NOT são
+ * re-dobrados.
+ *
+ * <p>
+ * O resultado é avaliado uma vez por player; se virar {@link ConditionNode.Constant},
+ * nenhum player precisa ser avaliado.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Sem estado (o {@link ConditionFrame} recebido é da
+ * thread chamadora).
+ * </p>
+ */
+final class ConditionBatch {
+
+    private ConditionBatch() {
+    }
+
+    /**
+     * @param node   Nó a especializar
+     * @param shared Valores já resolvidos por slot (null = depende do player)
+     * @param frame  Frame semeado com {@code shared} (só lê slots resolvidos)
+     */
+    @NotNull
+    static ConditionNode specialize(@NotNull ConditionNode node, @NotNull String[] shared,
+            @NotNull ConditionFrame frame) {
+        if (node instanceof ConditionNode.Constant) {
+            return node;
+        }
+        if (node instanceof ConditionNode.Not not) {
+            return ConditionCompiler.not(specialize(not.child(), shared, frame));
+        }
+        if (node instanceof ConditionNode.And and) {
+            return ConditionCompiler.and(specializeAll(and.children(), shared, frame));
+        }
+        if (node instanceof ConditionNode.Or or) {
+            return ConditionCompiler.or(specializeAll(or.children(), shared, frame));
+        }
+        if (node instanceof ConditionNode.Compare compare) {
+            boolean resolved = compare.left().isResolvedIn(shared)
+                    && (compare.pattern() != null || compare.right().isResolvedIn(shared));
+            return resolved ? ConditionNode.constant(compare.evaluate(frame)) : node;
+        }
+        if (node instanceof ConditionNode.Truthy truthy) {
+            return truthy.value().isResolvedIn(shared) ? ConditionNode.constant(truthy.evaluate(frame)) : node;
+        }
+        return node;
+    }
+
+    private static List<ConditionNode> specializeAll(ConditionNode[] children, String[] shared,
+            ConditionFrame frame) {
+        List<ConditionNode> out = new ArrayList<>(children.length);
+        for (ConditionNode child : children) {
+            out.add(specialize(child, shared, frame));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,387 @@
+package com.afterlands.core.conditions.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Parser de expressões de condição para AST ({@link ConditionNode}).
+ *
+ * <p>
+ * <b>Semântica:</b> a mesma da avaliação por string: prefixo {@code NOT }
+ * nega o restante da (sub)expressão, parênteses agrupam, {@code OR} tem
+ * precedência menor que {@code AND}, literais true/false, comparação via
+ * {@link ConditionOperator} e fallback truthy (yes/true/1).
+ * </p>
+ *
+ * <p>
+ * <b>Placeholders:</b> os tokens {@code %...%} são extraídos antes do parse e
+ * mascarados, então operadores/parênteses dentro de um placeholder não afetam
+ * a estrutura, e o valor resolvido é sempre tratado como operando.
+ * Comparações sem placeholders são resolvidas na compilação.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Não thread-safe (uma instância por compilação).
+ * </p>
+ */
+final class ConditionCompiler {
+
+    // substitui os caracteres dos placeholders no texto de varredura
+    private static final char MASK = '\uE000';
+
+    // mesma ordem de alternação do regex da comparação por string
+    private static final String[] NUMERIC_SYMBOLS = { ">=", "<=", "!=", "==", ">", "<" };
+    private static final ConditionOperator[] NUMERIC_OPERATORS = {
+            ConditionOperator.GREATER_THAN_OR_EQUALS,
+            ConditionOperator.LESS_THAN_OR_EQUALS,
+            ConditionOperator.NOT_EQUALS,
+            ConditionOperator.EQUALS,
+            ConditionOperator.GREATER_THAN,
+            ConditionOperator.LESS_THAN
+    };
+
+    private final String text;
+    private final String masked;
+    // posição -> índice do slot que começa nela (-1 se nenhum)
+    private final int[] slotAt;
+    // posição -> fim (exclusivo) do slot que começa nela
+    private final int[] slotEnd;
+    private final List<PlaceholderSlot> slots = new ArrayList<>();
+    private final Map<String, Integer> slotIndex = new HashMap<>();
+
+    private ConditionCompiler(String text) {
+        this.text = text;
+        int n = text.length();
+        char[] chars = text.toCharArray();
+        this.slotAt = new int[n];
+        this.slotEnd = new int[n];
+        Arrays.fill(slotAt, -1);
+
+        int i = 0;
+        while (i < n) {
+            if (chars[i] != '%') {
+                i++;
+                continue;
+            }
+            int end = text.indexOf('%', i + 1);
+            if (end < 0) {
+                break;
+            }
+            if (end == i + 1) {
+                i = end;
+                continue;
+            }
+            String token = text.substring(i + 1, end);
+            Integer index = slotIndex.get(token);
+            if (index == null) {
+                index = slots.size();
+                slots.add(PlaceholderSlot.of(token));
+                slotIndex.put(token, index);
+            }
+            slotAt[i] = index;
+            slotEnd[i] = end + 1;
+            Arrays.fill(chars, i, end + 1, MASK);
+            i = end + 1;
+        }
+        this.masked = new String(chars);
+    }
+
+    /**
+     * Compila uma expressão (groups já expandidos).
+     *
+     * @param expression Texto original (identidade do cache)
+     * @param expanded   Texto com os groups expandidos
+     * @throws IllegalArgumentException se houver parênteses não fechados
+     */
+    @NotNull
+    static CompiledExpression compile(@NotNull String expression, @NotNull String expanded) {
+        ConditionCompiler compiler = new ConditionCompiler(expanded);
+        compiler.checkParentheses();
+        ConditionNode root = compiler.parse(0, expanded.length());
+        return new CompiledExpression(expression, root, compiler.slots.toArray(new PlaceholderSlot[0]));
+    }
+
+    private void checkParentheses() {
+        int depth = 0;
+        for (int i = 0; i < masked.length(); i++) {
+            char c = masked.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && depth > 0) {
+                depth--;
+            }
+        }
+        if (depth > 0) {
+            throw new IllegalArgumentException("Parênteses não fechados em: " + text);
+        }
+    }
+
+    private ConditionNode parse(int from, int to) {
+        int a = trimStart(from, to);
+        int b = trimEnd(a, to);
+        if (a == b) {
+            return ConditionNode.TRUE;
+        }
+
+        // NOT prefix (case-insensitive), nega o restante
+        if (b - a > 4 && masked.regionMatches(true, a, "NOT ", 0, 4)) {
+            return not(parse(a + 4, b));
+        }
+
+        int[] ors = splitPoints(a, b, " OR ");
+        if (ors.length > 0) {
+            return or(parseParts(a, b, ors, 4));
+        }
+
+        int[] ands = splitPoints(a, b, " AND ");
+        if (ands.length > 0) {
+            return and(parseParts(a, b, ands, 5));
+        }
+
+        if (masked.charAt(a) == '(' && closing(a, b) == b - 1) {
+            return parse(a + 1, b - 1);
+        }
+
+        return leaf(a, b);
+    }
+
+    private List<ConditionNode> parseParts(int a, int b, int[] points, int opLen) {
+        List<ConditionNode> parts = new ArrayList<>(points.length + 1);
+        int last = a;
+        for (int point : points) {
+            parts.add(parse(last, point));
+            last = point + opLen;
+        }
+        parts.add(parse(last, b));
+        return parts;
+    }
+
+    private int[] splitPoints(int a, int b, String operator) {
+        int[] points = new int[4];
+        int count = 0;
+        int depth = 0;
+        int opLen = operator.length();
+        for (int i = a; i <= b - opLen; i++) {
+            char c = masked.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && masked.regionMatches(true, i, operator, 0, opLen)) {
+                if (count == points.length) {
+                    points = Arrays.copyOf(points, count * 2);
+                }
+                points[count++] = i;
+                i += opLen - 1;
+            }
+        }
+        return Arrays.copyOf(points, count);
+    }
+
+    private int closing(int open, int b) {
+        int depth = 0;
+        for (int i = open; i < b; i++) {
+            char c = masked.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // ===== Folhas =====
+
+    private ConditionNode leaf(int a, int b) {
+        if (!hasSlots(a, b)) {
+            return ConditionNode.constant(evaluateConstant(text.substring(a, b)));
+        }
+
+        ConditionOperator op = ConditionOperator.findInString(masked.substring(a, b));
+        ConditionNode comparison = null;
+        if (op != null) {
+            comparison = switch (op) {
+                case EQUALS, NOT_EQUALS, GREATER_THAN, GREATER_THAN_OR_EQUALS, LESS_THAN, LESS_THAN_OR_EQUALS ->
+                    numericComparison(a, b);
+                case CONTAINS_LEGACY -> {
+                    int p = masked.indexOf('~', a);
+                    yield compare(a, p, op, p + 1, b);
+                }
+                default -> wordComparison(a, b, op);
+            };
+        }
+        return comparison != null ? comparison : new ConditionNode.Truthy(template(a, b));
+    }
+
+    /**
+     * Primeiro operador (após pelo menos 1 caractere) seguido de algum
+     * operando, como {@code (.+?)\s*(>=|<=|!=|==|>|<)\s*(.+)}.
+     */
+    private ConditionNode numericComparison(int a, int b) {
+        for (int p = a + 1; p < b; p++) {
+            for (int k = 0; k < NUMERIC_SYMBOLS.length; k++) {
+                String symbol = NUMERIC_SYMBOLS[k];
+                if (p + symbol.length() < b && masked.startsWith(symbol, p)) {
+                    return compare(a, p, NUMERIC_OPERATORS[k], p + symbol.length(), b);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Primeira ocorrência (case-insensitive) do operador entre espaços, como
+     * {@code (.+?)\s+OP(?=\s|$)\s*(.+)$}.
+     */
+    private ConditionNode wordComparison(int a, int b, ConditionOperator op) {
+        String symbol = op.symbol();
+        int len = symbol.length();
+        for (int p = a + 2; p + len < b; p++) {
+            if (isSpace(masked.charAt(p - 1))
+                    && isSpace(masked.charAt(p + len))
+                    && masked.regionMatches(true, p, symbol, 0, len)) {
+                return compare(a, p, op, p + len, b);
+            }
+        }
+        return null;
+    }
+
+    private ConditionNode compare(int leftFrom, int leftTo, ConditionOperator op, int rightFrom, int rightTo) {
+        ConditionTemplate left = template(leftFrom, leftTo);
+        ConditionTemplate right = template(rightFrom, rightTo);
+        Pattern pattern = null;
+        if ((op == ConditionOperator.MATCHES || op == ConditionOperator.NOT_MATCHES) && right.isConstant()) {
+            pattern = ConditionOperator.compilePattern(right.constantValue());
+        }
+        return new ConditionNode.Compare(left, op, right, pattern);
+    }
+
+    private ConditionTemplate template(int from, int to) {
+        int a = trimStart(from, to);
+        int b = trimEnd(a, to);
+
+        List<String> literals = null;
+        int[] slotRefs = null;
+        int count = 0;
+        int start = a;
+        int i = a;
+        while (i < b) {
+            int slot = slotAt[i];
+            if (slot < 0) {
+                i++;
+                continue;
+            }
+            if (literals == null) {
+                literals = new ArrayList<>();
+                slotRefs = new int[4];
+            } else if (count == slotRefs.length) {
+                slotRefs = Arrays.copyOf(slotRefs, count * 2);
+            }
+            literals.add(text.substring(start, i));
+            slotRefs[count++] = slot;
+            i = slotEnd[i];
+            start = i;
+        }
+
+        if (literals == null) {
+            return ConditionTemplate.constant(text.substring(a, b));
+        }
+        literals.add(text.substring(start, b));
+        return ConditionTemplate.of(literals.toArray(new String[0]), Arrays.copyOf(slotRefs, count));
+    }
+
+    private boolean hasSlots(int a, int b) {
+        for (int i = a; i < b; i++) {
+            if (slotAt[i] >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int trimStart(int a, int b) {
+        while (a < b && masked.charAt(a) <= ' ') {
+            a++;
+        }
+        return a;
+    }
+
+    private int trimEnd(int a, int b) {
+        while (b > a && masked.charAt(b - 1) <= ' ') {
+            b--;
+        }
+        return b;
+    }
+
+    // ===== Folding =====
+
+    private static boolean evaluateConstant(String exp) {
+        if ("true".equalsIgnoreCase(exp)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(exp)) {
+            return false;
+        }
+        ConditionComparison comparison = ConditionComparison.parse(exp);
+        if (comparison != null) {
+            return comparison.evaluate();
+        }
+        return ConditionNode.Truthy.isTruthy(exp);
+    }
+
+    static ConditionNode not(ConditionNode child) {
+        if (child instanceof ConditionNode.Constant constant) {
+            return ConditionNode.constant(!constant.value());
+        }
+        if (child instanceof ConditionNode.Not not) {
+            return not.child();
+        }
+        return new ConditionNode.Not(child);
+    }
+
+    static ConditionNode and(List<ConditionNode> parts) {
+        List<ConditionNode> kept = new ArrayList<>(parts.size());
+        for (ConditionNode part : parts) {
+            if (part instanceof ConditionNode.Constant constant) {
+                if (!constant.value()) {
+                    return ConditionNode.FALSE;
+                }
+                continue;
+            }
+            kept.add(part);
+        }
+        if (kept.isEmpty()) {
+            return ConditionNode.TRUE;
+        }
+        return kept.size() == 1 ? kept.get(0) : new ConditionNode.And(kept.toArray(new ConditionNode[0]));
+    }
+
+    static ConditionNode or(List<ConditionNode> parts) {
+        List<ConditionNode> kept = new ArrayList<>(parts.size());
+        for (ConditionNode part : parts) {
+            if (part instanceof ConditionNode.Constant constant) {
+                if (constant.value()) {
+                    return ConditionNode.TRUE;
+                }
+                continue;
+            }
+            kept.add(part);
+        }
+        if (kept.isEmpty()) {
+            return ConditionNode.FALSE;
+        }
+        return kept.size() == 1 ? kept.get(0) : new ConditionNode.Or(kept.toArray(new ConditionNode[0]));
+    }
+
+    // \s do regex
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
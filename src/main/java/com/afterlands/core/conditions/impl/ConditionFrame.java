@@ -0,0 +1,68 @@
+package com.afterlands.core.conditions.impl;
+
+import com.afterlands.core.conditions.ConditionContext;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Estado de uma avaliação: player, contexto e valores dos slots já resolvidos.
+ *
+ * <p>
+ * Cada slot é resolvido no máximo uma vez por avaliação, e só quando algum
+ * nó realmente o lê (short-circuit de AND/OR pula os demais).
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Não thread-safe (uma instância por avaliação).
+ * </p>
+ */
+final class ConditionFrame {
+
+    private final PlaceholderSlot[] slots;
+    private final String[] values;
+    private final Player player;
+    private final ConditionContext ctx;
+    private final SlotResolver resolver;
+
+    ConditionFrame(@NotNull PlaceholderSlot[] slots, @NotNull Player player, @NotNull ConditionContext ctx,
+            @NotNull SlotResolver resolver) {
+        this.slots = slots;
+        this.values = new String[slots.length];
+        this.player = player;
+        this.ctx = ctx;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Frame com valores já resolvidos (ex.: slots independentes de player numa
+     * avaliação em lote). {@code shared} é copiado; entradas null são resolvidas
+     * sob demanda.
+     */
+    ConditionFrame(@NotNull PlaceholderSlot[] slots, @NotNull String[] shared, @NotNull Player player,
+            @NotNull ConditionContext ctx, @NotNull SlotResolver resolver) {
+        this.slots = slots;
+        this.values = shared.clone();
+        this.player = player;
+        this.ctx = ctx;
+        this.resolver = resolver;
+    }
+
+    @NotNull
+    String value(int slot) {
+        String value = values[slot];
+        if (value == null) {
+            value = resolver.resolve(player, slots[slot], ctx);
+            values[slot] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Resolve o valor de um placeholder para o player.
+     */
+    @FunctionalInterface
+    interface SlotResolver {
+        @NotNull
+        String resolve(@NotNull Player player, @NotNull PlaceholderSlot slot, @NotNull ConditionContext ctx);
+    }
+}
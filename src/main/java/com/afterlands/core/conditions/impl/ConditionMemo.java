@@ -0,0 +1,190 @@
+package com.afterlands.core.conditions.impl;
+
+import com.afterlands.core.conditions.ConditionContext;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Resultados memoizados por player de condições compiladas, invalidados por
+ * dependência.
+ *
+ * <p>
+ * <b>Dependências:</b> cada condição memoizável declara tags
+ * ({@code namespace:key} dos providers, {@link #WORLD}, {@link #PERMISSION});
+ * um índice reverso tag → condições permite invalidar só o que depende do que
+ * mudou. Troca de mundo e quit são tratados aqui; o resto é empurrado pelo
+ * {@link DefaultConditionService}.
+ * </p>
+ *
+ * <p>
+ * <b>Chave:</b> texto da expressão (instâncias recompiladas pelo cache do
+ * {@link DefaultConditionService} reaproveitam a entrada). Condições com
+ * variáveis de provider (que recebem o {@link ConditionContext}) guardam uma
+ * cópia de {@link ConditionContext#variables()} e só reaproveitam o resultado
+ * para variáveis iguais; as demais independem do contexto.
+ * </p>
+ *
+ * <p>
+ * <b>Limite:</b> no máximo {@value #MAX_ENTRIES_PER_PLAYER} entradas por
+ * player; ao estourar, as entradas do player são descartadas.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Thread-safe. Leituras não bloqueiam; escritas e
+ * invalidações sincronizam por player. Um resultado calculado enquanto uma
+ * invalidação do mesmo player acontece é descartado (contador de geração).
+ * </p>
+ */
+final class ConditionMemo implements Listener {
+
+    static final String WORLD = "@world";
+    static final String PERMISSION = "@permission";
+
+    static final int MAX_ENTRIES_PER_PLAYER = 1024;
+
+    private final long maxAgeNanos;
+    private final Map<UUID, PlayerMemo> players = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxAgeMs Validade máxima de um resultado, mesmo sem invalidação (&lt;= 0 = sem limite)
+     */
+    ConditionMemo(long maxAgeMs) {
+        this.maxAgeNanos = maxAgeMs <= 0 ? Long.MAX_VALUE : maxAgeMs * 1_000_000L;
+    }
+
+    /**
+     * Resultado memoizado ou calculado por {@code evaluator}.
+     *
+     * @param dependencies Tags das quais o resultado depende
+     * @param context      Variáveis do contexto, ou null se o resultado não depender delas
+     */
+    boolean evaluate(@NotNull Player player, @NotNull String expression, @NotNull String[] dependencies,
+            @Nullable Map<String, String> context, @NotNull BooleanSupplier evaluator) {
+        PlayerMemo memo = players.get(player.getUniqueId());
+        if (memo == null) {
+            memo = players.computeIfAbsent(player.getUniqueId(), k -> new PlayerMemo());
+        }
+
+        long now = System.nanoTime();
+        Entry entry = memo.entries.get(expression);
+        if (entry != null && Objects.equals(entry.context(), context) && now - entry.createdAt() <= maxAgeNanos) {
+            return entry.result();
+        }
+
+        long generation = memo.generation;
+        boolean result = evaluator.getAsBoolean();
+        Map<String, String> snapshot = context == null ? null : context.isEmpty() ? Map.of() : new HashMap<>(context);
+        memo.put(expression, new Entry(snapshot, result, now), dependencies, generation);
+        return result;
+    }
+
+    void invalidate(@NotNull UUID playerId, @NotNull String dependency) {
+        PlayerMemo memo = players.get(playerId);
+        if (memo != null) {
+            memo.invalidate(dependency);
+        }
+    }
+
+    void invalidateAll(@NotNull String dependency) {
+        for (PlayerMemo memo : players.values()) {
+            memo.invalidate(dependency);
+        }
+    }
+
+    void invalidate(@NotNull UUID playerId) {
+        PlayerMemo memo = players.get(playerId);
+        if (memo != null) {
+            memo.clear();
+        }
+    }
+
+    void clear() {
+        for (PlayerMemo memo : players.values()) {
+            memo.clear();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        invalidate(event.getPlayer().getUniqueId(), WORLD);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        players.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Tag de dependência de uma variável de provider.
+     */
+    @NotNull
+    static String variable(@NotNull String namespace, @NotNull String key) {
+        return namespace + ':' + key;
+    }
+
+    /**
+     * Dependências de uma condição calculadas para uma versão das fontes.
+     *
+     * @param tags       Tags, ou null se a condição não for memoizável
+     * @param contextual Se usa variáveis de provider (resultado depende do contexto)
+     */
+    record Dependencies(long version, @Nullable String[] tags, boolean contextual) {
+    }
+
+    /**
+     * @param context Cópia das variáveis do contexto, ou null se o resultado independe dele
+     */
+    private record Entry(@Nullable Map<String, String> context, boolean result, long createdAt) {
+    }
+
+    private static final class PlayerMemo {
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        // guardado por this
+        private final Map<String, Set<String>> byDependency = new HashMap<>();
+        volatile long generation;
+
+        synchronized void put(String expression, Entry entry, String[] dependencies, long seenGeneration) {
+            if (generation != seenGeneration) {
+                return; // invalidado durante a avaliação
+            }
+            if (entries.size() >= MAX_ENTRIES_PER_PLAYER && !entries.containsKey(expression)) {
+                clear();
+            }
+            entries.put(expression, entry);
+            for (String dependency : dependencies) {
+                byDependency.computeIfAbsent(dependency, k -> new HashSet<>()).add(expression);
+            }
+        }
+
+        synchronized void invalidate(String dependency) {
+            generation++;
+            Set<String> dependents = byDependency.remove(dependency);
+            if (dependents != null) {
+                for (String expression : dependents) {
+                    entries.remove(expression);
+                }
+            }
+        }
+
+        synchronized void clear() {
+            generation++;
+            entries.clear();
+            byDependency.clear();
+        }
+    }
+}
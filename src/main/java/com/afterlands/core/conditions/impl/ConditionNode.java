@@ -0,0 +1,100 @@
+package com.afterlands.core.conditions.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.regex.Pattern;
+
+/**
+ * Nó do AST de uma condição compilada.
+ *
+ * <p>
+ * <b>Thread Safety:</b> Imutável (o estado da avaliação fica no
+ * {@link ConditionFrame}).
+ * </p>
+ */
+sealed interface ConditionNode {
+
+    Constant TRUE = new Constant(true);
+    Constant FALSE = new Constant(false);
+
+    boolean evaluate(@NotNull ConditionFrame frame);
+
+    static Constant constant(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    /**
+     * Resultado conhecido na compilação (literal ou comparação sem placeholders).
+     */
+    record Constant(boolean value) implements ConditionNode {
+        @Override
+        public boolean evaluate(@NotNull ConditionFrame frame) {
+            return value;
+        }
+    }
+
+    record Not(@NotNull ConditionNode child) implements ConditionNode {
+        @Override
+        public boolean evaluate(@NotNull ConditionFrame frame) {
+            return !child.evaluate(frame);
+        }
+    }
+
+    record And(@NotNull ConditionNode[] children) implements ConditionNode {
+        @Override
+        public boolean evaluate(@NotNull ConditionFrame frame) {
+            for (ConditionNode child : children) {
+                if (!child.evaluate(frame)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    record Or(@NotNull ConditionNode[] children) implements ConditionNode {
+        @Override
+        public boolean evaluate(@NotNull ConditionFrame frame) {
+            for (ConditionNode child : children) {
+                if (child.evaluate(frame)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Comparação {@code left OP right}.
+     *
+     * @param pattern Regex pré-compilado quando o operador é matches/!matches e o
+     *                lado direito é literal; null caso contrário
+     */
+    record Compare(@NotNull ConditionTemplate left, @NotNull ConditionOperator operator,
+            @NotNull ConditionTemplate right, @Nullable Pattern pattern) implements ConditionNode {
+        @Override
+        public boolean evaluate(@NotNull ConditionFrame frame) {
+            String l = left.render(frame);
+            if (pattern != null) {
+                return operator.evaluate(l, pattern);
+            }
+            return operator.evaluate(l, right.render(frame));
+        }
+    }
+
+    /**
+     * Operando sem operador: verdadeiro para yes/true/1.
+     */
+    record Truthy(@NotNull ConditionTemplate value) implements ConditionNode {
+        @Override
+        public boolean evaluate(@NotNull ConditionFrame frame) {
+            return isTruthy(value.render(frame));
+        }
+
+        static boolean isTruthy(@NotNull String value) {
+            String v = value.trim();
+            return v.equalsIgnoreCase("yes") || v.equalsIgnoreCase("true") || v.equals("1");
+        }
+    }
+}
@@ -98,6 +98,28 @@ enum ConditionOperator {
         };
     }
 
+    /**
+     * matches/!matches com regex pré-compilado (lado direito literal).
+     */
+    boolean evaluate(String leftRaw, Pattern pattern) {
+        if (leftRaw == null) return false;
+        boolean found = pattern.matcher(leftRaw.trim()).find();
+        return this == NOT_MATCHES ? !found : found;
+    }
+
+    /**
+     * Compila o regex de um lado direito literal.
+     *
+     * @return null se o regex for inválido (a avaliação cai no caminho normal)
+     */
+    static Pattern compilePattern(String regexRaw) {
+        try {
+            return Pattern.compile(regexRaw.trim());
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
     private boolean safeMatches(String left, String regex) {
         try {
             return Pattern.compile(regex).matcher(left).find();
@@ -0,0 +1,86 @@
+package com.afterlands.core.conditions.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Operando de uma comparação: texto literal intercalado com slots de
+ * placeholder.
+ *
+ * <p>
+ * Os casos comuns não alocam: operando só literal devolve a constante e
+ * operando que é exatamente um placeholder devolve o valor do slot. Só a
+ * mistura (ex.: {@code rank_%tier%}) monta a string.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Imutável.
+ * </p>
+ */
+final class ConditionTemplate {
+
+    private static final int[] NO_SLOTS = new int[0];
+
+    // literals.length == slots.length + 1; literals[i] vem antes de slots[i]
+    private final String[] literals;
+    private final int[] slots;
+    private final int length;
+
+    private ConditionTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        int len = 0;
+        for (String literal : literals) {
+            len += literal.length();
+        }
+        this.length = len;
+    }
+
+    static ConditionTemplate constant(@NotNull String text) {
+        return new ConditionTemplate(new String[] { text }, NO_SLOTS);
+    }
+
+    static ConditionTemplate of(@NotNull String[] literals, @NotNull int[] slots) {
+        if (literals.length != slots.length + 1) {
+            throw new IllegalArgumentException("literals.length deve ser slots.length + 1");
+        }
+        return new ConditionTemplate(literals, slots);
+    }
+
+    boolean isConstant() {
+        return slots.length == 0;
+    }
+
+    /**
+     * Indica se todos os slots do operando já têm valor em {@code values}.
+     */
+    boolean isResolvedIn(@NotNull String[] values) {
+        for (int slot : slots) {
+            if (values[slot] == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull
+    String constantValue() {
+        return literals[0];
+    }
+
+    @NotNull
+    String render(@NotNull ConditionFrame frame) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        if (slots.length == 1 && length == 0) {
+            return frame.value(slots[0]);
+        }
+
+        StringBuilder sb = new StringBuilder(length + 16 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            sb.append(literals[i]).append(frame.value(slots[i]));
+        }
+        sb.append(literals[slots.length]);
+        return sb.toString();
+    }
+}
@@ -1,21 +1,26 @@
 package com.afterlands.core.conditions.impl;
 
 import com.afterlands.core.concurrent.SchedulerService;
+import com.afterlands.core.conditions.CompiledCondition;
 import com.afterlands.core.conditions.ConditionContext;
+import com.afterlands.core.conditions.ConditionDependency;
 import com.afterlands.core.conditions.ConditionService;
 import com.afterlands.core.conditions.ConditionVariableProvider;
+import com.afterlands.core.placeholders.PlaceholderApiBridge;
+import com.afterlands.core.placeholders.PlaceholderCache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Method;
-import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -27,60 +32,96 @@ import java.util.regex.Pattern;
  */
 public final class DefaultConditionService implements ConditionService {
     private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("%([^%]+)%");
+    private static final long DEFAULT_MEMO_MAX_AGE_MS = 60_000;
 
     private final Plugin plugin;
     private final Logger logger;
     private final SchedulerService scheduler;
+    private final PlaceholderCache placeholderCache;
     private final boolean debug;
 
     private final Map<String, List<String>> conditionGroups = new ConcurrentHashMap<>();
     private final Map<String, ConditionVariableProvider> variableProviders = new ConcurrentHashMap<>();
-
-    // cache do texto expandido (groups + variáveis) para reduzir custo em hot-path
-    private final Cache<String, String> expansionCache = Caffeine.newBuilder()
-            .maximumSize(50_000)
-            .expireAfterWrite(Duration.ofSeconds(10))
-            .recordStats()
+    // placeholders do PlaceholderAPI declarados thread-safe (lower-case, sem %) e prefixos (sem *)
+    private final Set<String> threadSafePlaceholders = ConcurrentHashMap.newKeySet();
+    private final List<String> threadSafePrefixes = new CopyOnWriteArrayList<>();
+    // placeholders do PlaceholderAPI com dependência declarada (lower-case, sem %) e prefixos (sem *)
+    private final Map<String, ConditionDependency> placeholderDependencies = new ConcurrentHashMap<>();
+    private final Map<String, ConditionDependency> dependencyPrefixes = new ConcurrentHashMap<>();
+    // incrementado a cada mudança nas fontes; invalida isAsyncSafe/dependências memoizados
+    private final AtomicLong sourcesVersion = new AtomicLong();
+    private final ConditionMemo memo;
+
+    // expressão -> AST compilado (independente de player/contexto)
+    private final Cache<String, CompiledExpression> compiledCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
             .build();
-
-    // PlaceholderAPI via reflexão (optional)
-    private volatile boolean placeholderApiAvailable;
-    private volatile Method setPlaceholdersMethod;
+    private final ConditionFrame.SlotResolver slotResolver = (player, slot, ctx) -> resolveSlot(player, slot, ctx, false);
+    private final ConditionFrame.SlotResolver asyncSlotResolver = (player, slot, ctx) -> resolveSlot(player, slot, ctx, true);
 
     public DefaultConditionService(@NotNull Plugin plugin, @NotNull SchedulerService scheduler, boolean debug) {
+        this(plugin, scheduler, PlaceholderCache.disabled(), debug);
+    }
+
+    public DefaultConditionService(@NotNull Plugin plugin, @NotNull SchedulerService scheduler,
+            @NotNull PlaceholderCache placeholderCache, boolean debug) {
+        this(plugin, scheduler, placeholderCache, DEFAULT_MEMO_MAX_AGE_MS, debug);
+    }
+
+    /**
+     * @param memoMaxAgeMs Validade máxima dos resultados de {@link #evaluateMemoized} (&lt;= 0 = sem limite)
+     */
+    public DefaultConditionService(@NotNull Plugin plugin, @NotNull SchedulerService scheduler,
+            @NotNull PlaceholderCache placeholderCache, long memoMaxAgeMs, boolean debug) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
         this.scheduler = scheduler;
+        this.placeholderCache = placeholderCache;
         this.debug = debug;
+        this.memo = new ConditionMemo(memoMaxAgeMs);
+        Bukkit.getPluginManager().registerEvents(memo, plugin);
 
         initPlaceholderApi();
 
         // provider padrão: %abs_flag:key% (compat com AfterBlockState)
-        registerVariableProvider("abs_flag", (player, namespace, key, ctx) -> ctx.getOrDefault(key, ""));
+        // lê só o contexto: independente de player e seguro fora da main thread
+        registerVariableProvider("abs_flag", new ConditionVariableProvider() {
+            @Override
+            public @Nullable String resolve(@NotNull Player player, @NotNull String namespace, @NotNull String key,
+                    @NotNull ConditionContext ctx) {
+                return ctx.getOrDefault(key, "");
+            }
+
+            @Override
+            public boolean isPlayerIndependent() {
+                return true;
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return true;
+            }
+        });
     }
 
     private void initPlaceholderApi() {
-        try {
-            if (Bukkit.getPluginManager().getPlugin("PlaceholderAPI") == null) {
-                placeholderApiAvailable = false;
-                return;
-            }
-            Class<?> papi = Class.forName("me.clip.placeholderapi.PlaceholderAPI");
-            setPlaceholdersMethod = papi.getMethod("setPlaceholders", org.bukkit.OfflinePlayer.class, String.class);
-            placeholderApiAvailable = true;
+        if (Bukkit.getPluginManager().getPlugin("PlaceholderAPI") == null) {
+            return;
+        }
+        if (PlaceholderApiBridge.isAvailable()) {
             logger.info("PlaceholderAPI enabled");
-        } catch (Exception e) {
-            placeholderApiAvailable = false;
-            setPlaceholdersMethod = null;
-            logger.log(Level.WARNING, "Falha ao iniciar PlaceholderAPI (reflection)", e);
+        } else if (Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI")) {
+            logger.warning("Falha ao iniciar PlaceholderAPI (setPlaceholders não encontrado)");
         }
+        // ainda não habilitado: o PlaceholderApiBridge liga no PluginEnableEvent
     }
 
     @Override
     public void setConditionGroups(@NotNull Map<String, List<String>> groups) {
         conditionGroups.clear();
         conditionGroups.putAll(groups);
-        expansionCache.invalidateAll();
+        compiledCache.invalidateAll();
+        memo.clear();
         if (debug)
             logger.info("conditionGroups=" + groups.size());
     }
@@ -93,7 +134,56 @@ public final class DefaultConditionService implements ConditionService {
     @Override
     public void registerVariableProvider(@NotNull String namespace, @NotNull ConditionVariableProvider provider) {
         variableProviders.put(namespace.toLowerCase(Locale.ROOT), provider);
-        expansionCache.invalidateAll();
+        sourcesChanged();
+    }
+
+    @Override
+    public void registerThreadSafePlaceholder(@NotNull String placeholder) {
+        String key = placeholder.toLowerCase(Locale.ROOT);
+        if (key.endsWith("*")) {
+            threadSafePrefixes.add(key.substring(0, key.length() - 1));
+        } else {
+            threadSafePlaceholders.add(key);
+        }
+        sourcesChanged();
+    }
+
+    @Override
+    public void registerPlaceholderDependency(@NotNull String placeholder, @NotNull ConditionDependency dependency) {
+        String key = placeholder.toLowerCase(Locale.ROOT);
+        if (key.endsWith("*")) {
+            dependencyPrefixes.put(key.substring(0, key.length() - 1), dependency);
+        } else {
+            placeholderDependencies.put(key, dependency);
+        }
+        sourcesChanged();
+    }
+
+    private void sourcesChanged() {
+        sourcesVersion.incrementAndGet();
+        memo.clear();
+    }
+
+    @Override
+    public boolean isAsyncSafe(@NotNull CompiledCondition condition) {
+        CompiledExpression compiled = toCompiled(condition);
+        if (compiled.isConstant()) {
+            return true;
+        }
+        long version = sourcesVersion.get();
+        Boolean cached = compiled.asyncSafe(version);
+        if (cached != null) {
+            return cached;
+        }
+        boolean safe = true;
+        for (PlaceholderSlot slot : compiled.slots()) {
+            if (!isThreadSafeSource(slot)) {
+                safe = false;
+                break;
+            }
+        }
+        compiled.asyncSafe(version, safe);
+        return safe;
     }
 
     @Override
@@ -102,12 +192,12 @@ public final class DefaultConditionService implements ConditionService {
             return true;
         }
         try {
-            String expanded = expandAndResolveCustom(player, expression, ctx);
-            String resolved = resolvePlaceholderApiIfNeeded(player, expanded);
-            boolean result = evaluateExpression(resolved);
+            // template compilado por expressão (groups expandidos, slots tokenizados);
+            // os valores dos slots ficam só no frame desta avaliação
+            CompiledExpression compiled = compileInternal(expression);
+            boolean result = compiled.evaluate(player, ctx, slotResolver);
             if (debug) {
-                logger.info("[AfterCore][Condition] " + player.getName() + " | " + expression + " -> " + resolved
-                        + " = " + result);
+                logger.info("[AfterCore][Condition] " + player.getName() + " | " + expression + " = " + result);
             }
             return result;
         } catch (Exception e) {
@@ -119,230 +209,434 @@ public final class DefaultConditionService implements ConditionService {
     @Override
     public @NotNull CompletableFuture<Boolean> evaluate(@NotNull Player player, @NotNull String expression,
             @NotNull ConditionContext ctx) {
-        if (!placeholderApiAvailable) {
-            return CompletableFuture.completedFuture(evaluateSync(player, expression, ctx));
+        if (expression.isEmpty()) {
+            return CompletableFuture.completedFuture(true);
         }
-        // PlaceholderAPI deve rodar na main thread.
-        return scheduler.runSync(() -> {
-        }).thenApply(v -> evaluateSync(player, expression, ctx));
+        CompiledExpression compiled;
+        try {
+            compiled = compileInternal(expression);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Erro avaliando condição: " + expression, e);
+            return CompletableFuture.completedFuture(false);
+        }
+        return evaluate(player, compiled, ctx);
     }
 
-    private String expandAndResolveCustom(Player player, String expression, ConditionContext ctx) {
-        String cacheKey = expression + "|" + System.identityHashCode(ctx);
-        String cached = expansionCache.getIfPresent(cacheKey);
-        if (cached != null)
-            return cached;
+    @Override
+    public @NotNull CompiledCondition compile(@NotNull String expression) {
+        return compileInternal(expression);
+    }
 
-        String expanded = expandGroups(expression);
-        String resolvedCustom = resolveCustomVariables(player, expanded, ctx);
-        expansionCache.put(cacheKey, resolvedCustom);
-        return resolvedCustom;
+    @Override
+    public boolean evaluateSync(@NotNull Player player, @NotNull CompiledCondition condition,
+            @NotNull ConditionContext ctx) {
+        return evaluateCompiled(player, condition, ctx, slotResolver);
     }
 
-    private String expandGroups(String expression) {
-        String result = expression;
+    private boolean evaluateCompiled(Player player, CompiledCondition condition, ConditionContext ctx,
+            ConditionFrame.SlotResolver resolver) {
+        try {
+            CompiledExpression compiled = toCompiled(condition);
+            boolean result = compiled.evaluate(player, ctx, resolver);
+            if (debug) {
+                logger.info("[AfterCore][Condition] " + player.getName() + " | " + compiled.expression()
+                        + " (compiled) = " + result);
+            }
+            return result;
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Erro avaliando condição: " + condition.expression(), e);
+            return false;
+        }
+    }
 
-        List<String> group = conditionGroups.get(expression);
-        if (group != null && !group.isEmpty()) {
-            result = group.size() == 1 ? group.get(0) : "(" + String.join(" AND ", group) + ")";
+    @Override
+    public @NotNull CompletableFuture<Boolean> evaluate(@NotNull Player player, @NotNull CompiledCondition condition,
+            @NotNull ConditionContext ctx) {
+        if (!PlaceholderApiBridge.isAvailable() || condition.isConstant() || Bukkit.isPrimaryThread()) {
+            return CompletableFuture.completedFuture(evaluateSync(player, condition, ctx));
         }
+        if (isAsyncSafe(condition)) {
+            // só fontes thread-safe: avalia aqui, sem esperar o próximo tick
+            return CompletableFuture.completedFuture(evaluateCompiled(player, condition, ctx, asyncSlotResolver));
+        }
+        // PlaceholderAPI deve rodar na main thread.
+        return scheduler.supplySync(() -> evaluateSync(player, condition, ctx));
+    }
 
-        for (Map.Entry<String, List<String>> entry : conditionGroups.entrySet()) {
-            String name = entry.getKey();
-            if (!result.contains(name))
-                continue;
-            List<String> lines = entry.getValue();
-            String replacement = lines.size() == 1 ? lines.get(0) : "(" + String.join(" AND ", lines) + ")";
-            result = result.replace(name, replacement);
+    @Override
+    public boolean evaluateMemoized(@NotNull Player player, @NotNull CompiledCondition condition,
+            @NotNull ConditionContext ctx) {
+        CompiledExpression compiled;
+        try {
+            compiled = toCompiled(condition);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Erro avaliando condição: " + condition.expression(), e);
+            return false;
+        }
+        ConditionMemo.Dependencies dependencies = compiled.isConstant() ? null : memoDependencies(compiled);
+        if (dependencies == null || dependencies.tags() == null) {
+            return evaluateSync(player, compiled, ctx);
         }
+        return memo.evaluate(player, compiled.expression(), dependencies.tags(),
+                dependencies.contextual() ? ctx.variables() : null, () -> evaluateSync(player, compiled, ctx));
+    }
 
-        return result;
+    @Override
+    public void invalidateVariable(@NotNull Player player, @NotNull String namespace, @NotNull String key) {
+        memo.invalidate(player.getUniqueId(), ConditionMemo.variable(namespace.toLowerCase(Locale.ROOT), key));
     }
 
-    private String resolveCustomVariables(Player player, String text, ConditionContext ctx) {
-        Matcher m = PLACEHOLDER_PATTERN.matcher(text);
-        StringBuffer out = new StringBuffer();
-        while (m.find()) {
-            String token = m.group(1); // inside %...%
-            String replacement = null;
-
-            int idx = token.indexOf(':');
-            if (idx > 0) {
-                String namespace = token.substring(0, idx).toLowerCase(Locale.ROOT);
-                String key = token.substring(idx + 1);
-                ConditionVariableProvider provider = variableProviders.get(namespace);
-                if (provider != null) {
-                    replacement = provider.resolve(player, namespace, key, ctx);
-                }
-            }
+    @Override
+    public void invalidateVariable(@NotNull String namespace, @NotNull String key) {
+        memo.invalidateAll(ConditionMemo.variable(namespace.toLowerCase(Locale.ROOT), key));
+    }
 
-            if (replacement == null) {
-                // mantém placeholder intacto para PlaceholderAPI/fallback resolver depois
-                replacement = "%" + token + "%";
-            }
+    @Override
+    public void invalidatePermissions(@NotNull Player player) {
+        memo.invalidate(player.getUniqueId(), ConditionMemo.PERMISSION);
+    }
+
+    @Override
+    public void invalidateMemoized(@NotNull Player player) {
+        memo.invalidate(player.getUniqueId());
+    }
 
-            m.appendReplacement(out, Matcher.quoteReplacement(replacement));
+    /**
+     * Dependências da condição (memoizadas por versão das fontes).
+     *
+     * @return Dependências; {@code tags()} é null se algum placeholder não tiver dependência conhecida
+     */
+    private ConditionMemo.Dependencies memoDependencies(CompiledExpression compiled) {
+        long version = sourcesVersion.get();
+        ConditionMemo.Dependencies cached = compiled.memoDependencies();
+        if (cached != null && cached.version() == version) {
+            return cached;
         }
-        m.appendTail(out);
-        return out.toString();
+        ConditionMemo.Dependencies dependencies = computeMemoDependencies(compiled, version);
+        compiled.memoDependencies(dependencies);
+        return dependencies;
     }
 
-    private String resolvePlaceholderApiIfNeeded(Player player, String text) {
-        if (!placeholderApiAvailable || setPlaceholdersMethod == null) {
-            return resolveBasicPlaceholders(text, player);
+    private ConditionMemo.Dependencies computeMemoDependencies(CompiledExpression compiled, long version) {
+        Set<String> tags = new LinkedHashSet<>();
+        boolean contextual = false;
+        for (PlaceholderSlot slot : compiled.slots()) {
+            if (slot.namespace() != null && variableProviders.containsKey(slot.namespace())) {
+                tags.add(ConditionMemo.variable(slot.namespace(), slot.key()));
+                contextual = true; // providers recebem o ctx
+                continue;
+            }
+            ConditionDependency dependency = placeholderDependency(slot);
+            if (dependency == null) {
+                return new ConditionMemo.Dependencies(version, null, false);
+            }
+            switch (dependency) {
+                case WORLD -> tags.add(ConditionMemo.WORLD);
+                case PERMISSION -> tags.add(ConditionMemo.PERMISSION);
+                case STATIC -> {
+                }
+            }
         }
+        return new ConditionMemo.Dependencies(version, tags.toArray(new String[0]), contextual);
+    }
 
-        if (!text.contains("%")) {
-            return text;
+    private ConditionDependency placeholderDependency(PlaceholderSlot slot) {
+        String token = slot.token().toLowerCase(Locale.ROOT);
+        ConditionDependency dependency = placeholderDependencies.get(token);
+        if (dependency != null) {
+            return dependency;
         }
+        for (Map.Entry<String, ConditionDependency> entry : dependencyPrefixes.entrySet()) {
+            if (token.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
 
+    @Override
+    public @NotNull BitSet evaluateBatch(@NotNull Collection<? extends Player> players,
+            @NotNull CompiledCondition condition, @NotNull ConditionContext ctx) {
+        Player[] targets = players.toArray(new Player[0]);
+        if (targets.length == 0) {
+            return new BitSet();
+        }
         try {
-            // PlaceholderAPI via reflection (sem hard-dependency)
-            Object result = setPlaceholdersMethod.invoke(null, player, text);
-            String resolved = result != null ? result.toString() : text;
-            return resolveBasicPlaceholders(resolved, player);
+            CompiledExpression compiled = toCompiled(condition);
+            String[] shared = new String[compiled.slots().length];
+            for (int slot : independentSlots(compiled)) {
+                shared[slot] = resolveIndependent(targets[0], compiled.slots()[slot], ctx);
+            }
+            return evaluateAll(targets, compiled, shared, ctx);
         } catch (Exception e) {
-            if (debug)
-                logger.warning("PlaceholderAPI error: " + e.getMessage());
-            return resolveBasicPlaceholders(text, player);
+            logger.log(Level.WARNING, "Erro avaliando condição em lote: " + condition.expression(), e);
+            return new BitSet();
         }
     }
 
-    /**
-     * Fallback: placeholders básicos quando PlaceholderAPI não está presente.
-     * Mantém compat com ideias do ConditionEvaluator do AfterMotion.
-     */
-    private String resolveBasicPlaceholders(String text, Player player) {
-        Matcher matcher = PLACEHOLDER_PATTERN.matcher(text);
-        StringBuffer sb = new StringBuffer();
-        while (matcher.find()) {
-            String placeholder = matcher.group(1);
-            String replacement = switch (placeholder.toLowerCase(Locale.ROOT)) {
-                case "player", "player_name" -> player.getName();
-                case "player_uuid" -> player.getUniqueId().toString();
-                case "player_world" -> player.getWorld().getName();
-                case "player_health" -> String.valueOf((int) player.getHealth());
-                case "player_food" -> String.valueOf(player.getFoodLevel());
-                case "player_level" -> String.valueOf(player.getLevel());
-                case "player_is_op" -> player.isOp() ? "yes" : "no";
-                case "player_is_flying" -> player.isFlying() ? "yes" : "no";
-                case "player_is_sneaking" -> player.isSneaking() ? "yes" : "no";
-                default -> "%" + placeholder + "%";
+    @Override
+    public @NotNull CompletableFuture<BitSet> evaluateBatchAsync(@NotNull Collection<? extends Player> players,
+            @NotNull CompiledCondition condition, @NotNull ConditionContext ctx) {
+        Player[] targets = players.toArray(new Player[0]);
+        if (targets.length == 0) {
+            return CompletableFuture.completedFuture(new BitSet());
+        }
+        CompiledExpression compiled;
+        try {
+            compiled = toCompiled(condition);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Erro avaliando condição em lote: " + condition.expression(), e);
+            return CompletableFuture.completedFuture(new BitSet());
+        }
+
+        // slots independentes thread-safe: uma task do cpuExecutor cada; os demais, uma vez na main thread
+        // (índices distintos; allOf publica as escritas)
+        String[] shared = new String[compiled.slots().length];
+        List<CompletableFuture<?>> resolving = new ArrayList<>();
+        List<Integer> syncSlots = new ArrayList<>();
+        for (int slot : independentSlots(compiled)) {
+            PlaceholderSlot placeholder = compiled.slots()[slot];
+            ConditionVariableProvider provider = variableProviders.get(placeholder.namespace());
+            if (provider != null && provider.isThreadSafe()) {
+                resolving.add(CompletableFuture.runAsync(
+                        () -> shared[slot] = resolveIndependent(targets[0], placeholder, ctx),
+                        scheduler.cpuExecutor()));
+            } else {
+                syncSlots.add(slot);
+            }
+        }
+        if (!syncSlots.isEmpty()) {
+            Runnable resolveSync = () -> {
+                for (int slot : syncSlots) {
+                    shared[slot] = resolveIndependent(targets[0], compiled.slots()[slot], ctx);
+                }
             };
-            matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+            if (Bukkit.isPrimaryThread()) {
+                resolveSync.run();
+            } else {
+                resolving.add(scheduler.runSync(resolveSync));
+            }
         }
-        matcher.appendTail(sb);
-        return sb.toString();
-    }
 
-    // ===== Expression evaluation =====
+        return CompletableFuture.allOf(resolving.toArray(new CompletableFuture<?>[0])).<BitSet>thenCompose(v -> {
+            ConditionNode root = specialize(targets[0], compiled, shared, ctx);
+            if (root instanceof ConditionNode.Constant || !PlaceholderApiBridge.isAvailable() || Bukkit.isPrimaryThread()) {
+                return CompletableFuture.completedFuture(evaluateAll(targets, compiled, root, shared, ctx,
+                        slotResolver));
+            }
+            if (isAsyncSafe(compiled)) {
+                return CompletableFuture.completedFuture(evaluateAll(targets, compiled, root, shared, ctx,
+                        asyncSlotResolver));
+            }
+            // PlaceholderAPI deve rodar na main thread.
+            return scheduler.supplySync(() -> evaluateAll(targets, compiled, root, shared, ctx, slotResolver));
+        }).exceptionally(e -> {
+            logger.log(Level.WARNING, "Erro avaliando condição em lote: " + condition.expression(), e);
+            return new BitSet();
+        });
+    }
 
-    private boolean evaluateExpression(@NotNull String expression) {
-        String exp = expression.trim();
-        if (exp.isEmpty())
-            return true;
+    private BitSet evaluateAll(Player[] targets, CompiledExpression compiled, String[] shared,
+            ConditionContext ctx) {
+        return evaluateAll(targets, compiled, specialize(targets[0], compiled, shared, ctx), shared, ctx,
+                slotResolver);
+    }
 
-        // NOT prefix (case-insensitive)
-        if (exp.regionMatches(true, 0, "NOT ", 0, 4)) {
-            return !evaluateExpression(exp.substring(4).trim());
+    private BitSet evaluateAll(Player[] targets, CompiledExpression compiled, ConditionNode root, String[] shared,
+            ConditionContext ctx, ConditionFrame.SlotResolver resolver) {
+        BitSet result = new BitSet(targets.length);
+        if (root instanceof ConditionNode.Constant constant) {
+            if (constant.value()) {
+                result.set(0, targets.length);
+            }
+            return result;
         }
-
-        // Resolve parentheses (inner-most)
-        while (exp.contains("(")) {
-            int start = exp.lastIndexOf('(');
-            int end = exp.indexOf(')', start);
-            if (end == -1) {
-                throw new IllegalArgumentException("Parênteses não fechados em: " + exp);
+        for (int i = 0; i < targets.length; i++) {
+            try {
+                if (root.evaluate(new ConditionFrame(compiled.slots(), shared, targets[i], ctx, resolver))) {
+                    result.set(i);
+                }
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Erro avaliando condição: " + compiled.expression(), e);
             }
-            String inner = exp.substring(start + 1, end);
-            boolean innerResult = evaluateExpression(inner);
-            exp = exp.substring(0, start) + innerResult + exp.substring(end + 1);
         }
+        if (debug) {
+            logger.info("[AfterCore][Condition] batch(" + targets.length + ") | " + compiled.expression()
+                    + " = " + result.cardinality() + " true");
+        }
+        return result;
+    }
 
-        // OR (lower precedence)
-        if (containsOperator(exp, " OR ")) {
-            String[] parts = splitOperator(exp, " OR ");
-            for (String p : parts) {
-                if (evaluateExpression(p))
-                    return true;
-            }
-            return false;
+    /**
+     * AST com as sub-expressões que só dependem de {@code shared} já resolvidas.
+     */
+    private ConditionNode specialize(Player anyPlayer, CompiledExpression compiled, String[] shared,
+            ConditionContext ctx) {
+        if (compiled.isConstant()) {
+            return compiled.root();
         }
+        ConditionFrame frame = new ConditionFrame(compiled.slots(), shared, anyPlayer, ctx, slotResolver);
+        return ConditionBatch.specialize(compiled.root(), shared, frame);
+    }
 
-        // AND (higher precedence)
-        if (containsOperator(exp, " AND ")) {
-            String[] parts = splitOperator(exp, " AND ");
-            for (String p : parts) {
-                if (!evaluateExpression(p))
-                    return false;
+    private int[] independentSlots(CompiledExpression compiled) {
+        PlaceholderSlot[] slots = compiled.slots();
+        int[] out = new int[slots.length];
+        int count = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i].namespace() == null) {
+                continue;
+            }
+            ConditionVariableProvider provider = variableProviders.get(slots[i].namespace());
+            if (provider != null && provider.isPlayerIndependent()) {
+                out[count++] = i;
             }
-            return true;
         }
+        return Arrays.copyOf(out, count);
+    }
 
-        // boolean literals
-        if ("true".equalsIgnoreCase(exp))
-            return true;
-        if ("false".equalsIgnoreCase(exp))
-            return false;
+    /**
+     * @return valor do provider independente, ou null (slot cai para a resolução por player)
+     */
+    private String resolveIndependent(Player anyPlayer, PlaceholderSlot slot, ConditionContext ctx) {
+        ConditionVariableProvider provider = variableProviders.get(slot.namespace());
+        return provider != null ? provider.resolve(anyPlayer, slot.namespace(), slot.key(), ctx) : null;
+    }
 
-        // comparison
-        ConditionComparison comparison = ConditionComparison.parse(exp);
-        if (comparison != null) {
-            return comparison.evaluate();
+    private CompiledExpression toCompiled(CompiledCondition condition) {
+        return condition instanceof CompiledExpression c ? c : compileInternal(condition.expression());
+    }
+
+    private CompiledExpression compileInternal(String expression) {
+        return compiledCache.get(expression, e -> ConditionCompiler.compile(e, expandGroups(e)));
+    }
+
+    /**
+     * Resolve um slot: provider custom, depois PlaceholderAPI, depois fallback
+     * básico (mesma ordem da avaliação por string). Os dois últimos dependem só
+     * do player e passam pelo {@link PlaceholderCache} (1x por tick).
+     *
+     * @param async Fora da main thread: placeholders não declarados thread-safe
+     *              ficam sem resolver em vez de chamar o PlaceholderAPI
+     */
+    private String resolveSlot(Player player, PlaceholderSlot slot, ConditionContext ctx, boolean async) {
+        if (slot.namespace() != null) {
+            ConditionVariableProvider provider = variableProviders.get(slot.namespace());
+            if (provider != null) {
+                String value = provider.resolve(player, slot.namespace(), slot.key(), ctx);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        if (async && !isThreadSafePlaceholder(slot)) {
+            return slot.raw();
         }
+        return resolvePlayerPlaceholder(player, slot.raw());
+    }
 
-        // truthy fallback
-        return isTruthy(exp);
+    private boolean isThreadSafeSource(PlaceholderSlot slot) {
+        if (slot.namespace() != null) {
+            ConditionVariableProvider provider = variableProviders.get(slot.namespace());
+            if (provider != null && provider.isThreadSafe()) {
+                return true;
+            }
+        }
+        return isThreadSafePlaceholder(slot);
     }
 
-    private boolean isTruthy(String value) {
-        if (value == null)
-            return false;
-        String v = value.trim().toLowerCase(Locale.ROOT);
-        if (v.isEmpty())
+    private boolean isThreadSafePlaceholder(PlaceholderSlot slot) {
+        if (threadSafePlaceholders.isEmpty() && threadSafePrefixes.isEmpty()) {
             return false;
-        return v.equals("yes") || v.equals("true") || v.equals("1");
-    }
-
-    private boolean containsOperator(@NotNull String expression, @NotNull String operator) {
-        int depth = 0;
-        int opLen = operator.length();
-        String upper = expression.toUpperCase(Locale.ROOT);
-        String opUpper = operator.toUpperCase(Locale.ROOT);
-
-        for (int i = 0; i <= expression.length() - opLen; i++) {
-            char c = expression.charAt(i);
-            if (c == '(')
-                depth++;
-            else if (c == ')')
-                depth--;
-            else if (depth == 0 && upper.substring(i, i + opLen).equals(opUpper)) {
+        }
+        String token = slot.token().toLowerCase(Locale.ROOT);
+        if (threadSafePlaceholders.contains(token)) {
+            return true;
+        }
+        for (String prefix : threadSafePrefixes) {
+            if (token.startsWith(prefix)) {
                 return true;
             }
         }
         return false;
     }
 
-    private String[] splitOperator(@NotNull String expression, @NotNull String operator) {
-        List<String> parts = new ArrayList<>();
-        int depth = 0;
-        int last = 0;
-        int opLen = operator.length();
-        String upper = expression.toUpperCase(Locale.ROOT);
-        String opUpper = operator.toUpperCase(Locale.ROOT);
-
-        for (int i = 0; i <= expression.length() - opLen; i++) {
-            char c = expression.charAt(i);
-            if (c == '(')
-                depth++;
-            else if (c == ')')
-                depth--;
-            else if (depth == 0 && upper.substring(i, i + opLen).equals(opUpper)) {
-                parts.add(expression.substring(last, i));
-                last = i + opLen;
+    /**
+     * PlaceholderAPI (via {@link PlaceholderCache}) + fallback básico para um
+     * placeholder ({@code %token%}). O fallback é aplicado sobre o valor
+     * cacheado, não gravado no cache compartilhado.
+     */
+    private String resolvePlayerPlaceholder(Player player, String placeholder) {
+        if (PlaceholderApiBridge.isAvailable()) {
+            try {
+                String resolved = placeholderCache.get(player, placeholder);
+                if (!placeholder.equals(resolved)) {
+                    return resolved.indexOf('%') >= 0 ? resolveBasicPlaceholders(resolved, player) : resolved;
+                }
+            } catch (Exception e) {
+                if (debug)
+                    logger.warning("PlaceholderAPI error: " + e.getMessage());
             }
         }
-        parts.add(expression.substring(last));
-        return parts.toArray(new String[0]);
+
+        String basic = basicPlaceholder(placeholder.substring(1, placeholder.length() - 1), player);
+        return basic != null ? basic : placeholder;
+    }
+
+    private String expandGroups(String expression) {
+        String result = expression;
+
+        List<String> group = conditionGroups.get(expression);
+        if (group != null && !group.isEmpty()) {
+            result = group.size() == 1 ? group.get(0) : "(" + String.join(" AND ", group) + ")";
+        }
+
+        for (Map.Entry<String, List<String>> entry : conditionGroups.entrySet()) {
+            String name = entry.getKey();
+            if (!result.contains(name))
+                continue;
+            List<String> lines = entry.getValue();
+            String replacement = lines.size() == 1 ? lines.get(0) : "(" + String.join(" AND ", lines) + ")";
+            result = result.replace(name, replacement);
+        }
+
+        return result;
+    }
+
+    /**
+     * Fallback: placeholders básicos quando PlaceholderAPI não está presente.
+     * Mantém compat com ideias do ConditionEvaluator do AfterMotion.
+     */
+    private String resolveBasicPlaceholders(String text, Player player) {
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(text);
+        StringBuffer sb = new StringBuffer();
+        while (matcher.find()) {
+            String placeholder = matcher.group(1);
+            String replacement = basicPlaceholder(placeholder, player);
+            if (replacement == null) {
+                replacement = "%" + placeholder + "%";
+            }
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * @return valor do placeholder básico, ou null se não for um deles
+     */
+    private String basicPlaceholder(String placeholder, Player player) {
+        return switch (placeholder.toLowerCase(Locale.ROOT)) {
+            case "player", "player_name" -> player.getName();
+            case "player_uuid" -> player.getUniqueId().toString();
+            case "player_world" -> player.getWorld().getName();
+            case "player_health" -> String.valueOf((int) player.getHealth());
+            case "player_food" -> String.valueOf(player.getFoodLevel());
+            case "player_level" -> String.valueOf(player.getLevel());
+            case "player_is_op" -> player.isOp() ? "yes" : "no";
+            case "player_is_flying" -> player.isFlying() ? "yes" : "no";
+            case "player_is_sneaking" -> player.isSneaking() ? "yes" : "no";
+            default -> null;
+        };
     }
 }
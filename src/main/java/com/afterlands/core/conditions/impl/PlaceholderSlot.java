@@ -0,0 +1,27 @@
+package com.afterlands.core.conditions.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Placeholder ({@code %token%}) de uma expressão compilada, pré-dividido em
+ * namespace/key para os providers custom.
+ *
+ * @param token     Conteúdo entre os {@code %}
+ * @param raw       Token com os {@code %} (entrada do PlaceholderAPI)
+ * @param namespace Namespace em lower-case ({@code abs_flag} em {@code %abs_flag:key%}), ou null
+ * @param key       Chave após o {@code :}, ou null
+ */
+record PlaceholderSlot(@NotNull String token, @NotNull String raw, @Nullable String namespace, @Nullable String key) {
+
+    static PlaceholderSlot of(@NotNull String token) {
+        int idx = token.indexOf(':');
+        if (idx > 0) {
+            return new PlaceholderSlot(token, "%" + token + "%",
+                    token.substring(0, idx).toLowerCase(Locale.ROOT), token.substring(idx + 1));
+        }
+        return new PlaceholderSlot(token, "%" + token + "%", null, null);
+    }
+}
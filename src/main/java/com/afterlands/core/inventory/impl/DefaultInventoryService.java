@@ -24,6 +24,7 @@ import com.afterlands.core.inventory.template.ItemTemplateService;
 import com.afterlands.core.inventory.view.InventoryViewHolder;
 import com.afterlands.core.inventory.InventoryConfig;
 import com.afterlands.core.config.MessageService;
+import com.afterlands.core.placeholders.PlaceholderCache;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
@@ -98,7 +99,8 @@ public class DefaultInventoryService implements InventoryService {
             @NotNull ActionExecutor actionExecutor,
             @NotNull ConditionService conditions,
             @NotNull MessageService messageService,
-            @NotNull InventoryConfigManager configManager
+            @NotNull InventoryConfigManager configManager,
+            @NotNull PlaceholderCache placeholderCache
     ) {
         this.plugin = plugin;
         this.scheduler = scheduler;
@@ -111,7 +113,7 @@ public class DefaultInventoryService implements InventoryService {
         // Phase 2: Initialize cache + compilation pipeline
         this.debug = plugin.getConfig().getBoolean("debug", false);
         this.itemCache = new ItemCache(plugin.getLogger(), debug);
-        this.placeholderResolver = new PlaceholderResolver(scheduler, messageService, debug);
+        this.placeholderResolver = new PlaceholderResolver(scheduler, messageService, placeholderCache, debug);
         this.itemCompiler = new ItemCompiler(scheduler, itemCache, placeholderResolver, messageService, plugin.getLogger(), debug);
 
         // Phase 3: Initialize pagination + tabs
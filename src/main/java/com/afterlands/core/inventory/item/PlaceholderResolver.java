@@ -4,9 +4,10 @@ import com.afterlands.core.api.messages.MessageKey;
 import com.afterlands.core.concurrent.SchedulerService;
 import com.afterlands.core.config.MessageService;
 import com.afterlands.core.inventory.InventoryContext;
+import com.afterlands.core.placeholders.PlaceholderApiBridge;
+import com.afterlands.core.placeholders.PlaceholderCache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import me.clip.placeholderapi.PlaceholderAPI;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -38,7 +39,9 @@ import java.util.regex.Pattern;
  *
  * <p>
  * <b>Cache:</b> Placeholders resolvidos são cacheados por 5s (TTL curto
- * para evitar dados stale).
+ * para evitar dados stale). Cada %placeholder% passa ainda pelo
+ * {@link PlaceholderCache} compartilhado com o ConditionService (1x por tick
+ * por player).
  * </p>
  *
  * <p>
@@ -53,10 +56,10 @@ public class PlaceholderResolver {
     private static final int MAX_ITERATIONS = 10;
     private static final long CACHE_TTL_SECONDS = 5;
 
-    private static final boolean PAPI_AVAILABLE = checkPlaceholderAPI();
 
     private final SchedulerService scheduler;
     private final MessageService messageService;
+    private final PlaceholderCache placeholderCache;
     private final Cache<CacheKey, String> cache;
     private final boolean debug;
 
@@ -69,8 +72,22 @@ public class PlaceholderResolver {
      */
     public PlaceholderResolver(@NotNull SchedulerService scheduler, @NotNull MessageService messageService,
             boolean debug) {
+        this(scheduler, messageService, PlaceholderCache.disabled(), debug);
+    }
+
+    /**
+     * Cria resolver com cache de placeholders compartilhado.
+     *
+     * @param scheduler        Scheduler service
+     * @param messageService   Message service for i18n resolution
+     * @param placeholderCache Cache por tick dos valores do PlaceholderAPI
+     * @param debug            Habilita debug logging
+     */
+    public PlaceholderResolver(@NotNull SchedulerService scheduler, @NotNull MessageService messageService,
+            @NotNull PlaceholderCache placeholderCache, boolean debug) {
         this.scheduler = scheduler;
         this.messageService = messageService;
+        this.placeholderCache = placeholderCache;
         this.debug = debug;
 
         // Cache de curta duração para placeholders resolvidos
@@ -86,12 +103,7 @@ public class PlaceholderResolver {
      * @return true se PlaceholderAPI instalado
      */
     private static boolean checkPlaceholderAPI() {
-        try {
-            Class.forName("me.clip.placeholderapi.PlaceholderAPI");
-            return Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI");
-        } catch (ClassNotFoundException e) {
-            return false;
-        }
+        return PlaceholderApiBridge.isAvailable();
     }
 
     /**
@@ -141,7 +153,7 @@ public class PlaceholderResolver {
             result = resolveContextPlaceholders(result, context);
 
             // 3. Resolve PlaceholderAPI (%placeholder%)
-            if (PAPI_AVAILABLE && player != null) {
+            if (player != null && checkPlaceholderAPI()) {
                 result = resolvePlaceholderAPI(result, player);
             }
 
@@ -363,7 +375,21 @@ public class PlaceholderResolver {
         }
 
         try {
-            return PlaceholderAPI.setPlaceholders(player, text);
+            if (!placeholderCache.isEnabled()) {
+                return PlaceholderApiBridge.setPlaceholders(player, text);
+            }
+
+            Matcher matcher = PAPI_PLACEHOLDER.matcher(text);
+            if (!matcher.find()) {
+                return text;
+            }
+            StringBuilder sb = new StringBuilder(text.length());
+            do {
+                String value = placeholderCache.get(player, matcher.group());
+                matcher.appendReplacement(sb, Matcher.quoteReplacement(value));
+            } while (matcher.find());
+            matcher.appendTail(sb);
+            return sb.toString();
         } catch (Exception e) {
             // Graceful degradation se PlaceholderAPI falhar
             return text;
@@ -401,6 +427,6 @@ public class PlaceholderResolver {
      * @return true se disponível
      */
     public static boolean isPlaceholderAPIAvailable() {
-        return PAPI_AVAILABLE;
+        return checkPlaceholderAPI();
     }
 }
@@ -0,0 +1,109 @@
+package com.afterlands.core.placeholders;
+
+import com.afterlands.core.util.reflect.ReflectionBridge;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.util.function.BiFunction;
+
+/**
+ * Ponto único de acesso ao {@code PlaceholderAPI.setPlaceholders}, ligado via
+ * {@link ReflectionBridge} (sem {@code Method.invoke} por chamada e sem
+ * hard-dependency).
+ *
+ * <p>
+ * A ligação acompanha o ciclo de vida do PlaceholderAPI: feita em
+ * {@link #start(Plugin)} se ele já estiver habilitado e refeita/desfeita em
+ * {@link PluginEnableEvent}/{@link PluginDisableEvent} (load tardio e reload
+ * funcionam sem restart). {@link #isAvailable()} é só uma leitura volátil.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> A ligação é thread-safe; o PlaceholderAPI em si só
+ * deve ser chamado na main thread.
+ * </p>
+ */
+public final class PlaceholderApiBridge {
+
+    private static final String PLUGIN_NAME = "PlaceholderAPI";
+    private static final Listener LIFECYCLE = new Lifecycle();
+
+    // null = PlaceholderAPI ausente, desabilitado ou sem setPlaceholders
+    private static volatile BiFunction<Player, String, String> setPlaceholders;
+
+    private PlaceholderApiBridge() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Liga o método se o PlaceholderAPI já estiver habilitado e passa a
+     * acompanhar enable/disable dele (main thread).
+     */
+    public static void start(@NotNull Plugin plugin) {
+        HandlerList.unregisterAll(LIFECYCLE);
+        Bukkit.getPluginManager().registerEvents(LIFECYCLE, plugin);
+        setPlaceholders = Bukkit.getPluginManager().isPluginEnabled(PLUGIN_NAME) ? bindSetPlaceholders() : null;
+    }
+
+    public static void stop() {
+        HandlerList.unregisterAll(LIFECYCLE);
+        setPlaceholders = null;
+    }
+
+    /**
+     * Indica se o PlaceholderAPI está habilitado e o método foi ligado.
+     */
+    public static boolean isAvailable() {
+        return setPlaceholders != null;
+    }
+
+    /**
+     * Resolve os placeholders do texto.
+     *
+     * @return Texto resolvido, ou o próprio texto se o PlaceholderAPI não estiver disponível
+     */
+    @NotNull
+    public static String setPlaceholders(@NotNull Player player, @NotNull String text) {
+        BiFunction<Player, String, String> function = setPlaceholders;
+        if (function == null) {
+            return text;
+        }
+        String result = function.apply(player, text);
+        return result != null ? result : text;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiFunction<Player, String, String> bindSetPlaceholders() {
+        Class<?> papi = ReflectionBridge.findClass("me.clip.placeholderapi.PlaceholderAPI");
+        return ReflectionBridge.bind(MethodHandles.lookup(), BiFunction.class,
+                ReflectionBridge.findMethod(papi, "setPlaceholders", OfflinePlayer.class, String.class));
+    }
+
+    private static final class Lifecycle implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onPluginEnable(PluginEnableEvent event) {
+            if (PLUGIN_NAME.equals(event.getPlugin().getName())) {
+                // religa: o reload pode trazer classes novas
+                setPlaceholders = bindSetPlaceholders();
+            }
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onPluginDisable(PluginDisableEvent event) {
+            if (PLUGIN_NAME.equals(event.getPlugin().getName())) {
+                setPlaceholders = null;
+            }
+        }
+    }
+}
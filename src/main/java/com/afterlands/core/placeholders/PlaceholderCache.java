@@ -0,0 +1,219 @@
+package com.afterlands.core.placeholders;
+
+import com.afterlands.core.metrics.MetricsService;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache por player dos valores do PlaceholderAPI, compartilhado entre
+ * {@code ConditionService} e {@code PlaceholderResolver}.
+ *
+ * <p>
+ * <b>Loader:</b> sempre {@link PlaceholderApiBridge#setPlaceholders} (placeholder
+ * sem expansão fica literal). Fallbacks próprios de cada consumidor são
+ * aplicados sobre o valor cacheado, nunca gravados no cache, para que o valor
+ * não dependa de quem resolveu primeiro no tick.
+ * </p>
+ *
+ * <p>
+ * <b>Escopo:</b> cada placeholder é resolvido no máximo uma vez por player
+ * por tick. Um TTL por placeholder (em ms, arredondado para ticks) estende a
+ * validade: ex.: {@code vault_eco_balance: 1000} reaproveita o saldo por 20
+ * ticks, {@code player_world: 0} só dentro do tick atual.
+ * </p>
+ *
+ * <p>
+ * <b>Métricas:</b> {@code placeholders.cache_hit} / {@code placeholders.cache_miss}.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Thread-safe. O contador de tick é avançado por uma task
+ * na main thread; antes de {@link #start(Plugin)} (ou com o cache desativado)
+ * todo acesso vai direto ao loader.
+ * </p>
+ */
+public final class PlaceholderCache implements Listener {
+
+    private static final long TICK_MILLIS = 50;
+
+    private final MetricsService metrics;
+    private final boolean enabled;
+    private final long defaultTtlTicks;
+    // placeholder (lower-case, sem %) -> TTL em ticks
+    private final Map<String, Long> ttlTicks;
+    // placeholder como aparece no texto ("%x%") -> TTL em ticks (memo)
+    private final Map<String, Long> resolvedTtl = new ConcurrentHashMap<>();
+
+    private final Map<UUID, Map<String, Entry>> players = new ConcurrentHashMap<>();
+
+    private volatile long tick;
+    private volatile BukkitTask task;
+
+    /**
+     * @param metrics      Métricas de hit/miss (pode ser null se desativado)
+     * @param enabled      Se false, {@link #get} sempre chama o loader
+     * @param defaultTtlMs TTL para placeholders fora do mapa (0 = só o tick atual)
+     * @param ttlMs        TTL por placeholder (sem %), em ms
+     */
+    public PlaceholderCache(@Nullable MetricsService metrics, boolean enabled, long defaultTtlMs,
+            @NotNull Map<String, Long> ttlMs) {
+        this.metrics = metrics;
+        this.enabled = enabled && metrics != null;
+        this.defaultTtlTicks = toTicks(defaultTtlMs);
+        Map<String, Long> ticks = new HashMap<>();
+        ttlMs.forEach((placeholder, ms) -> ticks.put(normalize(placeholder), toTicks(ms)));
+        this.ttlTicks = Map.copyOf(ticks);
+    }
+
+    /**
+     * Cache desativado (todo acesso vai ao loader).
+     */
+    @NotNull
+    public static PlaceholderCache disabled() {
+        return new PlaceholderCache(null, false, 0, Map.of());
+    }
+
+    /**
+     * Lê a seção {@code placeholders.cache} (valores padrão para chaves ausentes).
+     */
+    @NotNull
+    public static PlaceholderCache fromConfig(@Nullable ConfigurationSection section, @NotNull MetricsService metrics) {
+        if (section == null) {
+            return new PlaceholderCache(metrics, true, 0, Map.of());
+        }
+        Map<String, Long> ttlMs = new HashMap<>();
+        ConfigurationSection ttlSection = section.getConfigurationSection("ttl-ms");
+        if (ttlSection != null) {
+            for (String key : ttlSection.getKeys(false)) {
+                ttlMs.put(key, ttlSection.getLong(key, 0));
+            }
+        }
+        return new PlaceholderCache(metrics, section.getBoolean("enabled", true),
+                section.getLong("default-ttl-ms", 0), ttlMs);
+    }
+
+    /**
+     * Inicia o contador de ticks e a limpeza no quit.
+     */
+    public void start(@NotNull Plugin plugin) {
+        if (!enabled || task != null) {
+            return;
+        }
+        task = Bukkit.getScheduler().runTaskTimer(plugin, () -> tick = tick + 1, 1L, 1L);
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+    }
+
+    public void stop() {
+        BukkitTask current = task;
+        if (current != null) {
+            current.cancel();
+            task = null;
+        }
+        HandlerList.unregisterAll(this);
+        players.clear();
+    }
+
+    /**
+     * Valor do placeholder para o player, do cache ou do PlaceholderAPI
+     * (main thread, salvo placeholders declarados thread-safe).
+     *
+     * @param player      Player alvo
+     * @param placeholder Placeholder com os {@code %} (ex.: {@code %vault_eco_balance%})
+     * @return Valor resolvido (o próprio placeholder se o PlaceholderAPI não o resolver)
+     */
+    @NotNull
+    public String get(@NotNull Player player, @NotNull String placeholder) {
+        if (task == null) {
+            return PlaceholderApiBridge.setPlaceholders(player, placeholder);
+        }
+
+        Map<String, Entry> entries = players.get(player.getUniqueId());
+        if (entries == null) {
+            entries = players.computeIfAbsent(player.getUniqueId(), k -> new ConcurrentHashMap<>());
+        }
+
+        long now = tick;
+        Entry entry = entries.get(placeholder);
+        if (entry != null && entry.expiresAt() >= now) {
+            metrics.increment("placeholders.cache_hit");
+            return entry.value();
+        }
+
+        metrics.increment("placeholders.cache_miss");
+        String value = PlaceholderApiBridge.setPlaceholders(player, placeholder);
+        entries.put(placeholder, new Entry(value, now + ttlTicks(placeholder)));
+        return value;
+    }
+
+    /**
+     * Descarta os valores cacheados de um player (ex.: após alterar o saldo).
+     */
+    public void invalidate(@NotNull UUID playerId) {
+        players.remove(playerId);
+    }
+
+    /**
+     * Descarta um placeholder de um player.
+     *
+     * @param placeholder Placeholder com os {@code %}
+     */
+    public void invalidate(@NotNull UUID playerId, @NotNull String placeholder) {
+        Map<String, Entry> entries = players.get(playerId);
+        if (entries != null) {
+            entries.remove(placeholder);
+        }
+    }
+
+    public void invalidateAll() {
+        players.clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        players.remove(event.getPlayer().getUniqueId());
+    }
+
+    private long ttlTicks(String placeholder) {
+        Long ttl = resolvedTtl.get(placeholder);
+        if (ttl == null) {
+            ttl = ttlTicks.getOrDefault(normalize(placeholder), defaultTtlTicks);
+            resolvedTtl.put(placeholder, ttl);
+        }
+        return ttl;
+    }
+
+    private static String normalize(String placeholder) {
+        String key = placeholder;
+        if (key.length() >= 2 && key.charAt(0) == '%' && key.charAt(key.length() - 1) == '%') {
+            key = key.substring(1, key.length() - 1);
+        }
+        return key.toLowerCase(Locale.ROOT);
+    }
+
+    private static long toTicks(long ms) {
+        return ms <= 0 ? 0 : (ms + TICK_MILLIS - 1) / TICK_MILLIS;
+    }
+
+    private record Entry(String value, long expiresAt) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.afterlands.core.protocol;
+
+/**
+ * Provider avaliado fora da main thread (opt-in).
+ *
+ * <p>
+ * {@link #mutationsForChunk} é chamado em paralelo no
+ * {@code SchedulerService.cpuExecutor()}, junto com os outros providers async do
+ * mesmo chunk. Providers comuns continuam rodando na main thread; o merge por
+ * prioridade é o mesmo, independente de qual provider termina primeiro.
+ * </p>
+ *
+ * <p>
+ * Regras:
+ * <ul>
+ * <li>Não acessar a API Bukkit que exige main thread (mundo, blocos, entidades).</li>
+ * <li>Passar de {@link #budgetMillis()} é contabilizado como estouro de budget.</li>
+ * <li>Passar de {@link #timeoutMillis()} descarta o resultado do provider para
+ * aquele chunk (lista vazia) e conta um timeout.</li>
+ * </ul>
+ * </p>
+ */
+public interface AsyncChunkMutationProvider extends ChunkMutationProvider {
+
+    /**
+     * Tempo esperado por chunk (ms). Acima disso o provider é contabilizado nas
+     * métricas, mas o resultado ainda é usado.
+     */
+    default long budgetMillis() {
+        return 5;
+    }
+
+    /**
+     * Tempo máximo por chunk (ms). Acima disso o resultado é descartado.
+     */
+    default long timeoutMillis() {
+        return 50;
+    }
+
+    @Override
+    default boolean asyncSafe() {
+        return true;
+    }
+}
@@ -24,5 +24,29 @@ public interface ChunkMutationProvider {
      * <p>Regra: não bloquear main thread. Se precisar de I/O, retornar lista vazia e agendar update depois.</p>
      */
     @NotNull List<BlockMutation> mutationsForChunk(@NotNull Player player, @NotNull World world, int chunkX, int chunkZ);
+
+    /**
+     * Indica que as mutations dependem apenas de (world, chunkX, chunkZ), nunca do player.
+     *
+     * <p>Quando todos os providers registrados são player-independent, o resultado merged
+     * de cada chunk é cacheado e compartilhado entre players. Nesse caso o provider deve
+     * chamar {@link ProtocolService#invalidateChunk(String, int, int)} (ou
+     * {@link ProtocolService#invalidateAllChunks()}, se mudarem em muitos chunks) quando suas
+     * mutations mudarem.</p>
+     */
+    default boolean playerIndependent() {
+        return false;
+    }
+
+    /**
+     * Indica que {@link #mutationsForChunk} pode ser chamado fora da main thread.
+     *
+     * <p>A reescrita inline de MAP_CHUNK ({@code protocol.inline-rewrite}) só é usada quando
+     * todos os providers registrados são async-safe; caso contrário o pipeline volta para a
+     * correção via MULTI_BLOCK_CHANGE na main thread.</p>
+     */
+    default boolean asyncSafe() {
+        return false;
+    }
 }
 
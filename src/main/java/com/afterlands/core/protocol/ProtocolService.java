@@ -1,7 +1,9 @@
 package com.afterlands.core.protocol;
 
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -28,6 +30,64 @@ public interface ProtocolService {
      */
     boolean unregisterChunkProvider(@NotNull String id);
 
+    /**
+     * Invalida o resultado merged cacheado de um chunk.
+     *
+     * <p>Providers player-independent devem chamar este método sempre que as mutations
+     * de um chunk mudarem; os próximos MAP_CHUNK refazem o merge.</p>
+     *
+     * @param world  Nome do mundo
+     * @param chunkX Coordenada X do chunk
+     * @param chunkZ Coordenada Z do chunk
+     */
+    void invalidateChunk(@NotNull String world, int chunkX, int chunkZ);
+
+    /**
+     * Invalida o merge cacheado de todos os chunks, de todos os providers
+     * (incrementa a versão do conjunto de providers).
+     *
+     * <p>O cache guarda o resultado já merged de todos os providers, então não
+     * há invalidação por provider: use quando um provider mudar mutations em
+     * muitos chunks de uma vez; para poucos chunks prefira
+     * {@link #invalidateChunk(String, int, int)}. Registrar ou remover providers
+     * já incrementa a versão.</p>
+     */
+    void invalidateAllChunks();
+
+    /**
+     * Versão atual do conjunto de providers (muda a cada registro, remoção ou
+     * {@link #invalidateAllChunks()}).
+     */
+    long getProviderVersion();
+
+    /**
+     * Envia mutations ao vivo para os players que têm os chunks carregados.
+     *
+     * <p>As mutations são agrupadas por chunk e coalescidas até o próximo tick
+     * (mesma posição: última ganha), gerando um BLOCK_CHANGE ou MULTI_BLOCK_CHANGE
+     * por chunk. O merge cacheado dos chunks afetados é invalidado.</p>
+     *
+     * <p>Pode ser chamado de qualquer thread.</p>
+     *
+     * @param world     Nome do mundo
+     * @param mutations Mutations em coordenadas absolutas
+     */
+    void pushMutations(@NotNull String world, @NotNull Collection<BlockMutation> mutations);
+
+    /**
+     * Players que têm o chunk carregado no cliente (O(1), índice mantido a partir
+     * dos MAP_CHUNK/UNLOAD enviados).
+     *
+     * @return Snapshot imutável; vazio se nenhum player vê o chunk
+     */
+    @NotNull
+    Collection<Player> viewersOf(@NotNull String world, int chunkX, int chunkZ);
+
+    /**
+     * Indica se o chunk está carregado no cliente do player (mundo atual do cliente).
+     */
+    boolean isChunkLoadedFor(@NotNull Player player, int chunkX, int chunkZ);
+
     /**
      * Retorna lista ordenada de providers (por prioridade ascendente).
      */
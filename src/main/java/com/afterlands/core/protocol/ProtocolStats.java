@@ -13,11 +13,18 @@ public record ProtocolStats(
         long mutationsApplied,
         long conflictsTotal,
         long packetsQueued,
+        long mergeCacheHits,
+        long mergeCacheMisses,
+        long chunksDropped,
+        long chunksDeferred,
+        long budgetExhausted,
         @NotNull List<ProviderStat> providers) {
     public record ProviderStat(
             @NotNull String id,
             int priority,
             long mutationsProvided,
-            long conflicts) {
+            long conflicts,
+            long timeouts,
+            long overBudget) {
     }
 }
@@ -1,169 +1,340 @@
 package com.afterlands.core.protocol.impl;
 
 import com.afterlands.core.spatial.ChunkKey;
+import com.afterlands.core.util.reflect.ReflectionBridge;
+import it.unimi.dsi.fastutil.Swapper;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.*;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.BiConsumer;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
 import java.util.logging.Logger;
 
 /**
  * Debouncer/batcher para chunks sujos por jogador.
- * 
+ *
  * <p>
  * Coalesce múltiplos marks de chunk em uma única aplicação após janela de
  * tempo.
  * </p>
- * 
+ *
+ * <p>
+ * <b>Estrutura:</b> cada jogador tem um {@link LongOpenHashSet} de
+ * {@link ChunkKey} do mundo atual (id de mundo internado, trocar de mundo
+ * descarta a fila anterior). Um único sweeper por tick drena as filas vencidas,
+ * em vez de uma task Bukkit por jogador. Em regime, {@code markDirty} não aloca.
+ * </p>
+ *
+ * <p>
+ * <b>Visão e carga:</b> chunks fora da view distance do player (movimento
+ * rápido, teleporte, UNLOAD) são descartados em vez de corrigidos. Quando o
+ * tick fica acima de 50ms o tamanho do batch é reduzido proporcionalmente
+ * ({@link #getLoadFactor()}).
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> {@code markDirty} pode ser chamado de qualquer thread
+ * (lock por jogador, sem contenção na prática); o sweeper e o processor rodam
+ * na main thread.
+ * </p>
+ *
  * <p>
  * Inspirado no pattern do AfterBlockState StateApplicationScheduler.
  * </p>
  */
 public final class ChunkDebounceBatcher {
 
+    private static final long TICK_NANOS = 50_000_000L;
+    private static final double MIN_LOAD_FACTOR = 0.25;
+
+    // World#getViewDistance() (1.14+); null em 1.8
+    @SuppressWarnings("unchecked")
+    private static final ToIntFunction<World> WORLD_VIEW_DISTANCE = ReflectionBridge.bind(MethodHandles.lookup(),
+            ToIntFunction.class, ReflectionBridge.findMethod(World.class, "getViewDistance"));
+
     private final Plugin plugin;
     private final Logger logger;
-    private final long batchIntervalMs;
+    private final long delayTicks;
     private final int maxChunksPerBatch;
     private final boolean debug;
+    private final BatchProcessor processor;
+
+    // player UUID -> fila de chunks sujos
+    private final Map<UUID, PlayerQueue> queues = new ConcurrentHashMap<>();
+
+    // Mundos internados: nome (qualquer grafia) -> id, id -> nome
+    private final Map<String, Integer> worldIds = new ConcurrentHashMap<>();
+    private volatile String[] worldNames = new String[0];
+    // view distance por mundo (spigot.yml), mesmo índice de worldNames
+    private volatile int[] worldViewDistances = new int[0];
 
-    // player UUID -> set of dirty chunk keys (world|chunkKey)
-    private final Map<UUID, Set<DirtyChunk>> dirtyChunks = new ConcurrentHashMap<>();
+    private final BukkitTask sweeper;
+    private volatile long currentTick;
 
-    // player UUID -> scheduled task ID (-1 = none)
-    private final Map<UUID, Integer> scheduledTasks = new ConcurrentHashMap<>();
+    // Backoff por TPS (main thread)
+    private long lastSweepNanos;
+    private double avgTickNanos = TICK_NANOS;
+    private volatile double loadFactor = 1.0;
+
+    // Buffers do sweeper (main thread)
+    private long[] drainKeys = new long[64];
+    private int[] drainDistances = new int[64];
+    private final Location scratchLocation = new Location(null, 0, 0, 0);
+    private final IntComparator byDistance = (a, b) -> Integer.compare(drainDistances[a], drainDistances[b]);
+    private final Swapper swapper = (a, b) -> {
+        long key = drainKeys[a];
+        drainKeys[a] = drainKeys[b];
+        drainKeys[b] = key;
+        int distance = drainDistances[a];
+        drainDistances[a] = drainDistances[b];
+        drainDistances[b] = distance;
+    };
 
     // Métricas
     private final AtomicLong chunksQueued = new AtomicLong();
     private final AtomicLong batchesProcessed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
 
     public ChunkDebounceBatcher(@NotNull Plugin plugin,
             long batchIntervalMs,
             int maxChunksPerBatch,
-            boolean debug) {
+            boolean debug,
+            @NotNull BatchProcessor processor) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
-        this.batchIntervalMs = batchIntervalMs;
-        this.maxChunksPerBatch = maxChunksPerBatch;
+        this.delayTicks = Math.max(1, batchIntervalMs / 50);
+        this.maxChunksPerBatch = Math.max(1, maxChunksPerBatch);
         this.debug = debug;
+        this.processor = processor;
+        this.sweeper = Bukkit.getScheduler().runTaskTimer(plugin, this::sweep, 1L, 1L);
     }
 
     /**
      * Marcar um chunk como "dirty" para um jogador.
-     * Agendará aplicação após a janela de debounce.
-     * 
-     * @param player    Jogador
-     * @param world     Nome do mundo
-     * @param chunkX    Coordenada X do chunk
-     * @param chunkZ    Coordenada Z do chunk
-     * @param processor Callback que será chamado com (player, lista de chunks)
+     * Será processado pelo sweeper após a janela de debounce.
+     *
+     * @param player Jogador
+     * @param world  Nome do mundo
+     * @param chunkX Coordenada X do chunk
+     * @param chunkZ Coordenada Z do chunk
      */
     public void markDirty(@NotNull Player player,
             @NotNull String world,
             int chunkX,
-            int chunkZ,
-            @NotNull BiConsumer<Player, List<DirtyChunk>> processor) {
-        UUID playerId = player.getUniqueId();
-
-        Set<DirtyChunk> chunks = dirtyChunks.computeIfAbsent(playerId,
-                k -> ConcurrentHashMap.newKeySet());
+            int chunkZ) {
+        PlayerQueue queue = queues.computeIfAbsent(player.getUniqueId(), k -> new PlayerQueue());
+        int worldId = worldId(world);
 
-        DirtyChunk dirty = new DirtyChunk(world, chunkX, chunkZ, System.currentTimeMillis());
-        chunks.add(dirty);
+        synchronized (queue) {
+            queue.player = player;
+            if (queue.worldId != worldId) {
+                // Chunks de outro mundo seriam descartados no processamento
+                queue.chunks.clear();
+                queue.worldId = worldId;
+            }
+            if (queue.chunks.isEmpty()) {
+                queue.dueTick = currentTick + delayTicks;
+            }
+            queue.chunks.add(ChunkKey.pack(chunkX, chunkZ));
+        }
         chunksQueued.incrementAndGet();
 
         if (debug) {
             logger.info(
                     "[Batcher] Marked dirty: " + world + " [" + chunkX + "," + chunkZ + "] for " + player.getName());
         }
-
-        // Agendar processamento se ainda não agendado
-        scheduledTasks.computeIfAbsent(playerId, k -> {
-            long delayTicks = Math.max(1, batchIntervalMs / 50);
-            return Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                processBatch(player, processor);
-            }, delayTicks).getTaskId();
-        });
     }
 
     /**
-     * Processar batch de chunks para um jogador.
+     * Recoloca chunks que não couberam no budget de envio do tick.
+     * Processados novamente no próximo tick (sem nova janela de debounce).
      */
-    private void processBatch(@NotNull Player player,
-            @NotNull BiConsumer<Player, List<DirtyChunk>> processor) {
-        UUID playerId = player.getUniqueId();
-        scheduledTasks.remove(playerId);
+    public void requeue(@NotNull Player player, @NotNull String world, long @NotNull [] chunkKeys, int from,
+            int to) {
+        if (from >= to) {
+            return;
+        }
+        PlayerQueue queue = queues.computeIfAbsent(player.getUniqueId(), k -> new PlayerQueue());
+        int worldId = worldId(world);
 
-        if (!player.isOnline()) {
-            dirtyChunks.remove(playerId);
+        synchronized (queue) {
+            queue.player = player;
+            if (queue.worldId != worldId) {
+                queue.chunks.clear();
+                queue.worldId = worldId;
+            }
+            if (queue.chunks.isEmpty()) {
+                queue.dueTick = currentTick + 1;
+            }
+            for (int i = from; i < to; i++) {
+                queue.chunks.add(chunkKeys[i]);
+            }
+        }
+        deferred.add(to - from);
+    }
+
+    /**
+     * Descarta um chunk pendente (ex: UNLOAD enviado ao player).
+     */
+    public void cancelChunk(@NotNull UUID playerId, @NotNull String world, int chunkX, int chunkZ) {
+        PlayerQueue queue = queues.get(playerId);
+        if (queue == null) {
             return;
         }
+        int worldId = worldId(world);
+        synchronized (queue) {
+            if (queue.worldId == worldId && queue.chunks.remove(ChunkKey.pack(chunkX, chunkZ))) {
+                dropped.increment();
+            }
+        }
+    }
 
-        Set<DirtyChunk> chunks = dirtyChunks.remove(playerId);
-        if (chunks == null || chunks.isEmpty()) {
+    /**
+     * Descarta chunks pendentes fora da view distance de um destino (ex: teleporte).
+     * Trocar de mundo descarta a fila inteira.
+     */
+    public void dropOutOfView(@NotNull UUID playerId, @NotNull String world, int centerChunkX, int centerChunkZ) {
+        PlayerQueue queue = queues.get(playerId);
+        if (queue == null) {
             return;
         }
+        int worldId = worldId(world);
+        synchronized (queue) {
+            if (queue.worldId != worldId) {
+                dropped.add(queue.chunks.size());
+                queue.chunks.clear();
+                return;
+            }
+            LongIterator keys = queue.chunks.iterator();
+            while (keys.hasNext()) {
+                if (!inView(keys.nextLong(), centerChunkX, centerChunkZ, worldViewDistances[worldId])) {
+                    keys.remove();
+                    dropped.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drena as filas vencidas (uma vez por tick, main thread).
+     */
+    private void sweep() {
+        long tick = ++currentTick;
+        updateLoadFactor();
+
+        Iterator<PlayerQueue> it = queues.values().iterator();
+        while (it.hasNext()) {
+            PlayerQueue queue = it.next();
+            Player player = queue.player;
+            if (player == null) {
+                continue;
+            }
+            if (!player.isOnline()) {
+                it.remove();
+                continue;
+            }
+            if (queue.dueTick > tick) {
+                continue;
+            }
+            processBatch(queue, player, tick);
+        }
+    }
 
-        // Converter para lista e ordenar por distância ao jogador
-        List<DirtyChunk> chunkList = new ArrayList<>(chunks);
-        int playerChunkX = player.getLocation().getBlockX() >> 4;
-        int playerChunkZ = player.getLocation().getBlockZ() >> 4;
+    /**
+     * Processar batch de chunks para um jogador.
+     */
+    private void processBatch(@NotNull PlayerQueue queue, @NotNull Player player, long tick) {
+        player.getLocation(scratchLocation);
+        int playerChunkX = scratchLocation.getBlockX() >> 4;
+        int playerChunkZ = scratchLocation.getBlockZ() >> 4;
 
-        chunkList.sort(
-                Comparator.comparingInt(c -> Math.abs(c.chunkX - playerChunkX) + Math.abs(c.chunkZ - playerChunkZ)));
+        int count;
+        int worldId;
+        synchronized (queue) {
+            count = queue.chunks.size();
+            if (count == 0) {
+                return;
+            }
+            worldId = queue.worldId;
+            int viewDistance = worldViewDistances[worldId];
+            ensureCapacity(count);
 
-        // Limitar tamanho do batch
-        if (chunkList.size() > maxChunksPerBatch) {
-            // Re-queue chunks excedentes
-            List<DirtyChunk> excess = chunkList.subList(maxChunksPerBatch, chunkList.size());
-            Set<DirtyChunk> remaining = dirtyChunks.computeIfAbsent(playerId,
-                    k -> ConcurrentHashMap.newKeySet());
-            remaining.addAll(excess);
+            // Copiar em buffer, descartando chunks que já saíram da view
+            int size = 0;
+            LongIterator keys = queue.chunks.iterator();
+            while (keys.hasNext()) {
+                long key = keys.nextLong();
+                if (!inView(key, playerChunkX, playerChunkZ, viewDistance)) {
+                    keys.remove();
+                    dropped.increment();
+                    continue;
+                }
+                drainKeys[size] = key;
+                drainDistances[size] = Math.abs(ChunkKey.unpackX(key) - playerChunkX)
+                        + Math.abs(ChunkKey.unpackZ(key) - playerChunkZ);
+                size++;
+            }
+            count = size;
+            if (count == 0) {
+                return;
+            }
 
-            // Agendar próximo batch
-            long delayTicks = Math.max(1, batchIntervalMs / 50);
-            scheduledTasks.put(playerId,
-                    Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                        processBatch(player, processor);
-                    }, delayTicks).getTaskId());
+            // Ordenar por distância ao jogador
+            it.unimi.dsi.fastutil.Arrays.quickSort(0, count, byDistance, swapper);
 
-            chunkList = chunkList.subList(0, maxChunksPerBatch);
+            // Limitar tamanho do batch (reduzido sob carga); excedentes saem no próximo tick
+            // (já esperaram o debounce)
+            int limit = Math.max(1, (int) (maxChunksPerBatch * loadFactor));
+            if (count > limit) {
+                for (int i = 0; i < limit; i++) {
+                    queue.chunks.remove(drainKeys[i]);
+                }
+                queue.dueTick = tick + 1;
+                count = limit;
+            } else {
+                queue.chunks.clear();
+            }
         }
 
         if (debug) {
-            logger.info("[Batcher] Processing batch of " + chunkList.size() +
+            logger.info("[Batcher] Processing batch of " + count +
                     " chunks for " + player.getName());
         }
 
         batchesProcessed.incrementAndGet();
-        processor.accept(player, chunkList);
+        processor.process(player, worldNames[worldId], drainKeys, count);
     }
 
     /**
      * Cancelar pending batches para um jogador (ex: no quit).
      */
     public void cancelForPlayer(@NotNull UUID playerId) {
-        dirtyChunks.remove(playerId);
-        Integer taskId = scheduledTasks.remove(playerId);
-        if (taskId != null) {
-            Bukkit.getScheduler().cancelTask(taskId);
-        }
+        queues.remove(playerId);
     }
 
     /**
      * Limpar tudo no shutdown.
      */
     public void shutdown() {
-        for (Integer taskId : scheduledTasks.values()) {
-            Bukkit.getScheduler().cancelTask(taskId);
-        }
-        scheduledTasks.clear();
-        dirtyChunks.clear();
+        sweeper.cancel();
+        queues.clear();
     }
 
     public long getChunksQueued() {
@@ -175,31 +346,118 @@ public final class ChunkDebounceBatcher {
     }
 
     /**
-     * Representa um chunk marcado como dirty.
+     * Tick atual do sweeper (incrementado uma vez por tick).
      */
-    public record DirtyChunk(
-            @NotNull String world,
-            int chunkX,
-            int chunkZ,
-            long markedAt) {
-        public long chunkKey() {
-            return ChunkKey.pack(chunkX, chunkZ);
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public long getChunksDropped() {
+        return dropped.sum();
+    }
+
+    public long getChunksDeferred() {
+        return deferred.sum();
+    }
+
+    /**
+     * Fator de carga atual (1.0 = 20 TPS, mínimo 0.25), usado para reduzir
+     * batch e budget de envio.
+     */
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+
+    private void updateLoadFactor() {
+        long now = System.nanoTime();
+        if (lastSweepNanos != 0L) {
+            avgTickNanos = avgTickNanos * 0.9 + (now - lastSweepNanos) * 0.1;
+            loadFactor = Math.max(MIN_LOAD_FACTOR, Math.min(1.0, TICK_NANOS / avgTickNanos));
         }
+        lastSweepNanos = now;
+    }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o)
-                return true;
-            if (!(o instanceof DirtyChunk that))
-                return false;
-            return chunkX == that.chunkX &&
-                    chunkZ == that.chunkZ &&
-                    world.equalsIgnoreCase(that.world);
+    private static boolean inView(long chunkKey, int centerChunkX, int centerChunkZ, int viewDistance) {
+        return Math.abs(ChunkKey.unpackX(chunkKey) - centerChunkX) <= viewDistance
+                && Math.abs(ChunkKey.unpackZ(chunkKey) - centerChunkZ) <= viewDistance;
+    }
+
+    /**
+     * View distance do mundo (cacheada por mundo).
+     */
+    int viewDistance(@NotNull String world) {
+        return worldViewDistances[worldId(world)];
+    }
+
+    private int worldId(@NotNull String world) {
+        Integer id = worldIds.get(world);
+        if (id != null) {
+            return id;
+        }
+        return internWorld(world);
+    }
+
+    private synchronized int internWorld(@NotNull String world) {
+        String canonical = world.toLowerCase(Locale.ROOT);
+        Integer id = worldIds.get(canonical);
+        if (id == null) {
+            String[] names = Arrays.copyOf(worldNames, worldNames.length + 1);
+            id = names.length - 1;
+            names[id] = world;
+            int[] distances = Arrays.copyOf(worldViewDistances, names.length);
+            distances[id] = viewDistanceOf(world);
+            // distâncias publicadas antes dos nomes: quem vê o id vê a distância
+            worldViewDistances = distances;
+            worldNames = names;
+            worldIds.put(canonical, id);
+        }
+        worldIds.put(world, id);
+        return id;
+    }
+
+    /**
+     * View distance de um mundo: API por mundo (1.14+), {@code spigotConfig}
+     * do WorldServer (1.8, {@code world-settings.<mundo>.view-distance}) ou o
+     * valor global do servidor. Resolvido uma vez por mundo.
+     */
+    private static int viewDistanceOf(@NotNull String worldName) {
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            return Bukkit.getViewDistance();
+        }
+        try {
+            if (WORLD_VIEW_DISTANCE != null) {
+                return WORLD_VIEW_DISTANCE.applyAsInt(world);
+            }
+            Object handle = world.getClass().getMethod("getHandle").invoke(world);
+            Object spigotConfig = handle.getClass().getField("spigotConfig").get(handle);
+            return spigotConfig.getClass().getField("viewDistance").getInt(spigotConfig);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return Bukkit.getViewDistance();
         }
+    }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(world.toLowerCase(Locale.ROOT), chunkX, chunkZ);
+    private void ensureCapacity(int size) {
+        if (drainKeys.length < size) {
+            int capacity = Math.max(size, drainKeys.length << 1);
+            drainKeys = new long[capacity];
+            drainDistances = new int[capacity];
         }
     }
+
+    /**
+     * Callback do batch. {@code chunkKeys} é um buffer reutilizado: válido só
+     * durante a chamada, posições {@code [0, count)} ordenadas por distância.
+     */
+    @FunctionalInterface
+    public interface BatchProcessor {
+        void process(@NotNull Player player, @NotNull String world, long @NotNull [] chunkKeys, int count);
+    }
+
+    private static final class PlayerQueue {
+        private final LongOpenHashSet chunks = new LongOpenHashSet();
+        private volatile Player player;
+        private int worldId = -1;
+        private volatile long dueTick;
+    }
 }
@@ -0,0 +1,175 @@
+package com.afterlands.core.protocol.impl;
+
+import com.afterlands.core.metrics.MetricsService;
+import com.afterlands.core.protocol.BlockMutation;
+import com.afterlands.core.spatial.ChunkKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache do resultado merged de mutations por chunk.
+ *
+ * <p>
+ * Chave: (mundo, chunkKey). Cada entrada guarda a versão do conjunto de
+ * providers usada no merge; uma versão diferente da atual é tratada como MISS,
+ * então registrar/remover/invalidar um provider descarta tudo sem varrer o
+ * cache.
+ * </p>
+ *
+ * <p>
+ * <b>Invalidação concorrente:</b> {@link #invalidate(String, int, int)} deixa
+ * um marcador com um stamp novo. Um merge que começou antes da invalidação só
+ * é gravado se o stamp não mudou, então um resultado antigo nunca sobrescreve
+ * uma invalidação.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Thread-safe. Caffeine gerencia concorrência.
+ * </p>
+ */
+final class ChunkMergeCache {
+
+    private static final long TTL_SECONDS = 300;
+
+    private final Cache<MergeKey, Entry> cache;
+    private final int maxSize;
+    private final MetricsService metrics;
+
+    // Nome do mundo (qualquer grafia) -> nome canônico, evita toLowerCase por lookup
+    private final ConcurrentHashMap<String, String> worldNames = new ConcurrentHashMap<>();
+    private final AtomicLong stamps = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    ChunkMergeCache(int maxSize, @NotNull MetricsService metrics) {
+        this.maxSize = maxSize;
+        this.metrics = metrics;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(TTL_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Retorna o merge cacheado para o chunk ou executa o loader e cacheia.
+     *
+     * @param world   Nome do mundo
+     * @param chunkX  Coordenada X do chunk
+     * @param chunkZ  Coordenada Z do chunk
+     * @param version Versão atual do conjunto de providers
+     * @param loader  Merge a executar em caso de MISS
+     * @return Lista imutável de mutations
+     */
+    @NotNull
+    List<BlockMutation> get(@NotNull String world, int chunkX, int chunkZ, long version,
+            @NotNull Supplier<List<BlockMutation>> loader) {
+        MergeKey key = new MergeKey(canonical(world), ChunkKey.pack(chunkX, chunkZ));
+        Entry entry = cache.getIfPresent(key);
+        if (isHit(entry, version)) {
+            return entry.mutations();
+        }
+
+        long stamp = entry != null ? entry.stamp() : 0L;
+        return store(key, stamp, version, loader.get());
+    }
+
+    /**
+     * Variante async de {@link #get}: o loader devolve um future (merge com
+     * providers async) e o resultado é cacheado quando completa.
+     */
+    @NotNull
+    CompletableFuture<List<BlockMutation>> getAsync(@NotNull String world, int chunkX, int chunkZ, long version,
+            @NotNull Supplier<CompletableFuture<List<BlockMutation>>> loader) {
+        MergeKey key = new MergeKey(canonical(world), ChunkKey.pack(chunkX, chunkZ));
+        Entry entry = cache.getIfPresent(key);
+        if (isHit(entry, version)) {
+            return CompletableFuture.completedFuture(entry.mutations());
+        }
+
+        long stamp = entry != null ? entry.stamp() : 0L;
+        return loader.get().thenApply(result -> store(key, stamp, version, result));
+    }
+
+    private boolean isHit(Entry entry, long version) {
+        if (entry != null && entry.mutations() != null && entry.version() == version) {
+            hits.incrementAndGet();
+            metrics.increment("protocol.merge_cache_hit");
+            return true;
+        }
+        misses.incrementAndGet();
+        metrics.increment("protocol.merge_cache_miss");
+        return false;
+    }
+
+    private List<BlockMutation> store(MergeKey key, long stamp, long version, List<BlockMutation> result) {
+        List<BlockMutation> mutations = List.copyOf(result);
+        cache.asMap().compute(key, (k, current) -> {
+            long currentStamp = current != null ? current.stamp() : 0L;
+            if (currentStamp != stamp) {
+                return current; // invalidado durante o merge
+            }
+            if (current != null && current.mutations() != null && current.version() > version) {
+                return current;
+            }
+            return new Entry(stamp, version, mutations);
+        });
+        return mutations;
+    }
+
+    /**
+     * Invalida o merge de um chunk.
+     */
+    void invalidate(@NotNull String world, int chunkX, int chunkZ) {
+        MergeKey key = new MergeKey(canonical(world), ChunkKey.pack(chunkX, chunkZ));
+        long stamp = stamps.incrementAndGet();
+        cache.put(key, new Entry(stamp, -1L, null));
+    }
+
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    long size() {
+        return cache.estimatedSize();
+    }
+
+    int maxSize() {
+        return maxSize;
+    }
+
+    @NotNull
+    private String canonical(@NotNull String world) {
+        String name = worldNames.get(world);
+        if (name == null) {
+            name = worldNames.computeIfAbsent(world, w -> w.toLowerCase(Locale.ROOT));
+        }
+        return name;
+    }
+
+    private record MergeKey(String world, long chunkKey) {
+    }
+
+    /**
+     * mutations == null marca uma invalidação (mantém o stamp).
+     */
+    private record Entry(long stamp, long version, List<BlockMutation> mutations) {
+    }
+}
@@ -1,35 +1,69 @@
 package com.afterlands.core.protocol.impl;
 
+import com.afterlands.core.protocol.AsyncChunkMutationProvider;
 import com.afterlands.core.protocol.BlockMutation;
 import com.afterlands.core.protocol.BlockPosKey;
 import com.afterlands.core.protocol.ChunkMutationProvider;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Merge determinístico de mutations de múltiplos providers.
- * 
+ *
  * <p>
  * Regra: "último ganha" — providers são processados em ordem de prioridade
  * (ascendente),
  * então maior prioridade sobrescreve menor.
  * </p>
+ *
+ * <p>
+ * <b>Async:</b> {@link #mergeAsync} avalia os {@link AsyncChunkMutationProvider}
+ * em paralelo no executor informado (com budget e timeout por provider) e os
+ * demais na thread chamadora. Os resultados são combinados na ordem da lista de
+ * providers, então o resultado é o mesmo de {@link #merge}.
+ * </p>
+ *
+ * <p>
+ * <b>Provider travado:</b> o timeout completa o future mas não interrompe a
+ * chamada. Enquanto houver chamada de um provider que estourou o timeout e
+ * ainda não retornou, novas chamadas dele não são submetidas (contam como
+ * timeout), para não prender uma thread do executor por chunk.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Thread-safe (métricas em {@link LongAdder}).
+ * </p>
  */
 public final class ChunkMutationMerger {
 
+    // Estado de uma chamada async
+    private static final int RUNNING = 0;
+    private static final int FINISHED = 1;
+    private static final int TIMED_OUT = 2;
+
     // Métricas por provider
-    private final Map<String, AtomicLong> mutationsByProvider = new HashMap<>();
-    private final Map<String, AtomicLong> conflictsByProvider = new HashMap<>();
-    private final AtomicLong totalConflicts = new AtomicLong();
-    private final AtomicLong totalMutations = new AtomicLong();
+    private final Map<String, ProviderCounters> countersByProvider = new ConcurrentHashMap<>();
+    private final LongAdder totalConflicts = new LongAdder();
+    private final LongAdder totalMutations = new LongAdder();
+    private final LongAdder totalTimeouts = new LongAdder();
+    // chamadas que estouraram o timeout e ainda não retornaram (fora das métricas: sobrevive a resetMetrics)
+    private final Map<String, AtomicInteger> stuckByProvider = new ConcurrentHashMap<>();
 
     /**
      * Merge mutations de todos os providers para um chunk.
-     * 
+     *
      * @param providers Lista de providers (já ordenada por prioridade ascendente)
      * @param player    Jogador que receberá as mutations
      * @param world     Mundo do chunk
@@ -47,68 +81,191 @@ public final class ChunkMutationMerger {
             return Collections.emptyList();
         }
 
-        // Map de posição -> mutation (último ganha)
-        Map<Long, BlockMutation> merged = new HashMap<>();
-
+        Long2ObjectOpenHashMap<BlockMutation> merged = null;
         for (ChunkMutationProvider provider : providers) {
-            List<BlockMutation> mutations = provider.mutationsForChunk(player, world, chunkX, chunkZ);
+            merged = accumulate(merged, provider, provider.mutationsForChunk(player, world, chunkX, chunkZ));
+        }
+        return toList(merged);
+    }
 
-            if (mutations.isEmpty()) {
-                continue;
+    /**
+     * Merge com providers async avaliados em paralelo.
+     *
+     * <p>
+     * Providers que não são {@link AsyncChunkMutationProvider} rodam na thread
+     * chamadora (main thread) antes de retornar.
+     * </p>
+     *
+     * @param executor Executor para os providers async (cpuExecutor)
+     * @return Future com a lista merged (completa em uma thread do executor)
+     */
+    @NotNull
+    public CompletableFuture<List<BlockMutation>> mergeAsync(@NotNull List<ChunkMutationProvider> providers,
+            @NotNull Player player,
+            @NotNull World world,
+            int chunkX,
+            int chunkZ,
+            @NotNull Executor executor) {
+        if (providers.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+
+        List<ChunkMutationProvider> ordered = List.copyOf(providers);
+        @SuppressWarnings("unchecked")
+        CompletableFuture<List<BlockMutation>>[] futures = new CompletableFuture[ordered.size()];
+
+        for (int i = 0; i < futures.length; i++) {
+            ChunkMutationProvider provider = ordered.get(i);
+            if (provider instanceof AsyncChunkMutationProvider async) {
+                futures[i] = evaluateAsync(async, player, world, chunkX, chunkZ, executor);
+            } else {
+                futures[i] = CompletableFuture.completedFuture(
+                        provider.mutationsForChunk(player, world, chunkX, chunkZ));
             }
+        }
+
+        return CompletableFuture.allOf(futures).thenApply(ignored -> {
+            Long2ObjectOpenHashMap<BlockMutation> merged = null;
+            for (int i = 0; i < futures.length; i++) {
+                merged = accumulate(merged, ordered.get(i), futures[i].join());
+            }
+            return toList(merged);
+        });
+    }
+
+    private CompletableFuture<List<BlockMutation>> evaluateAsync(AsyncChunkMutationProvider provider,
+            Player player, World world, int chunkX, int chunkZ, Executor executor) {
+        ProviderCounters counters = counters(provider.id());
+        AtomicInteger stuck = stuckByProvider.computeIfAbsent(provider.id(), k -> new AtomicInteger());
+        if (stuck.get() > 0) {
+            // chamada anterior ainda presa após o timeout
+            counters.timeouts.increment();
+            totalTimeouts.increment();
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(provider.budgetMillis());
+        AtomicInteger state = new AtomicInteger(RUNNING);
 
-            // Track métricas
-            String providerId = provider.id();
-            mutationsByProvider.computeIfAbsent(providerId, k -> new AtomicLong())
-                    .addAndGet(mutations.size());
-            totalMutations.addAndGet(mutations.size());
-
-            for (BlockMutation mutation : mutations) {
-                BlockPosKey key = new BlockPosKey(mutation.x(), mutation.y(), mutation.z());
-                long packedKey = key.packed();
-
-                BlockMutation existing = merged.put(packedKey, mutation);
-                if (existing != null) {
-                    // Conflito detectado
-                    conflictsByProvider.computeIfAbsent(providerId, k -> new AtomicLong())
-                            .incrementAndGet();
-                    totalConflicts.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (state.get() == TIMED_OUT) {
+                    return Collections.<BlockMutation>emptyList(); // venceu na fila
                 }
+                long start = System.nanoTime();
+                List<BlockMutation> mutations = provider.mutationsForChunk(player, world, chunkX, chunkZ);
+                if (System.nanoTime() - start > budgetNanos) {
+                    counters.overBudget.increment();
+                }
+                return mutations;
+            } finally {
+                if (!state.compareAndSet(RUNNING, FINISHED)) {
+                    stuck.decrementAndGet();
+                }
+            }
+        }, executor)
+                .orTimeout(provider.timeoutMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (!(cause instanceof TimeoutException)) {
+                        throw new CompletionException(cause);
+                    }
+                    // conta antes do CAS: a chamada pode terminar logo depois e decrementar
+                    stuck.incrementAndGet();
+                    if (!state.compareAndSet(RUNNING, TIMED_OUT)) {
+                        stuck.decrementAndGet();
+                    }
+                    counters.timeouts.increment();
+                    totalTimeouts.increment();
+                    return Collections.emptyList();
+                });
+    }
+
+    /**
+     * Aplica o resultado de um provider sobre o merge parcial (último ganha).
+     */
+    private Long2ObjectOpenHashMap<BlockMutation> accumulate(Long2ObjectOpenHashMap<BlockMutation> merged,
+            ChunkMutationProvider provider, List<BlockMutation> mutations) {
+        if (mutations == null || mutations.isEmpty()) {
+            return merged;
+        }
+
+        // Track métricas
+        ProviderCounters counters = counters(provider.id());
+        counters.mutations.add(mutations.size());
+        totalMutations.add(mutations.size());
+
+        // Map de posição -> mutation (último ganha)
+        if (merged == null) {
+            merged = new Long2ObjectOpenHashMap<>(mutations.size());
+        }
+        for (BlockMutation mutation : mutations) {
+            long packedKey = new BlockPosKey(mutation.x(), mutation.y(), mutation.z()).packed();
+
+            BlockMutation existing = merged.put(packedKey, mutation);
+            if (existing != null) {
+                // Conflito detectado
+                counters.conflicts.increment();
+                totalConflicts.increment();
             }
         }
+        return merged;
+    }
+
+    private static List<BlockMutation> toList(Long2ObjectOpenHashMap<BlockMutation> merged) {
+        return merged == null ? Collections.emptyList() : new ArrayList<>(merged.values());
+    }
 
-        return new ArrayList<>(merged.values());
+    private ProviderCounters counters(String providerId) {
+        ProviderCounters counters = countersByProvider.get(providerId);
+        if (counters == null) {
+            counters = countersByProvider.computeIfAbsent(providerId, k -> new ProviderCounters());
+        }
+        return counters;
     }
 
     /**
      * Obter métricas de um provider específico.
      */
     public long getMutationsForProvider(@NotNull String providerId) {
-        AtomicLong counter = mutationsByProvider.get(providerId);
-        return counter != null ? counter.get() : 0;
+        ProviderCounters counters = countersByProvider.get(providerId);
+        return counters != null ? counters.mutations.sum() : 0;
     }
 
     public long getConflictsForProvider(@NotNull String providerId) {
-        AtomicLong counter = conflictsByProvider.get(providerId);
-        return counter != null ? counter.get() : 0;
+        ProviderCounters counters = countersByProvider.get(providerId);
+        return counters != null ? counters.conflicts.sum() : 0;
+    }
+
+    public long getTimeoutsForProvider(@NotNull String providerId) {
+        ProviderCounters counters = countersByProvider.get(providerId);
+        return counters != null ? counters.timeouts.sum() : 0;
+    }
+
+    public long getOverBudgetForProvider(@NotNull String providerId) {
+        ProviderCounters counters = countersByProvider.get(providerId);
+        return counters != null ? counters.overBudget.sum() : 0;
     }
 
     public long getTotalConflicts() {
-        return totalConflicts.get();
+        return totalConflicts.sum();
     }
 
     public long getTotalMutations() {
-        return totalMutations.get();
+        return totalMutations.sum();
+    }
+
+    public long getTotalTimeouts() {
+        return totalTimeouts.sum();
     }
 
     /**
      * Reset todas as métricas.
      */
     public void resetMetrics() {
-        mutationsByProvider.clear();
-        conflictsByProvider.clear();
-        totalConflicts.set(0);
-        totalMutations.set(0);
+        countersByProvider.clear();
+        totalConflicts.reset();
+        totalMutations.reset();
+        totalTimeouts.reset();
     }
 
     /**
@@ -116,6 +273,19 @@ public final class ChunkMutationMerger {
      */
     @NotNull
     public Set<String> getActiveProviderIds() {
-        return new HashSet<>(mutationsByProvider.keySet());
+        Set<String> ids = new HashSet<>();
+        countersByProvider.forEach((id, counters) -> {
+            if (counters.mutations.sum() > 0) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    private static final class ProviderCounters {
+        private final LongAdder mutations = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder overBudget = new LongAdder();
     }
 }
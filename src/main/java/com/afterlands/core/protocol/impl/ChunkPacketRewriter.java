@@ -0,0 +1,239 @@
+package com.afterlands.core.protocol.impl;
+
+import com.afterlands.core.protocol.BlockMutation;
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.events.PacketEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Acesso ao conteúdo de MAP_CHUNK / MAP_CHUNK_BULK (formato 1.8) para
+ * reescrita inline de blocos (UNLOAD é detectado pelo {@link ChunkUnloadDetector}).
+ *
+ * <p>
+ * <b>Formato:</b> cada chunk do pacote carrega um {@code ChunkMap} com o
+ * bitmask de seções presentes e um {@code byte[]} onde os blocos de todas as
+ * seções vêm primeiro (8192 bytes por seção, um {@code char} little-endian
+ * {@code id << 4 | data} por bloco, índice {@code y << 8 | z << 4 | x}),
+ * seguidos de block light, sky light e biomas.
+ * </p>
+ *
+ * <p>
+ * <b>Cópia:</b> o servidor pode enviar a mesma instância de pacote para vários
+ * players, então o pacote é clonado (shallow) e o {@code byte[]} do chunk
+ * alterado é copiado antes de escrever.
+ * </p>
+ *
+ * <p>
+ * <b>Seções ausentes:</b> uma mutation em uma seção fora do bitmask não cabe
+ * no pacote; o chunk é reportado como incompleto e o chamador usa o caminho
+ * MULTI_BLOCK_CHANGE.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Thread-safe (campos resolvidos uma vez na construção).
+ * </p>
+ */
+final class ChunkPacketRewriter {
+
+    private static final int SECTION_BLOCK_BYTES = 16 * 16 * 16 * 2;
+
+    private final Field chunkMapField;
+    private final Field bulkChunkMapsField;
+    private final Class<?> chunkMapClass;
+    private final Constructor<?> chunkMapConstructor;
+    private final Field dataField;
+    private final Field maskField;
+
+    private ChunkPacketRewriter(Field chunkMapField, Field bulkChunkMapsField, Class<?> chunkMapClass,
+            Constructor<?> chunkMapConstructor, Field dataField, Field maskField) {
+        this.chunkMapField = chunkMapField;
+        this.bulkChunkMapsField = bulkChunkMapsField;
+        this.chunkMapClass = chunkMapClass;
+        this.chunkMapConstructor = chunkMapConstructor;
+        this.dataField = dataField;
+        this.maskField = maskField;
+    }
+
+    /**
+     * Resolve os campos NMS via reflection.
+     *
+     * @return Rewriter ou null se o formato do servidor não for reconhecido
+     */
+    @Nullable
+    static ChunkPacketRewriter create(@NotNull Logger logger) {
+        try {
+            Class<?> mapChunkClass = PacketType.Play.Server.MAP_CHUNK.getPacketClass();
+            Class<?> bulkClass = PacketType.Play.Server.MAP_CHUNK_BULK.getPacketClass();
+            if (mapChunkClass == null || bulkClass == null) {
+                return null;
+            }
+
+            Field chunkMapField = null;
+            Field dataField = null;
+            Field maskField = null;
+            for (Field field : mapChunkClass.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                    continue;
+                }
+                Field data = findField(field.getType(), byte[].class);
+                Field mask = findField(field.getType(), int.class);
+                if (data != null && mask != null) {
+                    chunkMapField = field;
+                    dataField = data;
+                    maskField = mask;
+                    break;
+                }
+            }
+            if (chunkMapField == null) {
+                return null;
+            }
+
+            Class<?> chunkMapClass = chunkMapField.getType();
+            Field bulkField = null;
+            for (Field field : bulkClass.getDeclaredFields()) {
+                if (field.getType().isArray() && field.getType().getComponentType() == chunkMapClass) {
+                    bulkField = field;
+                    break;
+                }
+            }
+            if (bulkField == null) {
+                return null;
+            }
+
+            Constructor<?> constructor = chunkMapClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            chunkMapField.setAccessible(true);
+            bulkField.setAccessible(true);
+            dataField.setAccessible(true);
+            maskField.setAccessible(true);
+
+            return new ChunkPacketRewriter(chunkMapField, bulkField, chunkMapClass, constructor, dataField,
+                    maskField);
+        } catch (Exception e) {
+            logger.warning("Acesso ao conteúdo de MAP_CHUNK indisponível: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Aplica mutations a um MAP_CHUNK.
+     *
+     * @return true se todas as mutations foram escritas no pacote
+     */
+    boolean rewriteMapChunk(@NotNull PacketEvent event, @NotNull List<BlockMutation> mutations)
+            throws ReflectiveOperationException {
+        if (mutations.isEmpty()) {
+            return true;
+        }
+
+        PacketContainer packet = event.getPacket().shallowClone();
+        Object handle = packet.getHandle();
+        Object chunkMap = chunkMapField.get(handle);
+        if (chunkMap == null) {
+            return false;
+        }
+
+        Object rewritten = newChunkMap();
+        boolean complete = apply(chunkMap, rewritten, mutations);
+        chunkMapField.set(handle, rewritten);
+        event.setPacket(packet);
+        return complete;
+    }
+
+    /**
+     * Clona um MAP_CHUNK_BULK para reescrita e retorna os ChunkMaps do clone.
+     */
+    @NotNull
+    Object[] cloneBulk(@NotNull PacketEvent event) throws ReflectiveOperationException {
+        PacketContainer packet = event.getPacket().shallowClone();
+        Object handle = packet.getHandle();
+        Object[] maps = ((Object[]) bulkChunkMapsField.get(handle)).clone();
+        bulkChunkMapsField.set(handle, maps);
+        event.setPacket(packet);
+        return maps;
+    }
+
+    /**
+     * Aplica mutations ao chunk {@code index} de um bulk já clonado.
+     *
+     * @return true se todas as mutations foram escritas no pacote
+     */
+    boolean rewriteBulkEntry(@NotNull Object[] maps, int index, @NotNull List<BlockMutation> mutations)
+            throws ReflectiveOperationException {
+        if (mutations.isEmpty()) {
+            return true;
+        }
+        Object chunkMap = maps[index];
+        if (chunkMap == null || !chunkMapClass.isInstance(chunkMap)) {
+            return false;
+        }
+
+        Object rewritten = newChunkMap();
+        boolean complete = apply(chunkMap, rewritten, mutations);
+        maps[index] = rewritten;
+        return complete;
+    }
+
+    private Object newChunkMap() throws ReflectiveOperationException {
+        return chunkMapConstructor.newInstance();
+    }
+
+    private boolean apply(Object source, Object target, List<BlockMutation> mutations)
+            throws ReflectiveOperationException {
+        byte[] original = (byte[]) dataField.get(source);
+        int mask = maskField.getInt(source);
+        byte[] data = original.clone();
+
+        boolean complete = true;
+        int sections = Integer.bitCount(mask & 0xFFFF);
+        for (BlockMutation m : mutations) {
+            int y = m.y();
+            if (y < 0 || y > 255) {
+                continue;
+            }
+            int section = y >> 4;
+            if ((mask & (1 << section)) == 0) {
+                complete = false;
+                continue;
+            }
+
+            int sectionIndex = Integer.bitCount(mask & ((1 << section) - 1));
+            if (sectionIndex >= sections) {
+                complete = false;
+                continue;
+            }
+            int offset = sectionIndex * SECTION_BLOCK_BYTES
+                    + (((y & 15) << 8 | (m.z() & 15) << 4 | (m.x() & 15)) << 1);
+            if (offset + 1 >= data.length) {
+                complete = false;
+                continue;
+            }
+
+            int value = (m.blockId() & 0xFFF) << 4 | (m.blockData() & 15);
+            data[offset] = (byte) value;
+            data[offset + 1] = (byte) (value >> 8);
+        }
+
+        dataField.set(target, data);
+        maskField.setInt(target, mask);
+        return complete;
+    }
+
+    @Nullable
+    private static Field findField(Class<?> owner, Class<?> type) {
+        for (Field field : owner.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && field.getType() == type) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
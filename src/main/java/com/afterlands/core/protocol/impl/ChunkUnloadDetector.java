@@ -0,0 +1,90 @@
+package com.afterlands.core.protocol.impl;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.events.PacketContainer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.logging.Logger;
+
+/**
+ * Detecção de UNLOAD em MAP_CHUNK (1.8: chunk completo, {@code groundUp}, sem
+ * nenhuma seção no bitmask).
+ *
+ * <p>
+ * Independente do {@link ChunkPacketRewriter} (opcional): o rastreamento de
+ * chunks carregados precisa dela mesmo quando a reescrita inline não está
+ * disponível. {@code groundUp} é lido via ProtocolLib; o bitmask, do
+ * {@code ChunkMap} do pacote por reflection.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Thread-safe (campos resolvidos uma vez na construção).
+ * </p>
+ */
+final class ChunkUnloadDetector {
+
+    // null = formato sem ChunkMap (1.9+: UNLOAD tem pacote próprio)
+    private final Field chunkMapField;
+    private final Field maskField;
+
+    private ChunkUnloadDetector(@Nullable Field chunkMapField, @Nullable Field maskField) {
+        this.chunkMapField = chunkMapField;
+        this.maskField = maskField;
+    }
+
+    @NotNull
+    static ChunkUnloadDetector create(@NotNull Logger logger) {
+        try {
+            Class<?> mapChunkClass = PacketType.Play.Server.MAP_CHUNK.getPacketClass();
+            if (mapChunkClass != null) {
+                for (Field field : mapChunkClass.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                        continue;
+                    }
+                    // ChunkMap: byte[] de dados + int de bitmask
+                    Field mask = findField(field.getType(), int.class);
+                    if (mask != null && findField(field.getType(), byte[].class) != null) {
+                        field.setAccessible(true);
+                        mask.setAccessible(true);
+                        return new ChunkUnloadDetector(field, mask);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warning("Detecção de UNLOAD em MAP_CHUNK indisponível: " + e.getMessage());
+        }
+        return new ChunkUnloadDetector(null, null);
+    }
+
+    /**
+     * Indica se o MAP_CHUNK é um UNLOAD.
+     */
+    boolean isUnload(@NotNull PacketContainer packet) {
+        if (chunkMapField == null) {
+            return false;
+        }
+        Boolean groundUp = packet.getBooleans().readSafely(0);
+        if (groundUp == null || !groundUp) {
+            return false;
+        }
+        try {
+            Object chunkMap = chunkMapField.get(packet.getHandle());
+            return chunkMap != null && (maskField.getInt(chunkMap) & 0xFFFF) == 0;
+        } catch (IllegalAccessException e) {
+            return false;
+        }
+    }
+
+    @Nullable
+    private static Field findField(Class<?> owner, Class<?> type) {
+        for (Field field : owner.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && field.getType() == type) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
@@ -2,32 +2,39 @@ package com.afterlands.core.protocol.impl;
 
 import com.afterlands.core.concurrent.SchedulerService;
 import com.afterlands.core.metrics.MetricsService;
+import com.afterlands.core.protocol.AsyncChunkMutationProvider;
 import com.afterlands.core.protocol.BlockMutation;
 import com.afterlands.core.protocol.ChunkMutationProvider;
 import com.afterlands.core.protocol.ProtocolService;
 import com.afterlands.core.protocol.ProtocolStats;
+import com.afterlands.core.spatial.ChunkKey;
 import com.comphenix.protocol.PacketType;
 import com.comphenix.protocol.ProtocolLibrary;
 import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.ListenerOptions;
 import com.comphenix.protocol.events.ListenerPriority;
 import com.comphenix.protocol.events.PacketAdapter;
 import com.comphenix.protocol.events.PacketContainer;
 import com.comphenix.protocol.events.PacketEvent;
-import com.comphenix.protocol.wrappers.ChunkCoordIntPair;
-import com.comphenix.protocol.wrappers.MultiBlockChangeInfo;
-import com.comphenix.protocol.wrappers.WrappedBlockData;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
@@ -41,7 +48,15 @@ import java.util.logging.Logger;
  * <li>Listener único para MAP_CHUNK e MAP_CHUNK_BULK</li>
  * <li>Debounce/batching por player</li>
  * <li>Merge determinístico de mutations (último por prioridade ganha)</li>
- * <li>Applier via MULTI_BLOCK_CHANGE</li>
+ * <li>Providers {@link AsyncChunkMutationProvider} avaliados em paralelo no cpuExecutor;
+ * só o envio volta para a main thread</li>
+ * <li>Cache do merge por chunk quando todos os providers são player-independent</li>
+ * <li>Modo inline opcional: blocos reescritos dentro do próprio MAP_CHUNK quando todos os
+ * providers são async-safe (sem pacote de correção)</li>
+ * <li>Budget de envio por player por tick (reduzido sob carga); chunks fora da view são descartados</li>
+ * <li>Rastreamento dos chunks carregados por player (MAP_CHUNK/UNLOAD) com índice reverso chunk -> viewers</li>
+ * <li>{@link #pushMutations}: atualizações ao vivo agrupadas por chunk, enviadas aos viewers uma vez por tick</li>
+ * <li>Applier via MULTI_BLOCK_CHANGE (pacote compartilhado entre players quando o merge é cacheado)</li>
  * <li>Métricas integradas</li>
  * </ul>
  * </p>
@@ -54,15 +69,25 @@ public final class DefaultProtocolService implements ProtocolService, Listener {
     private final boolean debug;
 
     // Config
-    private final long batchIntervalMs;
-    private final int maxChunksPerBatch;
+    private final ProtocolConfig config;
 
     // Providers ordenados por prioridade (menor -> maior)
     private final List<ChunkMutationProvider> providers = new CopyOnWriteArrayList<>();
+    private final AtomicLong providerVersion = new AtomicLong();
+    private volatile boolean providersPlayerIndependent;
+    private volatile boolean providersAsyncSafe;
+    private volatile boolean hasAsyncProviders;
 
     // Pipeline components
     private ChunkDebounceBatcher batcher;
     private ChunkMutationMerger merger;
+    private ChunkMergeCache mergeCache;
+    private MultiBlockChangeEncoder encoder;
+    private ChunkPacketRewriter rewriter;
+    private ChunkUnloadDetector unloadDetector;
+    private BukkitTask pushTask;
+    private final LoadedChunkTracker loadedChunks = new LoadedChunkTracker();
+    private final MutationPushQueue pushQueue = new MutationPushQueue();
     private PacketAdapter chunkPacketListener;
     private ProtocolManager protocolManager;
 
@@ -73,20 +98,22 @@ public final class DefaultProtocolService implements ProtocolService, Listener {
     // Métricas
     private final AtomicLong chunksProcessed = new AtomicLong();
     private final AtomicLong packetsQueued = new AtomicLong();
+    private final AtomicLong budgetExhausted = new AtomicLong();
+
+    // Budget de envio por player (main thread)
+    private final Map<UUID, SendBudget> budgets = new HashMap<>();
 
     public DefaultProtocolService(@NotNull Plugin plugin,
             @NotNull SchedulerService scheduler,
             @NotNull MetricsService metrics,
             boolean debug,
-            long batchIntervalMs,
-            int maxChunksPerBatch) {
+            @NotNull ProtocolConfig config) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
         this.scheduler = scheduler;
         this.metrics = metrics;
         this.debug = debug;
-        this.batchIntervalMs = batchIntervalMs;
-        this.maxChunksPerBatch = maxChunksPerBatch;
+        this.config = config;
     }
 
     @Override
@@ -107,13 +134,22 @@ public final class DefaultProtocolService implements ProtocolService, Listener {
         protocolManager = ProtocolLibrary.getProtocolManager();
 
         // Initialize components
-        batcher = new ChunkDebounceBatcher(plugin, batchIntervalMs, maxChunksPerBatch, debug);
+        batcher = new ChunkDebounceBatcher(plugin, config.batchIntervalMs(), config.maxChunksPerBatch(), debug,
+                this::processBatch);
         merger = new ChunkMutationMerger();
-
-        // Register packet listener
-        chunkPacketListener = new PacketAdapter(plugin, ListenerPriority.NORMAL,
-                PacketType.Play.Server.MAP_CHUNK,
-                PacketType.Play.Server.MAP_CHUNK_BULK) {
+        mergeCache = config.mergeCacheSize() > 0 ? new ChunkMergeCache(config.mergeCacheSize(), metrics) : null;
+        encoder = new MultiBlockChangeEncoder(protocolManager, metrics, config.mergeCacheSize());
+        rewriter = ChunkPacketRewriter.create(logger);
+        unloadDetector = ChunkUnloadDetector.create(logger);
+        boolean inline = config.inlineRewrite() && rewriter != null;
+
+        // Register packet listener (ASYNC no modo inline: o merge roda na thread de envio)
+        List<PacketType> chunkPackets = List.of(PacketType.Play.Server.MAP_CHUNK,
+                PacketType.Play.Server.MAP_CHUNK_BULK);
+        ListenerOptions[] options = inline
+                ? new ListenerOptions[] { ListenerOptions.ASYNC }
+                : new ListenerOptions[0];
+        chunkPacketListener = new PacketAdapter(plugin, ListenerPriority.NORMAL, chunkPackets, options) {
             @Override
             public void onPacketSending(PacketEvent event) {
                 handleChunkPacket(event);
@@ -121,10 +157,17 @@ public final class DefaultProtocolService implements ProtocolService, Listener {
         };
         protocolManager.addPacketListener(chunkPacketListener);
 
+        // Flush de pushMutations (1x por tick)
+        pushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flushPushedMutations, 1L, 1L);
+
         // Register Bukkit listener for cleanup
         Bukkit.getPluginManager().registerEvents(this, plugin);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            loadedChunks.addPlayer(player);
+        }
 
-        logger.info("ProtocolService iniciado (pipeline MAP_CHUNK ativo).");
+        logger.info("ProtocolService iniciado (pipeline MAP_CHUNK ativo"
+                + (inline ? ", reescrita inline" : "") + ").");
     }
 
     @Override
@@ -140,12 +183,28 @@ public final class DefaultProtocolService implements ProtocolService, Listener {
         if (batcher != null) {
             batcher.shutdown();
         }
+
+        if (pushTask != null) {
+            pushTask.cancel();
+            pushTask = null;
+        }
+        pushQueue.clear();
+        loadedChunks.clear();
+
+        if (mergeCache != null) {
+            mergeCache.invalidateAll();
+        }
+
+        if (encoder != null) {
+            encoder.clear();
+        }
     }
 
     @Override
     public void registerChunkProvider(@NotNull ChunkMutationProvider provider) {
         providers.add(provider);
         sortProviders();
+        onProvidersChanged();
 
         if (debug) {
             logger.info("ChunkProvider registrado: " + provider.id() + " prio=" + provider.priority());
@@ -155,12 +214,57 @@ public final class DefaultProtocolService implements ProtocolService, Listener {
     @Override
     public boolean unregisterChunkProvider(@NotNull String id) {
         boolean removed = providers.removeIf(p -> p.id().equals(id));
+        if (removed) {
+            onProvidersChanged();
+        }
         if (removed && debug) {
             logger.info("ChunkProvider removido: " + id);
         }
         return removed;
     }
 
+    @Override
+    public void invalidateChunk(@NotNull String world, int chunkX, int chunkZ) {
+        ChunkMergeCache cache = mergeCache;
+        if (cache != null) {
+            cache.invalidate(world, chunkX, chunkZ);
+        }
+    }
+
+    @Override
+    public void invalidateAllChunks() {
+        long version = providerVersion.incrementAndGet();
+
+        if (debug) {
+            logger.info("Merge de chunks invalidado (versão " + version + ")");
+        }
+    }
+
+    @Override
+    public long getProviderVersion() {
+        return providerVersion.get();
+    }
+
+    @Override
+    public void pushMutations(@NotNull String world, @NotNull Collection<BlockMutation> mutations) {
+        if (!started || !protocolLibAvailable)
+            return;
+
+        pushQueue.add(world, mutations);
+    }
+
+    @Override
+    @NotNull
+    public Collection<Player> viewersOf(@NotNull String world, int chunkX, int chunkZ) {
+        Player[] viewers = loadedChunks.viewers(world, chunkX, chunkZ);
+        return viewers.length == 0 ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(viewers));
+    }
+
+    @Override
+    public boolean isChunkLoadedFor(@NotNull Player player, int chunkX, int chunkZ) {
+        return loadedChunks.isLoaded(player.getUniqueId(), chunkX, chunkZ);
+    }
+
     @Override
     @NotNull
     public List<ChunkMutationProvider> getProviders() {
@@ -178,7 +282,9 @@ public final class DefaultProtocolService implements ProtocolService, Listener {
                         provider.id(),
                         provider.priority(),
                         merger.getMutationsForProvider(provider.id()),
-                        merger.getConflictsForProvider(provider.id())));
+                        merger.getConflictsForProvider(provider.id()),
+                        merger.getTimeoutsForProvider(provider.id()),
+                        merger.getOverBudgetForProvider(provider.id())));
             }
         }
 
@@ -188,6 +294,11 @@ public final class DefaultProtocolService implements ProtocolService, Listener {
                 merger != null ? merger.getTotalMutations() : 0,
                 merger != null ? merger.getTotalConflicts() : 0,
                 packetsQueued.get(),
+                mergeCache != null ? mergeCache.hits() : 0,
+                mergeCache != null ? mergeCache.misses() : 0,
+                batcher != null ? batcher.getChunksDropped() : 0,
+                batcher != null ? batcher.getChunksDeferred() : 0,
+                budgetExhausted.get(),
                 providerStats);
     }
 
@@ -200,12 +311,26 @@ public final class DefaultProtocolService implements ProtocolService, Listener {
         providers.addAll(sorted);
     }
 
+    private void onProvidersChanged() {
+        providerVersion.incrementAndGet();
+
+        boolean independent = !providers.isEmpty();
+        boolean asyncSafe = !providers.isEmpty();
+        boolean async = false;
+        for (ChunkMutationProvider provider : providers) {
+            independent &= provider.playerIndependent();
+            asyncSafe &= provider.asyncSafe();
+            async |= provider instanceof AsyncChunkMutationProvider;
+        }
+        providersPlayerIndependent = independent;
+        providersAsyncSafe = asyncSafe;
+        hasAsyncProviders = async;
+    }
+
     @SuppressWarnings("deprecation")
     private void handleChunkPacket(PacketEvent event) {
         if (event.isCancelled())
             return;
-        if (providers.isEmpty())
-            return;
 
         Player player = event.getPlayer();
         if (player == null || !player.isOnline())
@@ -230,13 +355,38 @@ public final class DefaultProtocolService implements ProtocolService, Listener {
     private void handleMapChunk(PacketEvent event, Player player) {
         int chunkX = event.getPacket().getIntegers().read(0);
         int chunkZ = event.getPacket().getIntegers().read(1);
-        String world = player.getWorld().getName();
+        World world = player.getWorld();
 
         if (debug) {
             logger.info("[Protocol] MAP_CHUNK [" + chunkX + "," + chunkZ + "] -> " + player.getName());
         }
 
-        queueChunk(player, world, chunkX, chunkZ);
+        // UNLOAD (1.8: MAP_CHUNK sem seções): descartar correção pendente
+        if (unloadDetector.isUnload(event.getPacket())) {
+            loadedChunks.onChunkUnload(player.getUniqueId(), chunkX, chunkZ);
+            batcher.cancelChunk(player.getUniqueId(), world.getName(), chunkX, chunkZ);
+            return;
+        }
+
+        loadedChunks.onChunkLoad(player, world.getName(), chunkX, chunkZ);
+        if (providers.isEmpty())
+            return;
+
+        if (canRewriteInline()) {
+            try {
+                List<BlockMutation> mutations = mergeInline(player, world, chunkX, chunkZ);
+                if (rewriter.rewriteMapChunk(event, mutations)) {
+                    return;
+                }
+                metrics.increment("protocol.inline_fallbacks");
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // provider/timeout/reflection: corrige pelo caminho debounced
+                metrics.increment("protocol.inline_fallbacks");
+                logger.warning("[Protocol] Falha na reescrita inline de MAP_CHUNK: " + e.getMessage());
+            }
+        }
+
+        queueChunk(player, world.getName(), chunkX, chunkZ);
     }
 
     @SuppressWarnings("deprecation")
@@ -249,14 +399,50 @@ public final class DefaultProtocolService implements ProtocolService, Listener {
                 return;
             }
 
-            String world = player.getWorld().getName();
+            World world = player.getWorld();
 
             if (debug) {
                 logger.info("[Protocol] MAP_CHUNK_BULK " + chunkXArray.length + " chunks -> " + player.getName());
             }
 
-            for (int i = 0; i < chunkXArray.length && i < chunkZArray.length; i++) {
-                queueChunk(player, world, chunkXArray[i], chunkZArray[i]);
+            int count = Math.min(chunkXArray.length, chunkZArray.length);
+            for (int i = 0; i < count; i++) {
+                loadedChunks.onChunkLoad(player, world.getName(), chunkXArray[i], chunkZArray[i]);
+            }
+            if (providers.isEmpty()) {
+                return;
+            }
+
+            if (canRewriteInline()) {
+                Object[] maps = null;
+                boolean warned = false;
+                for (int i = 0; i < count; i++) {
+                    // falha em um chunk não deixa os demais sem correção
+                    try {
+                        List<BlockMutation> mutations = mergeInline(player, world, chunkXArray[i], chunkZArray[i]);
+                        if (mutations.isEmpty()) {
+                            continue;
+                        }
+                        if (maps == null) {
+                            maps = rewriter.cloneBulk(event);
+                        }
+                        if (rewriter.rewriteBulkEntry(maps, i, mutations)) {
+                            continue;
+                        }
+                    } catch (ReflectiveOperationException | RuntimeException e) {
+                        if (!warned) {
+                            warned = true;
+                            logger.warning("[Protocol] Falha na reescrita inline de MAP_CHUNK_BULK: " + e.getMessage());
+                        }
+                    }
+                    metrics.increment("protocol.inline_fallbacks");
+                    queueChunk(player, world.getName(), chunkXArray[i], chunkZArray[i]);
+                }
+                return;
+            }
+
+            for (int i = 0; i < count; i++) {
+                queueChunk(player, world.getName(), chunkXArray[i], chunkZArray[i]);
             }
         } catch (Exception e) {
             if (debug) {
@@ -265,83 +451,296 @@ public final class DefaultProtocolService implements ProtocolService, Listener {
         }
     }
 
+    private boolean canRewriteInline() {
+        return config.inlineRewrite() && rewriter != null && providersAsyncSafe;
+    }
+
+    /**
+     * Merge executado na thread de envio do pacote (só com providers async-safe).
+     */
+    private List<BlockMutation> mergeInline(Player player, World world, int chunkX, int chunkZ) {
+        chunksProcessed.incrementAndGet();
+        metrics.increment("protocol.chunks_processed");
+
+        List<BlockMutation> mutations = mergeChunk(player, world, chunkX, chunkZ);
+        if (!mutations.isEmpty()) {
+            metrics.increment("protocol.inline_rewrites");
+        }
+        return mutations;
+    }
+
     private void queueChunk(Player player, String world, int chunkX, int chunkZ) {
         packetsQueued.incrementAndGet();
-        batcher.markDirty(player, world, chunkX, chunkZ, this::processBatch);
+        batcher.markDirty(player, world, chunkX, chunkZ);
     }
 
-    private void processBatch(Player player, List<ChunkDebounceBatcher.DirtyChunk> chunks) {
+    private void processBatch(Player player, String chunkWorld, long[] chunkKeys, int count) {
         if (!player.isOnline() || providers.isEmpty())
             return;
 
         World world = player.getWorld();
+        // Merge vindo do cache = mesma lista para todos os players -> pacote compartilhado
+        boolean shared = mergeCache != null && providersPlayerIndependent;
 
-        for (ChunkDebounceBatcher.DirtyChunk chunk : chunks) {
-            // Só processar chunks do mundo atual do player
-            if (!chunk.world().equalsIgnoreCase(world.getName()))
-                continue;
+        // Só processar chunks do mundo atual do player
+        if (!chunkWorld.equalsIgnoreCase(world.getName()))
+            return;
+
+        if (hasAsyncProviders) {
+            processBatchAsync(player, world, chunkKeys, count, shared);
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            int chunkX = ChunkKey.unpackX(chunkKeys[i]);
+            int chunkZ = ChunkKey.unpackZ(chunkKeys[i]);
 
             chunksProcessed.incrementAndGet();
             metrics.increment("protocol.chunks_processed");
 
             // Merge mutations de todos providers
-            List<BlockMutation> mutations = merger.merge(
-                    providers, player, world, chunk.chunkX(), chunk.chunkZ());
+            List<BlockMutation> mutations = mergeChunk(player, world, chunkX, chunkZ);
 
             if (mutations.isEmpty())
                 continue;
 
+            if (!tryConsumeBudget(player, mutations.size())) {
+                batcher.requeue(player, chunkWorld, chunkKeys, i, count);
+                return;
+            }
+
             // Aplicar via MULTI_BLOCK_CHANGE
-            sendMultiBlockChange(player, chunk.chunkX(), chunk.chunkZ(), mutations);
+            sendMultiBlockChange(player, chunkX, chunkZ, mutations, shared);
         }
     }
 
-    @SuppressWarnings("deprecation")
-    private void sendMultiBlockChange(Player player, int chunkX, int chunkZ, List<BlockMutation> mutations) {
-        if (!protocolLibAvailable || protocolManager == null)
-            return;
+    /**
+     * Avalia os chunks do batch com providers async em paralelo e envia tudo
+     * em um único hop para a main thread.
+     */
+    private void processBatchAsync(Player player, World world, long[] chunkKeys, int count, boolean shared) {
+        long[] keys = Arrays.copyOf(chunkKeys, count); // buffer do batcher é reutilizado
+        @SuppressWarnings("unchecked")
+        CompletableFuture<List<BlockMutation>>[] futures = new CompletableFuture[count];
+
+        for (int i = 0; i < count; i++) {
+            chunksProcessed.incrementAndGet();
+            metrics.increment("protocol.chunks_processed");
+            futures[i] = mergeChunkAsync(player, world, ChunkKey.unpackX(keys[i]), ChunkKey.unpackZ(keys[i]));
+        }
+
+        CompletableFuture.allOf(futures)
+                .thenCompose(ignored -> scheduler.runSync(() -> {
+                    if (!player.isOnline() || player.getWorld() != world)
+                        return;
+
+                    for (int i = 0; i < keys.length; i++) {
+                        List<BlockMutation> mutations = futures[i].join();
+                        if (mutations.isEmpty())
+                            continue;
+
+                        if (!tryConsumeBudget(player, mutations.size())) {
+                            batcher.requeue(player, world.getName(), keys, i, keys.length);
+                            return;
+                        }
+                        sendMultiBlockChange(player, ChunkKey.unpackX(keys[i]), ChunkKey.unpackZ(keys[i]),
+                                mutations, shared);
+                    }
+                }))
+                .exceptionally(e -> {
+                    logger.warning("[Protocol] Falha no merge async: " + e.getMessage());
+                    if (debug) {
+                        e.printStackTrace();
+                    }
+                    return null;
+                });
+    }
 
-        PacketContainer packet = protocolManager.createPacket(PacketType.Play.Server.MULTI_BLOCK_CHANGE);
+    /**
+     * Consome o budget de envio do tick (main thread).
+     *
+     * @return false se o player já esgotou pacotes/bytes neste tick
+     */
+    private boolean tryConsumeBudget(Player player, int mutationCount) {
+        SendBudget budget = budgets.computeIfAbsent(player.getUniqueId(), k -> new SendBudget());
+        long tick = batcher.getCurrentTick();
+        if (budget.tick != tick) {
+            budget.tick = tick;
+            budget.packets = 0;
+            budget.bytes = 0;
+        }
+
+        double load = batcher.getLoadFactor();
+        int maxPackets = Math.max(1, (int) (config.maxPacketsPerTick() * load));
+        long maxBytes = Math.max(1L, (long) (config.maxBytesPerTick() * load));
+        long bytes = estimatePacketBytes(mutationCount);
+
+        // Um pacote maior que o budget inteiro ainda passa se for o primeiro do tick
+        if (budget.packets > 0 && (budget.packets >= maxPackets || budget.bytes + bytes > maxBytes)) {
+            budgetExhausted.incrementAndGet();
+            metrics.increment("protocol.budget_exhausted");
+            return false;
+        }
+
+        budget.packets++;
+        budget.bytes += bytes;
+        return true;
+    }
+
+    /**
+     * Tamanho aproximado de um MULTI_BLOCK_CHANGE 1.8: cabeçalho + (short + varint) por bloco.
+     */
+    private static long estimatePacketBytes(int mutationCount) {
+        return 12L + mutationCount * 5L;
+    }
 
-        // Set chunk coordinates
-        packet.getChunkCoordIntPairs().write(0, new ChunkCoordIntPair(chunkX, chunkZ));
+    private CompletableFuture<List<BlockMutation>> mergeChunkAsync(Player player, World world, int chunkX,
+            int chunkZ) {
+        ChunkMergeCache cache = mergeCache;
+        if (cache == null || !providersPlayerIndependent) {
+            return merger.mergeAsync(providers, player, world, chunkX, chunkZ, scheduler.cpuExecutor());
+        }
 
-        // Build MultiBlockChangeInfo array
-        MultiBlockChangeInfo[] changes = new MultiBlockChangeInfo[mutations.size()];
-        for (int i = 0; i < mutations.size(); i++) {
-            BlockMutation m = mutations.get(i);
-            Material material = Material.getMaterial(m.blockId());
-            if (material == null)
-                material = Material.AIR;
+        long version = providerVersion.get();
+        return cache.getAsync(world.getName(), chunkX, chunkZ, version,
+                () -> merger.mergeAsync(providers, player, world, chunkX, chunkZ, scheduler.cpuExecutor()));
+    }
 
-            WrappedBlockData blockData = WrappedBlockData.createData(material, m.blockData());
-            changes[i] = new MultiBlockChangeInfo(
-                    new Location(null, m.x(), m.y(), m.z()),
-                    blockData);
+    private List<BlockMutation> mergeChunk(Player player, World world, int chunkX, int chunkZ) {
+        ChunkMergeCache cache = mergeCache;
+        if (cache == null || !providersPlayerIndependent) {
+            return merger.merge(providers, player, world, chunkX, chunkZ);
         }
 
-        packet.getMultiBlockChangeInfoArrays().write(0, changes);
+        // Versão lida antes do merge: se mudar durante, a entrada já nasce obsoleta
+        long version = providerVersion.get();
+        return cache.get(world.getName(), chunkX, chunkZ, version,
+                () -> merger.merge(providers, player, world, chunkX, chunkZ));
+    }
+
+    private void sendMultiBlockChange(Player player, int chunkX, int chunkZ, List<BlockMutation> mutations,
+            boolean shared) {
+        if (!protocolLibAvailable || protocolManager == null)
+            return;
 
+        PacketContainer packet = shared
+                ? encoder.encodeShared(chunkX, chunkZ, mutations)
+                : encoder.encode(chunkX, chunkZ, mutations);
+
+        if (sendPacket(player, packet) && debug) {
+            logger.info("[Protocol] Sent " + mutations.size() + " blocks to " +
+                    player.getName() + " at [" + chunkX + "," + chunkZ + "]");
+        }
+    }
+
+    private boolean sendPacket(Player player, PacketContainer packet) {
         try {
             // filters=false to avoid processing our own packet
             protocolManager.sendServerPacket(player, packet, false);
             metrics.increment("protocol.packets_sent");
+            return true;
+        } catch (Exception e) {
+            logger.warning("Falha ao enviar " + packet.getType().name() + ": " + e.getMessage());
+            return false;
+        }
+    }
 
-            if (debug) {
-                logger.info("[Protocol] Sent " + mutations.size() + " blocks to " +
-                        player.getName() + " at [" + chunkX + "," + chunkZ + "]");
+    /**
+     * Envia as mutations acumuladas por {@link #pushMutations} (main thread, 1x por tick).
+     *
+     * <p>Um pacote por chunk (BLOCK_CHANGE para um bloco, MULTI_BLOCK_CHANGE para vários),
+     * compartilhado entre todos os players com o chunk carregado.</p>
+     */
+    private void flushPushedMutations() {
+        Map<String, Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<BlockMutation>>> drained = pushQueue.drain();
+        if (drained.isEmpty())
+            return;
+
+        for (Map.Entry<String, Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<BlockMutation>>> worldEntry : drained
+                .entrySet()) {
+            String world = worldEntry.getKey();
+
+            for (Long2ObjectMap.Entry<Long2ObjectOpenHashMap<BlockMutation>> chunkEntry : worldEntry.getValue()
+                    .long2ObjectEntrySet()) {
+                int chunkX = ChunkKey.unpackX(chunkEntry.getLongKey());
+                int chunkZ = ChunkKey.unpackZ(chunkEntry.getLongKey());
+
+                // Estado do provider mudou: merges cacheados deste chunk estão obsoletos
+                invalidateChunk(world, chunkX, chunkZ);
+                metrics.increment("protocol.pushed_chunks");
+
+                Player[] viewers = loadedChunks.viewers(world, chunkX, chunkZ);
+                if (viewers.length == 0)
+                    continue;
+
+                List<BlockMutation> mutations = new ArrayList<>(chunkEntry.getValue().values());
+                PacketContainer packet = mutations.size() == 1
+                        ? encoder.encodeSingle(mutations.get(0))
+                        : encoder.encode(chunkX, chunkZ, mutations);
+                for (Player viewer : viewers) {
+                    if (viewer.isOnline()) {
+                        sendPacket(viewer, packet);
+                    }
+                }
             }
-        } catch (Exception e) {
-            logger.warning("Falha ao enviar MULTI_BLOCK_CHANGE: " + e.getMessage());
         }
     }
 
     // --- Event handlers ---
 
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        loadedChunks.addPlayer(event.getPlayer());
+    }
+
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
+        budgets.remove(event.getPlayer().getUniqueId());
+        loadedChunks.removePlayer(event.getPlayer().getUniqueId());
         if (batcher != null) {
             batcher.cancelForPlayer(event.getPlayer().getUniqueId());
         }
     }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        // o cliente recebe os chunks do ponto de respawn de novo
+        loadedChunks.resetPlayer(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        Location to = event.getTo();
+        if (batcher == null || to == null || to.getWorld() == null)
+            return;
+
+        UUID playerId = event.getPlayer().getUniqueId();
+        String toWorld = to.getWorld().getName();
+        int toChunkX = to.getBlockX() >> 4;
+        int toChunkZ = to.getBlockZ() >> 4;
+
+        // Mesmo mundo além da view distance: o cliente descarta a área antiga
+        // sem UNLOAD por chunk; troca de mundo já reinicia no próximo MAP_CHUNK
+        Location from = event.getFrom();
+        if (from != null && from.getWorld() == to.getWorld()) {
+            int viewDistance = batcher.viewDistance(toWorld);
+            if (Math.abs((from.getBlockX() >> 4) - toChunkX) > viewDistance
+                    || Math.abs((from.getBlockZ() >> 4) - toChunkZ) > viewDistance) {
+                loadedChunks.resetPlayer(playerId);
+            }
+        } else {
+            loadedChunks.resetPlayer(playerId);
+        }
+
+        batcher.dropOutOfView(playerId, toWorld, toChunkX, toChunkZ);
+    }
+
+    /**
+     * Consumo do budget de envio no tick atual.
+     */
+    private static final class SendBudget {
+        private long tick = -1;
+        private int packets;
+        private long bytes;
+    }
 }
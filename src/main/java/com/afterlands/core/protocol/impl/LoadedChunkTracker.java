@@ -0,0 +1,233 @@
+package com.afterlands.core.protocol.impl;
+
+import com.afterlands.core.spatial.ChunkKey;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chunks carregados no cliente de cada player, observados a partir dos
+ * MAP_CHUNK / MAP_CHUNK_BULK / UNLOAD enviados.
+ *
+ * <p>
+ * <b>Estrutura:</b>
+ * <ul>
+ * <li>Por player (registrado no join, removido no quit): {@link LongOpenHashSet}
+ * de {@link ChunkKey} do mundo atual; um chunk de outro mundo reinicia o
+ * conjunto (o cliente descarta tudo ao trocar de mundo), assim como respawn e
+ * teleporte para fora da view distance.</li>
+ * <li>Índice reverso por mundo: chunkKey -> array imutável de viewers, para
+ * fan-out O(1).</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Thread-safe (entrada do mapa, lock por player e por
+ * mundo, sempre nessa ordem; os pacotes podem ser observados na thread de
+ * envio).
+ * </p>
+ */
+final class LoadedChunkTracker {
+
+    private static final Player[] NO_VIEWERS = new Player[0];
+
+    private final Map<UUID, PlayerChunks> players = new ConcurrentHashMap<>();
+    // mundo (lower-case) -> chunkKey -> viewers
+    private final Map<String, WorldViewers> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Passa a rastrear o player (join). Só players registrados acumulam chunks.
+     */
+    void addPlayer(@NotNull Player player) {
+        PlayerChunks chunks = new PlayerChunks();
+        chunks.player = player;
+        players.putIfAbsent(player.getUniqueId(), chunks);
+    }
+
+    /**
+     * Registra um chunk enviado ao player.
+     *
+     * <p>
+     * Ignorado se o player não estiver registrado: um MAP_CHUNK observado
+     * depois do quit não recria a entrada (o update é atômico em relação ao
+     * {@link #removePlayer(UUID)}).
+     * </p>
+     */
+    void onChunkLoad(@NotNull Player player, @NotNull String world, int chunkX, int chunkZ) {
+        long key = ChunkKey.pack(chunkX, chunkZ);
+        players.computeIfPresent(player.getUniqueId(), (id, chunks) -> {
+            synchronized (chunks) {
+                if (!world.equalsIgnoreCase(chunks.world)) {
+                    unindexAll(chunks);
+                    chunks.world = world.toLowerCase(Locale.ROOT);
+                }
+                chunks.player = player;
+                if (chunks.loaded.add(key)) {
+                    worldViewers(chunks.world).add(key, player);
+                }
+            }
+            return chunks;
+        });
+    }
+
+    /**
+     * Registra um UNLOAD enviado ao player.
+     */
+    void onChunkUnload(@NotNull UUID playerId, int chunkX, int chunkZ) {
+        PlayerChunks chunks = players.get(playerId);
+        if (chunks == null) {
+            return;
+        }
+        long key = ChunkKey.pack(chunkX, chunkZ);
+        synchronized (chunks) {
+            if (chunks.loaded.remove(key)) {
+                worldViewers(chunks.world).remove(key, chunks.player);
+            }
+        }
+    }
+
+    /**
+     * Indica se o chunk está carregado no cliente do player (mundo atual do cliente).
+     */
+    boolean isLoaded(@NotNull UUID playerId, int chunkX, int chunkZ) {
+        PlayerChunks chunks = players.get(playerId);
+        if (chunks == null) {
+            return false;
+        }
+        synchronized (chunks) {
+            return chunks.loaded.contains(ChunkKey.pack(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Players com o chunk carregado.
+     *
+     * @return Array imutável (não modificar); vazio se nenhum
+     */
+    @NotNull
+    Player[] viewers(@NotNull String world, int chunkX, int chunkZ) {
+        WorldViewers viewers = worlds.get(world);
+        if (viewers == null) {
+            viewers = worlds.get(world.toLowerCase(Locale.ROOT));
+            if (viewers == null) {
+                return NO_VIEWERS;
+            }
+        }
+        return viewers.get(ChunkKey.pack(chunkX, chunkZ));
+    }
+
+    /**
+     * Esquece os chunks do player sem deixar de rastreá-lo (respawn, teleporte
+     * para fora da view distance): o cliente recebe os chunks do destino de novo.
+     */
+    void resetPlayer(@NotNull UUID playerId) {
+        PlayerChunks chunks = players.get(playerId);
+        if (chunks == null) {
+            return;
+        }
+        synchronized (chunks) {
+            unindexAll(chunks);
+        }
+    }
+
+    void removePlayer(@NotNull UUID playerId) {
+        PlayerChunks chunks = players.remove(playerId);
+        if (chunks == null) {
+            return;
+        }
+        synchronized (chunks) {
+            unindexAll(chunks);
+        }
+    }
+
+    void clear() {
+        players.clear();
+        worlds.clear();
+    }
+
+    private void unindexAll(PlayerChunks chunks) {
+        if (chunks.world != null && !chunks.loaded.isEmpty()) {
+            WorldViewers viewers = worldViewers(chunks.world);
+            LongIterator it = chunks.loaded.iterator();
+            while (it.hasNext()) {
+                viewers.remove(it.nextLong(), chunks.player);
+            }
+        }
+        chunks.loaded.clear();
+    }
+
+    private WorldViewers worldViewers(String world) {
+        WorldViewers viewers = worlds.get(world);
+        if (viewers == null) {
+            viewers = worlds.computeIfAbsent(world, k -> new WorldViewers());
+        }
+        return viewers;
+    }
+
+    private static final class PlayerChunks {
+        private final LongOpenHashSet loaded = new LongOpenHashSet();
+        private Player player;
+        private String world;
+    }
+
+    /**
+     * chunkKey -> viewers (copy-on-write, leitura devolve o array publicado).
+     */
+    private static final class WorldViewers {
+        private final Long2ObjectOpenHashMap<Player[]> byChunk = new Long2ObjectOpenHashMap<>();
+
+        synchronized Player[] get(long key) {
+            Player[] viewers = byChunk.get(key);
+            return viewers != null ? viewers : NO_VIEWERS;
+        }
+
+        synchronized void add(long key, Player player) {
+            Player[] current = byChunk.get(key);
+            if (current == null) {
+                byChunk.put(key, new Player[] { player });
+                return;
+            }
+            for (Player viewer : current) {
+                if (viewer == player) {
+                    return;
+                }
+            }
+            Player[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = player;
+            byChunk.put(key, next);
+        }
+
+        synchronized void remove(long key, Player player) {
+            Player[] current = byChunk.get(key);
+            if (current == null) {
+                return;
+            }
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == player) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return;
+            }
+            if (current.length == 1) {
+                byChunk.remove(key);
+                return;
+            }
+            Player[] next = new Player[current.length - 1];
+            System.arraycopy(current, 0, next, 0, index);
+            System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+            byChunk.put(key, next);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.afterlands.core.protocol.impl;
+
+import com.afterlands.core.metrics.MetricsService;
+import com.afterlands.core.protocol.BlockMutation;
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.wrappers.BlockPosition;
+import com.comphenix.protocol.wrappers.ChunkCoordIntPair;
+import com.comphenix.protocol.wrappers.MultiBlockChangeInfo;
+import com.comphenix.protocol.wrappers.WrappedBlockData;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Codifica mutations em pacotes MULTI_BLOCK_CHANGE (e BLOCK_CHANGE para um
+ * único bloco).
+ *
+ * <p>
+ * <b>Tabelas:</b> a resolução blockId -> Material é pré-computada em um array
+ * indexado pelo id (sem {@code Material.getMaterial} por mutation) e cada
+ * combinação (id, data) gera um único {@link WrappedBlockData}, reutilizado
+ * em todos os pacotes.
+ * </p>
+ *
+ * <p>
+ * <b>Pacotes compartilhados:</b> {@link #encodeShared} cacheia o pacote pela
+ * identidade da lista merged (a mesma instância devolvida pelo
+ * {@link ChunkMergeCache} para todos os players). Quando a lista sai do cache
+ * de merge e é coletada, o pacote também é descartado (weak keys).
+ * </p>
+ *
+ * <p>
+ * <b>Thread:</b> main thread (a tabela de block data é preenchida sob
+ * demanda sem sincronização).
+ * </p>
+ */
+final class MultiBlockChangeEncoder {
+
+    private static final int MAX_BLOCK_ID = 4096;
+
+    private final ProtocolManager protocolManager;
+    private final MetricsService metrics;
+
+    // blockId -> Material (AIR para ids desconhecidos)
+    private final Material[] materialsById = new Material[MAX_BLOCK_ID];
+    // (blockId << 4 | data) -> WrappedBlockData, preenchido sob demanda
+    private final WrappedBlockData[] blockData = new WrappedBlockData[MAX_BLOCK_ID << 4];
+
+    private final Cache<List<BlockMutation>, SharedPacket> sharedPackets;
+
+    @SuppressWarnings("deprecation")
+    MultiBlockChangeEncoder(@NotNull ProtocolManager protocolManager, @NotNull MetricsService metrics, int maxShared) {
+        this.protocolManager = protocolManager;
+        this.metrics = metrics;
+        this.sharedPackets = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(Math.max(1, maxShared))
+                .build();
+
+        for (int id = 0; id < MAX_BLOCK_ID; id++) {
+            Material material = Material.getMaterial(id);
+            materialsById[id] = material != null ? material : Material.AIR;
+        }
+    }
+
+    /**
+     * Codifica um pacote exclusivo (mutations dependentes do player).
+     */
+    @NotNull
+    PacketContainer encode(int chunkX, int chunkZ, @NotNull List<BlockMutation> mutations) {
+        PacketContainer packet = protocolManager.createPacket(PacketType.Play.Server.MULTI_BLOCK_CHANGE);
+        ChunkCoordIntPair chunk = new ChunkCoordIntPair(chunkX, chunkZ);
+        packet.getChunkCoordIntPairs().write(0, chunk);
+
+        MultiBlockChangeInfo[] changes = new MultiBlockChangeInfo[mutations.size()];
+        for (int i = 0; i < changes.length; i++) {
+            BlockMutation m = mutations.get(i);
+            short location = (short) ((m.x() & 15) << 12 | (m.z() & 15) << 8 | (m.y() & 255));
+            changes[i] = new MultiBlockChangeInfo(location, blockData(m.blockId(), m.blockData()), chunk);
+        }
+
+        packet.getMultiBlockChangeInfoArrays().write(0, changes);
+        return packet;
+    }
+
+    /**
+     * Codifica um BLOCK_CHANGE para uma única mutation.
+     */
+    @NotNull
+    PacketContainer encodeSingle(@NotNull BlockMutation mutation) {
+        PacketContainer packet = protocolManager.createPacket(PacketType.Play.Server.BLOCK_CHANGE);
+        packet.getBlockPositionModifier().write(0, new BlockPosition(mutation.x(), mutation.y(), mutation.z()));
+        packet.getBlockData().write(0, blockData(mutation.blockId(), mutation.blockData()));
+        return packet;
+    }
+
+    /**
+     * Retorna o pacote cacheado para a lista merged (mesma instância para todos
+     * os players) ou codifica e cacheia.
+     *
+     * <p>
+     * A lista deve ser imutável: a chave é a identidade dela.
+     * </p>
+     */
+    @NotNull
+    PacketContainer encodeShared(int chunkX, int chunkZ, @NotNull List<BlockMutation> mutations) {
+        SharedPacket shared = sharedPackets.getIfPresent(mutations);
+        if (shared != null && shared.chunkX() == chunkX && shared.chunkZ() == chunkZ) {
+            metrics.increment("protocol.packet_cache_hit");
+            return shared.packet();
+        }
+
+        metrics.increment("protocol.packet_cache_miss");
+        PacketContainer packet = encode(chunkX, chunkZ, mutations);
+        sharedPackets.put(mutations, new SharedPacket(chunkX, chunkZ, packet));
+        return packet;
+    }
+
+    void clear() {
+        sharedPackets.invalidateAll();
+    }
+
+    @SuppressWarnings("deprecation")
+    private WrappedBlockData blockData(int blockId, byte data) {
+        int id = blockId >= 0 && blockId < MAX_BLOCK_ID ? blockId : 0;
+        int index = id << 4 | (data & 15);
+        WrappedBlockData wrapped = blockData[index];
+        if (wrapped == null) {
+            wrapped = WrappedBlockData.createData(materialsById[id], data & 15);
+            blockData[index] = wrapped;
+        }
+        return wrapped;
+    }
+
+    private record SharedPacket(int chunkX, int chunkZ, PacketContainer packet) {
+    }
+}
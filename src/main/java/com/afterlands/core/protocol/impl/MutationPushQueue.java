@@ -0,0 +1,78 @@
+package com.afterlands.core.protocol.impl;
+
+import com.afterlands.core.protocol.BlockMutation;
+import com.afterlands.core.protocol.BlockPosKey;
+import com.afterlands.core.spatial.ChunkKey;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fila de mutations empurradas via {@code ProtocolService.pushMutations},
+ * agrupadas por mundo e chunk e coalescidas até o próximo flush (1 por tick).
+ *
+ * <p>
+ * Dentro de um tick, várias mutations na mesma posição viram uma só (última
+ * ganha).
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Thread-safe ({@code add} de qualquer thread, {@code drain}
+ * na main thread).
+ * </p>
+ */
+final class MutationPushQueue {
+
+    // mundo (lower-case) -> chunkKey -> posição packed -> mutation
+    private Map<String, Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<BlockMutation>>> pending = new HashMap<>();
+    private volatile boolean empty = true;
+
+    /**
+     * Adiciona mutations ao tick atual.
+     */
+    synchronized void add(@NotNull String world, @NotNull Collection<BlockMutation> mutations) {
+        if (mutations.isEmpty()) {
+            return;
+        }
+        Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<BlockMutation>> chunks = pending
+                .computeIfAbsent(world.toLowerCase(Locale.ROOT), k -> new Long2ObjectOpenHashMap<>());
+
+        for (BlockMutation mutation : mutations) {
+            long chunkKey = ChunkKey.pack(mutation.x() >> 4, mutation.z() >> 4);
+            Long2ObjectOpenHashMap<BlockMutation> blocks = chunks.get(chunkKey);
+            if (blocks == null) {
+                blocks = new Long2ObjectOpenHashMap<>();
+                chunks.put(chunkKey, blocks);
+            }
+            blocks.put(new BlockPosKey(mutation.x(), mutation.y(), mutation.z()).packed(), mutation);
+        }
+        empty = false;
+    }
+
+    /**
+     * Retira tudo que foi acumulado (mundo -> chunkKey -> mutations).
+     *
+     * @return Mapa vazio se não houver nada pendente
+     */
+    @NotNull
+    Map<String, Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<BlockMutation>>> drain() {
+        if (empty) {
+            return Map.of();
+        }
+        synchronized (this) {
+            Map<String, Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<BlockMutation>>> drained = pending;
+            pending = new HashMap<>();
+            empty = true;
+            return drained;
+        }
+    }
+
+    synchronized void clear() {
+        pending.clear();
+        empty = true;
+    }
+}
@@ -0,0 +1,62 @@
+package com.afterlands.core.protocol.impl;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Configuração do pipeline de protocolo (seção {@code protocol} do config.yml).
+ *
+ * @param batchIntervalMs   Janela de debounce por player
+ * @param maxChunksPerBatch Máximo de chunks por batch por player
+ * @param mergeCacheSize    Máximo de chunks com merge cacheado (0 desativa)
+ * @param inlineRewrite     Reescrita inline de MAP_CHUNK
+ * @param maxPacketsPerTick Budget de pacotes de correção por player por tick
+ * @param maxBytesPerTick   Budget de bytes (estimados) por player por tick
+ */
+public record ProtocolConfig(
+        long batchIntervalMs,
+        int maxChunksPerBatch,
+        int mergeCacheSize,
+        boolean inlineRewrite,
+        int maxPacketsPerTick,
+        int maxBytesPerTick) {
+
+    /**
+     * Construtor compacto com validação.
+     */
+    public ProtocolConfig {
+        if (batchIntervalMs <= 0) {
+            batchIntervalMs = 50;
+        }
+        if (maxChunksPerBatch <= 0) {
+            maxChunksPerBatch = 16;
+        }
+        if (mergeCacheSize < 0) {
+            mergeCacheSize = 0;
+        }
+        if (maxPacketsPerTick <= 0) {
+            maxPacketsPerTick = 32;
+        }
+        if (maxBytesPerTick <= 0) {
+            maxBytesPerTick = 65536;
+        }
+    }
+
+    /**
+     * Lê a seção {@code protocol} (valores padrão para chaves ausentes).
+     */
+    @NotNull
+    public static ProtocolConfig from(@Nullable ConfigurationSection section) {
+        if (section == null) {
+            return new ProtocolConfig(50, 16, 20000, false, 32, 65536);
+        }
+        return new ProtocolConfig(
+                section.getLong("batch-interval-ms", 50),
+                section.getInt("max-chunks-per-batch", 16),
+                section.getInt("merge-cache-size", 20000),
+                section.getBoolean("inline-rewrite", false),
+                section.getInt("budget.max-packets-per-tick", 32),
+                section.getInt("budget.max-bytes-per-tick", 65536));
+    }
+}
@@ -1,9 +1,22 @@
 package com.afterlands.core.spatial;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.function.Predicate;
 
 /**
@@ -13,25 +26,203 @@ import java.util.function.Predicate;
  * Design inspirado no `ChunkSpatialIndex` do AfterBlockState, porém desacoplado
  * de StateTarget.
  * </p>
+ *
+ * <p>
+ * Storage: um {@link Long2ObjectOpenHashMap} por mundo (chave = {@link ChunkKey}
+ * sem boxing) com buckets em arrays imutáveis (copy-on-write). Escritas mutam
+ * mapas mestres sob um lock único; leituras usam um {@link Snapshot} imutável
+ * publicado (volatile) e não alocam nem bloqueiam.
+ * </p>
+ *
+ * <p>
+ * Publicação por época: cada publicação gera um snapshot com versão
+ * incremental. Escritas avulsas são publicadas de forma preguiçosa na primeira
+ * leitura seguinte (rajadas de {@code register} não pagam uma cópia por
+ * chamada); {@link #batch(Consumer)} agrupa várias escritas e as publica
+ * atomicamente, então leitores async (ex: threads Netty) nunca veem um
+ * registro multi-chunk/multi-mundo pela metade.
+ * </p>
+ *
+ * <p>
+ * Custo de publicação: só as chaves alteradas desde a última publicação são
+ * copiadas; os mapas publicados compartilham a base com o snapshot anterior
+ * ({@link LayeredLongMap}) e são compactados periodicamente, então uma escrita
+ * avulsa seguida de leitura custa O(√chunks do mundo) amortizado, não
+ * O(mundo).
+ * </p>
+ *
+ * <p>
+ * Índice secundário por região (32×32 chunks, mesmo grid dos arquivos .mca)
+ * guarda os valores distintos presentes em cada região. Consultas por área
+ * ({@link #queryBox}, {@link #queryRadius}) respondem regiões inteiramente
+ * cobertas com um único probe e só descem ao nível de chunk nas bordas.
+ * </p>
+ *
+ * <p>
+ * Modo span (opt-in via {@link #ChunkSpatialIndex(int)}): registros com área
+ * igual ou maior que o threshold não são expandidos por chunk; ficam guardados
+ * uma vez por região como retângulo e são mesclados nos lookups de chunk em
+ * tempo de consulta. Um índice reverso valor → registros faz com que remoções
+ * custem O(chunks cobertos) em vez de varrer o índice inteiro.
+ * </p>
+ *
+ * <p>
+ * Mundos são internados em {@link WorldHandle}s; consumers hot-path podem
+ * guardar o handle via {@link #world(String)} e evitar o lookup por nome.
+ * </p>
  */
 public final class ChunkSpatialIndex<T> {
 
-    // world -> chunkKey -> list
-    private final Map<String, Map<Long, List<T>>> worldIndex = new ConcurrentHashMap<>();
+    private static final Object[] EMPTY_BUCKET = new Object[0];
+
+    // Regiões de 32×32 chunks (grid dos arquivos de região)
+    private static final int REGION_SHIFT = 5;
+    private static final int REGION_SIZE = 1 << REGION_SHIFT;
+
+    // nome canônico (lower-case) -> handle
+    private final Map<String, WorldHandle> worlds = new ConcurrentHashMap<>();
+
+    // qualquer grafia já vista -> handle (evita toLowerCase no hot path)
+    private final Map<String, WorldHandle> aliases = new ConcurrentHashMap<>();
+    private final AtomicInteger nextWorldId = new AtomicInteger();
+
+    // área mínima (em chunks) para guardar um registro como span
+    private final long spanThreshold;
+
+    // Escrita: lock único, reentrante (batch aninhado / leitura dentro de batch)
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private int batchDepth; // guarded by writeLock
+    private volatile boolean dirty;
+
+    // Leitura: snapshot publicado
+    private volatile Snapshot<T> published = new Snapshot<>(this, 0L, new WorldView[0]);
+    private volatile long lastPublishNanos;
+
+    /**
+     * Índice com todos os registros expandidos por chunk.
+     */
+    public ChunkSpatialIndex() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Índice com modo span.
+     *
+     * @param spanThresholdChunks Área mínima (em chunks) a partir da qual um
+     *                            registro é guardado como span em vez de
+     *                            expandido por chunk (ex: 256 = 16×16)
+     */
+    public ChunkSpatialIndex(int spanThresholdChunks) {
+        if (spanThresholdChunks < 1)
+            throw new IllegalArgumentException("spanThresholdChunks < 1: " + spanThresholdChunks);
+        this.spanThreshold = spanThresholdChunks;
+    }
+
+    /**
+     * Retorna (criando se necessário) o handle internado de um mundo.
+     *
+     * <p>
+     * Handles nunca são descartados pelo índice (nem por {@link #clear()}), então
+     * é seguro guardá-los em campos.
+     * </p>
+     */
+    @NotNull
+    public WorldHandle world(@NotNull String world) {
+        WorldHandle handle = aliases.get(world);
+        if (handle != null)
+            return handle;
+
+        String canonical = world.toLowerCase(Locale.ROOT);
+        handle = worlds.computeIfAbsent(canonical, k -> new WorldHandle(this, nextWorldId.getAndIncrement(), k));
+        aliases.putIfAbsent(world, handle);
+        return handle;
+    }
+
+    /**
+     * Procura o handle de um mundo sem criá-lo.
+     *
+     * @return handle ou null se o mundo nunca foi indexado
+     */
+    @Nullable
+    public WorldHandle findWorld(@NotNull String world) {
+        WorldHandle handle = aliases.get(world);
+        if (handle != null)
+            return handle;
+
+        handle = worlds.get(world.toLowerCase(Locale.ROOT));
+        if (handle != null) {
+            aliases.putIfAbsent(world, handle);
+        }
+        return handle;
+    }
+
+    // --- Escrita ---
+
+    /**
+     * Executa várias escritas como uma única publicação atômica.
+     *
+     * <p>
+     * Leitores (inclusive de outras threads) continuam vendo o snapshot anterior
+     * até o fim do batch; o novo snapshot é publicado imediatamente ao final.
+     * Outras threads escritoras aguardam o batch terminar. Batches podem ser
+     * aninhados (publica ao sair do mais externo).
+     * </p>
+     *
+     * <pre>{@code
+     * index.batch(idx -> {
+     *     idx.unregister(v -> v.owner().equals(id));
+     *     idx.register("world", 0, 10, 0, 10, region);
+     * });
+     * }</pre>
+     */
+    public void batch(@NotNull Consumer<ChunkSpatialIndex<T>> writes) {
+        writeLock.lock();
+        try {
+            batchDepth++;
+            try {
+                writes.accept(this);
+            } finally {
+                batchDepth--;
+            }
+            if (batchDepth == 0 && dirty) {
+                publish();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
     /**
      * Registra um valor em um range de chunks (inclusive).
      */
     public void register(@NotNull String world, int minChunkX, int maxChunkX, int minChunkZ, int maxChunkZ,
             @NotNull T value) {
-        String w = world.toLowerCase(Locale.ROOT);
-        Map<Long, List<T>> chunkIndex = worldIndex.computeIfAbsent(w, k -> new ConcurrentHashMap<>());
-        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
-            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
-                long key = ChunkKey.pack(cx, cz);
-                chunkIndex.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>()))
-                        .add(value);
-            }
+        register(world(world), minChunkX, maxChunkX, minChunkZ, maxChunkZ, value);
+    }
+
+    /**
+     * Registra um valor em um range de chunks (inclusive).
+     *
+     * <p>
+     * No modo span, ranges com área &gt;= threshold custam O(regiões cobertas) em
+     * vez de O(chunks cobertos).
+     * </p>
+     */
+    public void register(@NotNull WorldHandle world, int minChunkX, int maxChunkX, int minChunkZ, int maxChunkZ,
+            @NotNull T value) {
+        if (minChunkX > maxChunkX || minChunkZ > maxChunkZ)
+            return;
+
+        WorldHandle handle = owned(world);
+        long area = ((long) maxChunkX - minChunkX + 1) * ((long) maxChunkZ - minChunkZ + 1);
+        Registration registration = new Registration(value, minChunkX, maxChunkX, minChunkZ, maxChunkZ,
+                area >= spanThreshold);
+        writeLock.lock();
+        try {
+            handle.addRegistration(registration);
+            markDirty(handle);
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -45,33 +236,52 @@ public final class ChunkSpatialIndex<T> {
     /**
      * Remove todos os valores que satisfazem o predicado em todos os mundos e
      * chunks.
-     * 
+     *
+     * <p>
+     * O predicado é avaliado uma vez por valor distinto (via índice reverso) e a
+     * remoção custa O(chunks cobertos pelos valores removidos).
+     * </p>
+     *
      * @param predicate Predicado para identificar valores a remover
-     * @return Número de valores removidos
+     * @return Número de associações (valor-chunk) removidas
      */
+    @SuppressWarnings("unchecked")
     public int unregister(@NotNull Predicate<T> predicate) {
-        int removed = 0;
-        for (Map<Long, List<T>> chunkIndex : worldIndex.values()) {
-            Iterator<Map.Entry<Long, List<T>>> it = chunkIndex.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<Long, List<T>> entry = it.next();
-                List<T> list = entry.getValue();
-                synchronized (list) {
-                    int before = list.size();
-                    list.removeIf(predicate);
-                    removed += before - list.size();
-                    if (list.isEmpty()) {
-                        it.remove();
+        long removed = 0;
+        writeLock.lock();
+        try {
+            for (WorldHandle handle : worlds.values()) {
+                long before = removed;
+                ObjectIterator<Map.Entry<Object, List<Registration>>> it = handle.reverse.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<Object, List<Registration>> entry = it.next();
+                    if (!predicate.test((T) entry.getKey()))
+                        continue;
+
+                    for (Registration registration : entry.getValue()) {
+                        handle.removeStorage(registration);
+                        removed += registration.area();
                     }
+                    it.remove();
+                }
+                if (removed != before) {
+                    markDirty(handle);
                 }
             }
+        } finally {
+            writeLock.unlock();
         }
-        return removed;
+        return (int) Math.min(Integer.MAX_VALUE, removed);
     }
 
     /**
      * Remove um valor específico de um range de chunks.
-     * 
+     *
+     * <p>
+     * Remove uma ocorrência por chunk (registros sobrepostos do mesmo valor
+     * perdem uma camada). Registros parcialmente cobertos são recortados.
+     * </p>
+     *
      * @param world     Mundo
      * @param minChunkX Mínimo X do chunk (inclusive)
      * @param maxChunkX Máximo X do chunk (inclusive)
@@ -82,29 +292,20 @@ public final class ChunkSpatialIndex<T> {
      */
     public boolean unregister(@NotNull String world, int minChunkX, int maxChunkX, int minChunkZ, int maxChunkZ,
             @NotNull T value) {
-        String w = world.toLowerCase(Locale.ROOT);
-        Map<Long, List<T>> chunkIndex = worldIndex.get(w);
-        if (chunkIndex == null)
+        WorldHandle handle = findWorld(world);
+        if (handle == null || minChunkX > maxChunkX || minChunkZ > maxChunkZ)
             return false;
 
-        boolean removed = false;
-        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
-            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
-                long key = ChunkKey.pack(cx, cz);
-                List<T> list = chunkIndex.get(key);
-                if (list != null) {
-                    synchronized (list) {
-                        if (list.remove(value)) {
-                            removed = true;
-                        }
-                        if (list.isEmpty()) {
-                            chunkIndex.remove(key);
-                        }
-                    }
-                }
+        writeLock.lock();
+        try {
+            boolean removed = handle.removeRange(value, minChunkX, maxChunkX, minChunkZ, maxChunkZ);
+            if (removed) {
+                markDirty(handle);
             }
+            return removed;
+        } finally {
+            writeLock.unlock();
         }
-        return removed;
     }
 
     /**
@@ -116,48 +317,154 @@ public final class ChunkSpatialIndex<T> {
 
     /**
      * Limpa tudo.
+     *
+     * <p>
+     * Os handles continuam válidos (apenas esvaziados).
+     * </p>
      */
     public void clear() {
-        worldIndex.clear();
+        writeLock.lock();
+        try {
+            for (WorldHandle handle : worlds.values()) {
+                handle.chunks.clear();
+                handle.spans.clear();
+                handle.regions.clear();
+                handle.resetPublished = true;
+                handle.regionCounts.clear();
+                handle.reverse.clear();
+                handle.spanAssociations = 0;
+                handle.spanCount = 0;
+                markDirty(handle);
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
+    // --- Leitura ---
+
+    /**
+     * Retorna o snapshot imutável mais recente.
+     *
+     * <p>
+     * Todas as leituras feitas no snapshot retornado enxergam exatamente a mesma
+     * versão do índice, mesmo que escritores publiquem novas versões em
+     * paralelo. Nunca bloqueia: se há uma escrita/batch em andamento em outra
+     * thread, retorna a última versão publicada.
+     * </p>
+     */
     @NotNull
-    public List<T> getInChunk(@NotNull String world, int chunkX, int chunkZ) {
-        Map<Long, List<T>> chunkIndex = worldIndex.get(world.toLowerCase(Locale.ROOT));
-        if (chunkIndex == null)
-            return Collections.emptyList();
+    public Snapshot<T> snapshot() {
+        Snapshot<T> current = published;
+        if (!dirty)
+            return current;
 
-        List<T> list = chunkIndex.get(ChunkKey.pack(chunkX, chunkZ));
-        if (list == null)
-            return Collections.emptyList();
-        synchronized (list) {
-            return new ArrayList<>(list);
+        // Escritas avulsas pendentes: publica se ninguém está escrevendo agora
+        if (writeLock.tryLock()) {
+            try {
+                if (dirty && batchDepth == 0) {
+                    publish();
+                }
+                return published;
+            } finally {
+                writeLock.unlock();
+            }
         }
+        return current;
+    }
+
+    /**
+     * Retorna os valores de um chunk.
+     *
+     * @see Snapshot#getInChunk(String, int, int)
+     */
+    @NotNull
+    public List<T> getInChunk(@NotNull String world, int chunkX, int chunkZ) {
+        return snapshot().getInChunk(world, chunkX, chunkZ);
+    }
+
+    /**
+     * Visita os valores de um chunk sem alocar e sem lock.
+     *
+     * @param world  Nome do mundo
+     * @param chunkX Coordenada X do chunk
+     * @param chunkZ Coordenada Z do chunk
+     * @param action Visitor chamado uma vez por associação (valores expandidos
+     *               primeiro, depois spans)
+     */
+    public void forEachInChunk(@NotNull String world, int chunkX, int chunkZ, @NotNull Consumer<? super T> action) {
+        snapshot().forEachInChunk(world, chunkX, chunkZ, action);
+    }
+
+    /**
+     * Visita os valores de um chunk sem alocar e sem lock.
+     *
+     * @see #forEachInChunk(String, int, int, Consumer)
+     */
+    public void forEachInChunk(@NotNull WorldHandle world, int chunkX, int chunkZ,
+            @NotNull Consumer<? super T> action) {
+        snapshot().forEachInChunk(world, chunkX, chunkZ, action);
+    }
+
+    /**
+     * Visita cada valor que intersecta um retângulo de blocos (inclusive), uma
+     * única vez por valor.
+     *
+     * @see Snapshot#queryBox(String, int, int, int, int, Consumer)
+     */
+    public void queryBox(@NotNull String world, int minX, int minZ, int maxX, int maxZ,
+            @NotNull Consumer<? super T> action) {
+        snapshot().queryBox(world, minX, minZ, maxX, maxZ, action);
+    }
+
+    /**
+     * @see Snapshot#queryBox(String, int, int, int, int, Consumer)
+     */
+    public void queryBox(@NotNull WorldHandle world, int minX, int minZ, int maxX, int maxZ,
+            @NotNull Consumer<? super T> action) {
+        snapshot().queryBox(world, minX, minZ, maxX, maxZ, action);
+    }
+
+    /**
+     * Visita cada valor a até {@code radius} blocos de (x, z), uma única vez por
+     * valor.
+     *
+     * @see Snapshot#queryRadius(String, int, int, int, Consumer)
+     */
+    public void queryRadius(@NotNull String world, int x, int z, int radius, @NotNull Consumer<? super T> action) {
+        snapshot().queryRadius(world, x, z, radius, action);
+    }
+
+    /**
+     * @see Snapshot#queryRadius(String, int, int, int, Consumer)
+     */
+    public void queryRadius(@NotNull WorldHandle world, int x, int z, int radius,
+            @NotNull Consumer<? super T> action) {
+        snapshot().queryRadius(world, x, z, radius, action);
     }
 
     /**
      * Verifica se um chunk contém valores.
-     * 
+     *
      * @param world  Nome do mundo
      * @param chunkX Coordenada X do chunk
      * @param chunkZ Coordenada Z do chunk
      * @return true se o chunk contém pelo menos um valor
      */
     public boolean hasInChunk(@NotNull String world, int chunkX, int chunkZ) {
-        Map<Long, List<T>> chunkIndex = worldIndex.get(world.toLowerCase(Locale.ROOT));
-        if (chunkIndex == null)
-            return false;
-
-        List<T> list = chunkIndex.get(ChunkKey.pack(chunkX, chunkZ));
-        return list != null && !list.isEmpty();
+        return snapshot().hasInChunk(world, chunkX, chunkZ);
     }
 
+    /**
+     * Retorna os chunks indexados de um mundo (spans são expandidos; uso de
+     * diagnóstico).
+     */
     @NotNull
     public Set<Long> getIndexedChunks(@NotNull String world) {
-        Map<Long, List<T>> chunkIndex = worldIndex.get(world.toLowerCase(Locale.ROOT));
-        if (chunkIndex == null)
+        WorldHandle handle = findWorld(world);
+        if (handle == null)
             return Collections.emptySet();
-        return new HashSet<>(chunkIndex.keySet());
+        return snapshot().view(handle).indexedChunks();
     }
 
     /**
@@ -165,16 +472,27 @@ public final class ChunkSpatialIndex<T> {
      */
     @NotNull
     public Set<String> getIndexedWorlds() {
-        return new HashSet<>(worldIndex.keySet());
+        Snapshot<T> snapshot = snapshot();
+        Set<String> result = new HashSet<>();
+        for (WorldHandle handle : worlds.values()) {
+            if (!snapshot.view(handle).regions.isEmpty()) {
+                result.add(handle.name);
+            }
+        }
+        return result;
     }
 
     /**
      * Retorna o número total de chunks indexados (soma de todos os mundos).
      */
     public int getTotalIndexedChunks() {
-        return worldIndex.values().stream()
-                .mapToInt(Map::size)
-                .sum();
+        Snapshot<T> snapshot = snapshot();
+        int total = 0;
+        for (WorldHandle handle : worlds.values()) {
+            WorldView view = snapshot.view(handle);
+            total += view.spans.isEmpty() ? view.chunks.size() : view.indexedChunks().size();
+        }
+        return total;
     }
 
     /**
@@ -182,10 +500,28 @@ public final class ChunkSpatialIndex<T> {
      * Um valor registrado em N chunks conta N vezes.
      */
     public int getTotalAssociations() {
-        return worldIndex.values().stream()
-                .flatMap(m -> m.values().stream())
-                .mapToInt(List::size)
-                .sum();
+        Snapshot<T> snapshot = snapshot();
+        long total = 0;
+        for (WorldHandle handle : worlds.values()) {
+            WorldView view = snapshot.view(handle);
+            for (Object[] bucket : view.chunks.values()) {
+                total += bucket.length;
+            }
+            total += view.spanAssociations;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    /**
+     * Retorna o número de registros guardados como span.
+     */
+    public int getTotalSpans() {
+        Snapshot<T> snapshot = snapshot();
+        int total = 0;
+        for (WorldHandle handle : worlds.values()) {
+            total += snapshot.view(handle).spanCount;
+        }
+        return total;
     }
 
     /**
@@ -196,12 +532,756 @@ public final class ChunkSpatialIndex<T> {
         return new IndexStats(
                 getIndexedWorlds().size(),
                 getTotalIndexedChunks(),
-                getTotalAssociations());
+                getTotalAssociations(),
+                getTotalSpans(),
+                snapshot().version(),
+                lastPublishNanos / 1000L);
+    }
+
+    // --- Internals ---
+
+    // Para ChunkSpatialIndexStore
+    Collection<WorldHandle> worldHandles() {
+        return worlds.values();
+    }
+
+    private WorldHandle owned(WorldHandle handle) {
+        if (handle.owner != this) {
+            throw new IllegalArgumentException("WorldHandle pertence a outro índice: " + handle.name);
+        }
+        return handle;
+    }
+
+    // Chamado com writeLock
+    private void markDirty(WorldHandle handle) {
+        handle.dirty = true;
+        dirty = true;
+    }
+
+    /**
+     * Copia os mundos alterados para novas views e publica um novo snapshot.
+     * Chamado com writeLock.
+     */
+    private void publish() {
+        long start = System.nanoTime();
+        Snapshot<T> previous = published;
+        WorldView[] views = Arrays.copyOf(previous.views, nextWorldId.get());
+        for (WorldHandle handle : worlds.values()) {
+            if (views[handle.id] == null) {
+                views[handle.id] = WorldView.EMPTY;
+            }
+            if (handle.dirty) {
+                views[handle.id] = handle.freeze(views[handle.id]);
+                handle.dirty = false;
+            }
+        }
+        dirty = false;
+        published = new Snapshot<>(this, previous.version + 1, views);
+        lastPublishNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Varre as regiões que cobrem o range de chunks: regiões inteiramente dentro
+     * (e do círculo, se houver) usam o bucket da região; bordas descem a chunk
+     * e testam os spans da região.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void query(WorldView view, int minCx, int maxCx, int minCz, int maxCz,
+            @Nullable RadiusFilter circle, Consumer<? super T> action) {
+        if (view.regions.isEmpty())
+            return;
+
+        Set<Object> seen = new ObjectOpenHashSet<>();
+        int minRx = minCx >> REGION_SHIFT;
+        int maxRx = maxCx >> REGION_SHIFT;
+        int minRz = minCz >> REGION_SHIFT;
+        int maxRz = maxCz >> REGION_SHIFT;
+
+        for (int rx = minRx; rx <= maxRx; rx++) {
+            for (int rz = minRz; rz <= maxRz; rz++) {
+                long regionKey = ChunkKey.pack(rx, rz);
+                Object[] regionValues = view.regions.get(regionKey);
+                if (regionValues == null)
+                    continue;
+
+                int rMinCx = rx << REGION_SHIFT;
+                int rMaxCx = rMinCx + REGION_SIZE - 1;
+                int rMinCz = rz << REGION_SHIFT;
+                int rMaxCz = rMinCz + REGION_SIZE - 1;
+
+                boolean inside = rMinCx >= minCx && rMaxCx <= maxCx && rMinCz >= minCz && rMaxCz <= maxCz
+                        && (circle == null || circle.containsChunks(rMinCx, rMaxCx, rMinCz, rMaxCz));
+                if (inside) {
+                    for (Object value : regionValues) {
+                        if (seen.add(value))
+                            action.accept((T) value);
+                    }
+                    continue;
+                }
+
+                int fromCx = Math.max(minCx, rMinCx);
+                int toCx = Math.min(maxCx, rMaxCx);
+                int fromCz = Math.max(minCz, rMinCz);
+                int toCz = Math.min(maxCz, rMaxCz);
+                for (int cx = fromCx; cx <= toCx; cx++) {
+                    for (int cz = fromCz; cz <= toCz; cz++) {
+                        if (circle != null && !circle.touchesChunks(cx, cx, cz, cz))
+                            continue;
+                        Object[] bucket = view.chunks.get(ChunkKey.pack(cx, cz));
+                        if (bucket == null)
+                            continue;
+                        for (Object value : bucket) {
+                            if (seen.add(value))
+                                action.accept((T) value);
+                        }
+                    }
+                }
+
+                Object[] spans = view.spans.get(regionKey);
+                if (spans == null)
+                    continue;
+                for (Object o : spans) {
+                    Registration span = (Registration) o;
+                    if (!span.intersects(fromCx, toCx, fromCz, toCz))
+                        continue;
+                    if (circle != null && !circle.touchesChunks(Math.max(span.minCx, fromCx),
+                            Math.min(span.maxCx, toCx), Math.max(span.minCz, fromCz), Math.min(span.maxCz, toCz)))
+                        continue;
+                    if (seen.add(span.value))
+                        action.accept((T) span.value);
+                }
+            }
+        }
+    }
+
+    private static long regionKeyOfChunk(int chunkX, int chunkZ) {
+        return ChunkKey.pack(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT);
+    }
+
+    private static Object[] append(Object[] bucket, Object value) {
+        Object[] grown = Arrays.copyOf(bucket, bucket.length + 1);
+        grown[bucket.length] = value;
+        return grown;
+    }
+
+    private static Object[] removeAt(Object[] bucket, int index) {
+        if (bucket.length == 1)
+            return EMPTY_BUCKET;
+        Object[] shrunk = new Object[bucket.length - 1];
+        System.arraycopy(bucket, 0, shrunk, 0, index);
+        System.arraycopy(bucket, index + 1, shrunk, index, bucket.length - index - 1);
+        return shrunk;
+    }
+
+    private static int indexOf(Object[] bucket, Object value) {
+        for (int i = 0; i < bucket.length; i++) {
+            if (bucket[i].equals(value))
+                return i;
+        }
+        return -1;
+    }
+
+    private static int indexOfIdentity(Object[] bucket, Object value) {
+        for (int i = 0; i < bucket.length; i++) {
+            if (bucket[i] == value)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Círculo em coordenadas de bloco testado contra retângulos de chunks.
+     */
+    private record RadiusFilter(int x, int z, long radiusSq) {
+
+        boolean touchesChunks(int minCx, int maxCx, int minCz, int maxCz) {
+            return distanceSq(minCx << 4, (maxCx << 4) + 15, minCz << 4, (maxCz << 4) + 15, false) <= radiusSq;
+        }
+
+        boolean containsChunks(int minCx, int maxCx, int minCz, int maxCz) {
+            return distanceSq(minCx << 4, (maxCx << 4) + 15, minCz << 4, (maxCz << 4) + 15, true) <= radiusSq;
+        }
+
+        /**
+         * Distância ao quadrado até o ponto mais próximo (ou mais distante) do
+         * retângulo de blocos.
+         */
+        private long distanceSq(int minX, int maxX, int minZ, int maxZ, boolean farthest) {
+            long dx;
+            long dz;
+            if (farthest) {
+                dx = Math.max(Math.abs((long) x - minX), Math.abs((long) maxX - x));
+                dz = Math.max(Math.abs((long) z - minZ), Math.abs((long) maxZ - z));
+            } else {
+                dx = x < minX ? (long) minX - x : (x > maxX ? (long) x - maxX : 0);
+                dz = z < minZ ? (long) minZ - z : (z > maxZ ? (long) z - maxZ : 0);
+            }
+            return dx * dx + dz * dz;
+        }
+    }
+
+    /**
+     * Um registro (valor + retângulo de chunks inclusive).
+     *
+     * <p>
+     * {@code span = true}: guardado uma vez por região; caso contrário expandido
+     * em cada chunk coberto.
+     * </p>
+     */
+    record Registration(Object value, int minCx, int maxCx, int minCz, int maxCz, boolean span) {
+
+        long area() {
+            return ((long) maxCx - minCx + 1) * ((long) maxCz - minCz + 1);
+        }
+
+        boolean contains(int cx, int cz) {
+            return cx >= minCx && cx <= maxCx && cz >= minCz && cz <= maxCz;
+        }
+
+        boolean intersects(int otherMinCx, int otherMaxCx, int otherMinCz, int otherMaxCz) {
+            return minCx <= otherMaxCx && maxCx >= otherMinCx && minCz <= otherMaxCz && maxCz >= otherMinCz;
+        }
+
+        Registration withBounds(int newMinCx, int newMaxCx, int newMinCz, int newMaxCz) {
+            return new Registration(value, newMinCx, newMaxCx, newMinCz, newMaxCz, span);
+        }
+
+        /**
+         * Adiciona em {@code out} as partes deste retângulo fora de {@code cut}
+         * (até 4 peças). {@code cut} deve estar contido neste retângulo.
+         */
+        void subtract(Registration cut, List<Registration> out) {
+            if (cut.minCx > minCx)
+                out.add(withBounds(minCx, cut.minCx - 1, minCz, maxCz));
+            if (cut.maxCx < maxCx)
+                out.add(withBounds(cut.maxCx + 1, maxCx, minCz, maxCz));
+
+            int innerMinCx = Math.max(minCx, cut.minCx);
+            int innerMaxCx = Math.min(maxCx, cut.maxCx);
+            if (cut.minCz > minCz)
+                out.add(withBounds(innerMinCx, innerMaxCx, minCz, cut.minCz - 1));
+            if (cut.maxCz < maxCz)
+                out.add(withBounds(innerMinCx, innerMaxCx, cut.maxCz + 1, maxCz));
+        }
+    }
+
+    /**
+     * Handle internado de um mundo dentro de um índice.
+     *
+     * <p>
+     * Estado mestre mutável; só é acessado com o lock de escrita do índice.
+     * </p>
+     */
+    public static final class WorldHandle {
+        private final ChunkSpatialIndex<?> owner;
+        private final int id;
+        private final String name;
+
+        // mapas mestres (guarded by this); buckets nunca são mutados in-place
+        private final Long2ObjectOpenHashMap<Object[]> chunks = new Long2ObjectOpenHashMap<>();
+        private final Long2ObjectOpenHashMap<Object[]> spans = new Long2ObjectOpenHashMap<>();
+        private final Long2ObjectOpenHashMap<Object[]> regions = new Long2ObjectOpenHashMap<>();
+        private final Long2ObjectOpenHashMap<Object2IntOpenHashMap<Object>> regionCounts = new Long2ObjectOpenHashMap<>();
+
+        // valor -> registros (apenas escritores)
+        private final Object2ObjectOpenHashMap<Object, List<Registration>> reverse = new Object2ObjectOpenHashMap<>();
+        private long spanAssociations;
+        private int spanCount;
+
+        // alterado desde a última publicação (guarded by writeLock)
+        private boolean dirty;
+
+        // chaves alteradas desde a última publicação (publicação incremental)
+        private final LongOpenHashSet dirtyChunks = new LongOpenHashSet();
+        private final LongOpenHashSet dirtySpans = new LongOpenHashSet();
+        private final LongOpenHashSet dirtyRegions = new LongOpenHashSet();
+        // clear(): a próxima publicação não reaproveita a anterior
+        private boolean resetPublished;
+
+        private WorldHandle(ChunkSpatialIndex<?> owner, int id, String name) {
+            this.owner = owner;
+            this.id = id;
+            this.name = name;
+        }
+
+        /**
+         * Nome canônico (lower-case) do mundo.
+         */
+        @NotNull
+        public String name() {
+            return name;
+        }
+
+        // Chamados com writeLock
+
+        /**
+         * View publicável: reaproveita a base de {@code previous} e copia só as
+         * chaves alteradas.
+         */
+        WorldView freeze(@Nullable WorldView previous) {
+            boolean reuse = previous != null && !resetPublished;
+            WorldView view = new WorldView(
+                    LayeredLongMap.publish(reuse ? previous.chunks() : null, chunks, dirtyChunks),
+                    LayeredLongMap.publish(reuse ? previous.spans() : null, spans, dirtySpans),
+                    LayeredLongMap.publish(reuse ? previous.regions() : null, regions, dirtyRegions),
+                    spanAssociations, spanCount);
+            dirtyChunks.clear();
+            dirtySpans.clear();
+            dirtyRegions.clear();
+            resetPublished = false;
+            return view;
+        }
+
+        void addRegistration(Registration registration) {
+            addStorage(registration);
+            reverse.computeIfAbsent(registration.value, k -> new ArrayList<>(1)).add(registration);
+        }
+
+        /**
+         * Remove uma ocorrência por chunk do range, consumindo os registros do
+         * valor em ordem de registro.
+         */
+        boolean removeRange(Object value, int minCx, int maxCx, int minCz, int maxCz) {
+            List<Registration> registrations = reverse.get(value);
+            if (registrations == null)
+                return false;
+
+            List<Registration> pending = new ArrayList<>();
+            pending.add(new Registration(value, minCx, maxCx, minCz, maxCz, false));
+            List<Registration> result = new ArrayList<>(registrations.size());
+            boolean removed = false;
+
+            for (Registration registration : registrations) {
+                if (pending.isEmpty() || !intersectsAny(registration, pending)) {
+                    result.add(registration);
+                    continue;
+                }
+
+                // registro perde a área pendente; área pendente perde o registro
+                List<Registration> pieces = List.of(registration);
+                for (Registration cut : pending) {
+                    if (!registration.span && registration.intersects(cut.minCx, cut.maxCx, cut.minCz, cut.maxCz)) {
+                        // expandido: basta tirar uma ocorrência dos chunks da interseção
+                        removeStorage(clip(registration, cut));
+                    }
+                    pieces = subtract(pieces, cut);
+                }
+                pending = subtract(pending, registration);
+                removed = true;
+
+                if (registration.span) {
+                    removeStorage(registration);
+                    for (Registration piece : pieces) {
+                        addStorage(piece);
+                    }
+                }
+                result.addAll(pieces);
+            }
+
+            if (!removed)
+                return false;
+            if (result.isEmpty()) {
+                reverse.remove(value);
+            } else {
+                reverse.put(value, result);
+            }
+            return true;
+        }
+
+        private static boolean intersectsAny(Registration registration, List<Registration> others) {
+            for (Registration other : others) {
+                if (registration.intersects(other.minCx, other.maxCx, other.minCz, other.maxCz))
+                    return true;
+            }
+            return false;
+        }
+
+        private static List<Registration> subtract(List<Registration> rects, Registration cut) {
+            List<Registration> out = new ArrayList<>(rects.size() + 3);
+            for (Registration rect : rects) {
+                if (!rect.intersects(cut.minCx, cut.maxCx, cut.minCz, cut.maxCz)) {
+                    out.add(rect);
+                    continue;
+                }
+                rect.subtract(clip(rect, cut), out);
+            }
+            return out;
+        }
+
+        private static Registration clip(Registration rect, Registration cut) {
+            return rect.withBounds(
+                    Math.max(rect.minCx, cut.minCx), Math.min(rect.maxCx, cut.maxCx),
+                    Math.max(rect.minCz, cut.minCz), Math.min(rect.maxCz, cut.maxCz));
+        }
+
+        private void addStorage(Registration registration) {
+            if (registration.span) {
+                forEachRegion(registration, regionKey -> {
+                    Object[] bucket = spans.get(regionKey);
+                    spans.put(regionKey, bucket == null ? new Object[] { registration } : append(bucket, registration));
+                    dirtySpans.add(regionKey);
+                    trackRegion(regionKey, registration.value);
+                });
+                spanAssociations += registration.area();
+                spanCount++;
+                return;
+            }
+
+            for (int cx = registration.minCx; cx <= registration.maxCx; cx++) {
+                for (int cz = registration.minCz; cz <= registration.maxCz; cz++) {
+                    long key = ChunkKey.pack(cx, cz);
+                    Object[] bucket = chunks.get(key);
+                    chunks.put(key, bucket == null ? new Object[] { registration.value }
+                            : append(bucket, registration.value));
+                    dirtyChunks.add(key);
+                    trackRegion(regionKeyOfChunk(cx, cz), registration.value);
+                }
+            }
+        }
+
+        void removeStorage(Registration registration) {
+            if (registration.span) {
+                forEachRegion(registration, regionKey -> {
+                    Object[] bucket = spans.get(regionKey);
+                    int index = bucket == null ? -1 : indexOfIdentity(bucket, registration);
+                    if (index < 0)
+                        return;
+                    if (bucket.length == 1) {
+                        spans.remove(regionKey);
+                    } else {
+                        spans.put(regionKey, removeAt(bucket, index));
+                    }
+                    dirtySpans.add(regionKey);
+                    untrackRegion(regionKey, registration.value);
+                });
+                spanAssociations -= registration.area();
+                spanCount--;
+                return;
+            }
+
+            for (int cx = registration.minCx; cx <= registration.maxCx; cx++) {
+                for (int cz = registration.minCz; cz <= registration.maxCz; cz++) {
+                    long key = ChunkKey.pack(cx, cz);
+                    Object[] bucket = chunks.get(key);
+                    int index = bucket == null ? -1 : indexOf(bucket, registration.value);
+                    if (index < 0)
+                        continue;
+                    if (bucket.length == 1) {
+                        chunks.remove(key);
+                    } else {
+                        chunks.put(key, removeAt(bucket, index));
+                    }
+                    dirtyChunks.add(key);
+                    untrackRegion(regionKeyOfChunk(cx, cz), registration.value);
+                }
+            }
+        }
+
+        private static void forEachRegion(Registration registration, LongConsumer action) {
+            for (int rx = registration.minCx >> REGION_SHIFT; rx <= registration.maxCx >> REGION_SHIFT; rx++) {
+                for (int rz = registration.minCz >> REGION_SHIFT; rz <= registration.maxCz >> REGION_SHIFT; rz++) {
+                    action.accept(ChunkKey.pack(rx, rz));
+                }
+            }
+        }
+
+        private void trackRegion(long regionKey, Object value) {
+            Object2IntOpenHashMap<Object> counts = regionCounts.get(regionKey);
+            if (counts == null) {
+                counts = new Object2IntOpenHashMap<>();
+                regionCounts.put(regionKey, counts);
+            }
+            if (counts.addTo(value, 1) == 0) {
+                Object[] values = regions.get(regionKey);
+                regions.put(regionKey, values == null ? new Object[] { value } : append(values, value));
+                dirtyRegions.add(regionKey);
+            }
+        }
+
+        private void untrackRegion(long regionKey, Object value) {
+            Object2IntOpenHashMap<Object> counts = regionCounts.get(regionKey);
+            if (counts == null || counts.addTo(value, -1) != 1)
+                return;
+
+            counts.removeInt(value);
+            Object[] values = regions.get(regionKey);
+            if (counts.isEmpty()) {
+                regionCounts.remove(regionKey);
+                regions.remove(regionKey);
+                dirtyRegions.add(regionKey);
+            } else if (values != null) {
+                int index = indexOf(values, value);
+                if (index >= 0) {
+                    regions.put(regionKey, removeAt(values, index));
+                    dirtyRegions.add(regionKey);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "WorldHandle[" + name + "]";
+        }
+    }
+
+    /**
+     * View imutável e versionada do índice inteiro.
+     *
+     * <p>
+     * Seguro para uso em qualquer thread; leituras não alocam (exceto
+     * {@link #getInChunk} com spans e o set de deduplicação das consultas por
+     * área) e não tomam lock. Guardar um snapshot durante uma operação longa
+     * (ex: um MAP_CHUNK inteiro) garante uma visão consistente.
+     * </p>
+     */
+    public static final class Snapshot<T> {
+        private final ChunkSpatialIndex<T> index;
+        private final long version;
+        private final WorldView[] views;
+
+        private Snapshot(ChunkSpatialIndex<T> index, long version, WorldView[] views) {
+            this.index = index;
+            this.version = version;
+            this.views = views;
+        }
+
+        /**
+         * Versão (época) do snapshot; cresce a cada publicação.
+         */
+        public long version() {
+            return version;
+        }
+
+        /**
+         * Retorna os valores de um chunk.
+         *
+         * <p>
+         * Sem spans cobrindo o chunk, a lista retornada é uma view imutável sobre o
+         * bucket (sem cópia). Para o hot path prefira
+         * {@link #forEachInChunk(WorldHandle, int, int, Consumer)}.
+         * </p>
+         */
+        @NotNull
+        @SuppressWarnings("unchecked")
+        public List<T> getInChunk(@NotNull String world, int chunkX, int chunkZ) {
+            WorldHandle handle = index.findWorld(world);
+            if (handle == null)
+                return Collections.emptyList();
+
+            WorldView view = view(handle);
+            Object[] bucket = view.chunks.get(ChunkKey.pack(chunkX, chunkZ));
+            Object[] spans = view.spansAt(chunkX, chunkZ);
+            if (spans == null) {
+                if (bucket == null)
+                    return Collections.emptyList();
+                return (List<T>) Collections.unmodifiableList(Arrays.asList(bucket));
+            }
+
+            List<T> result = new ArrayList<>();
+            if (bucket != null) {
+                for (Object value : bucket) {
+                    result.add((T) value);
+                }
+            }
+            for (Object o : spans) {
+                Registration span = (Registration) o;
+                if (span.contains(chunkX, chunkZ)) {
+                    result.add((T) span.value);
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        /**
+         * Visita os valores de um chunk (valores expandidos primeiro, depois
+         * spans).
+         */
+        public void forEachInChunk(@NotNull String world, int chunkX, int chunkZ,
+                @NotNull Consumer<? super T> action) {
+            WorldHandle handle = index.findWorld(world);
+            if (handle != null) {
+                forEachInChunk(handle, chunkX, chunkZ, action);
+            }
+        }
+
+        /**
+         * @see #forEachInChunk(String, int, int, Consumer)
+         */
+        @SuppressWarnings("unchecked")
+        public void forEachInChunk(@NotNull WorldHandle world, int chunkX, int chunkZ,
+                @NotNull Consumer<? super T> action) {
+            WorldView view = view(index.owned(world));
+            Object[] bucket = view.chunks.get(ChunkKey.pack(chunkX, chunkZ));
+            if (bucket != null) {
+                for (Object value : bucket) {
+                    action.accept((T) value);
+                }
+            }
+
+            Object[] spans = view.spansAt(chunkX, chunkZ);
+            if (spans != null) {
+                for (Object o : spans) {
+                    Registration span = (Registration) o;
+                    if (span.contains(chunkX, chunkZ)) {
+                        action.accept((T) span.value);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Verifica se um chunk contém valores.
+         */
+        public boolean hasInChunk(@NotNull String world, int chunkX, int chunkZ) {
+            WorldHandle handle = index.findWorld(world);
+            if (handle == null)
+                return false;
+
+            WorldView view = view(handle);
+            if (view.chunks.containsKey(ChunkKey.pack(chunkX, chunkZ)))
+                return true;
+
+            Object[] spans = view.spansAt(chunkX, chunkZ);
+            if (spans != null) {
+                for (Object o : spans) {
+                    if (((Registration) o).contains(chunkX, chunkZ))
+                        return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Visita cada valor que intersecta um retângulo de blocos (inclusive), uma
+         * única vez por valor.
+         *
+         * <p>
+         * Granularidade de chunk: um valor é retornado se algum chunk onde está
+         * registrado intersecta o retângulo.
+         * </p>
+         *
+         * @param world  Nome do mundo
+         * @param minX   Mínimo X em coordenadas de bloco
+         * @param minZ   Mínimo Z em coordenadas de bloco
+         * @param maxX   Máximo X em coordenadas de bloco
+         * @param maxZ   Máximo Z em coordenadas de bloco
+         * @param action Visitor chamado uma vez por valor distinto
+         */
+        public void queryBox(@NotNull String world, int minX, int minZ, int maxX, int maxZ,
+                @NotNull Consumer<? super T> action) {
+            WorldHandle handle = index.findWorld(world);
+            if (handle != null) {
+                queryBox(handle, minX, minZ, maxX, maxZ, action);
+            }
+        }
+
+        /**
+         * @see #queryBox(String, int, int, int, int, Consumer)
+         */
+        public void queryBox(@NotNull WorldHandle world, int minX, int minZ, int maxX, int maxZ,
+                @NotNull Consumer<? super T> action) {
+            int minCx = Math.min(minX, maxX) >> 4;
+            int maxCx = Math.max(minX, maxX) >> 4;
+            int minCz = Math.min(minZ, maxZ) >> 4;
+            int maxCz = Math.max(minZ, maxZ) >> 4;
+            query(view(index.owned(world)), minCx, maxCx, minCz, maxCz, null, action);
+        }
+
+        /**
+         * Visita cada valor a até {@code radius} blocos de (x, z), uma única vez
+         * por valor.
+         *
+         * <p>
+         * Distância medida do ponto até o retângulo de blocos do chunk (um chunk
+         * conta se qualquer bloco dele está dentro do raio).
+         * </p>
+         *
+         * @param world  Nome do mundo
+         * @param x      Centro X em coordenadas de bloco
+         * @param z      Centro Z em coordenadas de bloco
+         * @param radius Raio em blocos (>= 0)
+         * @param action Visitor chamado uma vez por valor distinto
+         */
+        public void queryRadius(@NotNull String world, int x, int z, int radius,
+                @NotNull Consumer<? super T> action) {
+            WorldHandle handle = index.findWorld(world);
+            if (handle != null) {
+                queryRadius(handle, x, z, radius, action);
+            }
+        }
+
+        /**
+         * @see #queryRadius(String, int, int, int, Consumer)
+         */
+        public void queryRadius(@NotNull WorldHandle world, int x, int z, int radius,
+                @NotNull Consumer<? super T> action) {
+            if (radius < 0)
+                throw new IllegalArgumentException("radius < 0: " + radius);
+
+            RadiusFilter circle = new RadiusFilter(x, z, (long) radius * radius);
+            query(view(index.owned(world)), (x - radius) >> 4, (x + radius) >> 4, (z - radius) >> 4,
+                    (z + radius) >> 4, circle, action);
+        }
+
+        WorldView view(WorldHandle handle) {
+            WorldView view = handle.id < views.length ? views[handle.id] : null;
+            return view != null ? view : WorldView.EMPTY;
+        }
+    }
+
+    /**
+     * View imutável publicada de um mundo.
+     */
+    record WorldView(
+            LayeredLongMap chunks,
+            LayeredLongMap spans,
+            LayeredLongMap regions,
+            long spanAssociations,
+            int spanCount) {
+
+        static final WorldView EMPTY = new WorldView(LayeredLongMap.EMPTY, LayeredLongMap.EMPTY,
+                LayeredLongMap.EMPTY, 0, 0);
+
+        @Nullable
+        Object[] spansAt(int chunkX, int chunkZ) {
+            return spans.isEmpty() ? null : spans.get(regionKeyOfChunk(chunkX, chunkZ));
+        }
+
+        LongOpenHashSet indexedChunks() {
+            LongOpenHashSet result = new LongOpenHashSet(chunks.keySet());
+            if (spans.isEmpty())
+                return result;
+
+            ObjectIterator<Long2ObjectMap.Entry<Object[]>> it = Long2ObjectMaps.fastIterator(spans);
+            while (it.hasNext()) {
+                Long2ObjectMap.Entry<Object[]> entry = it.next();
+                int rMinCx = ChunkKey.unpackX(entry.getLongKey()) << REGION_SHIFT;
+                int rMinCz = ChunkKey.unpackZ(entry.getLongKey()) << REGION_SHIFT;
+                for (Object o : entry.getValue()) {
+                    Registration span = (Registration) o;
+                    int fromCx = Math.max(span.minCx, rMinCx);
+                    int toCx = Math.min(span.maxCx, rMinCx + REGION_SIZE - 1);
+                    int fromCz = Math.max(span.minCz, rMinCz);
+                    int toCz = Math.min(span.maxCz, rMinCz + REGION_SIZE - 1);
+                    for (int cx = fromCx; cx <= toCx; cx++) {
+                        for (int cz = fromCz; cz <= toCz; cz++) {
+                            result.add(ChunkKey.pack(cx, cz));
+                        }
+                    }
+                }
+            }
+            return result;
+        }
     }
 
     /**
      * Estatísticas do índice espacial.
+     *
+     * @param spans              Registros guardados como span (modo span)
+     * @param version            Versão do snapshot publicado
+     * @param lastPublishMicros  Tempo gasto na última publicação de snapshot
      */
-    public record IndexStats(int worlds, int chunks, int associations) {
+    public record IndexStats(int worlds, int chunks, int associations, int spans, long version,
+            long lastPublishMicros) {
     }
 }
@@ -0,0 +1,379 @@
+package com.afterlands.core.spatial;
+
+import it.unimi.dsi.fastutil.Arrays;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Persistência binária de um {@link ChunkSpatialIndex}.
+ *
+ * <p>
+ * Evita consultar e parsear a fonte original (SQL/YAML) em todo restart: o
+ * plugin salva o índice no shutdown (ou periodicamente) e no startup carrega o
+ * arquivo via {@link FileChannel#map} em um único {@link ChunkSpatialIndex#batch}.
+ * Alterações feitas depois do load são deltas normais em memória
+ * (register/unregister).
+ * </p>
+ *
+ * <p>
+ * O mapeamento poupa só a leitura: o índice em memória ainda é reconstruído
+ * via {@code register} (um registro por run de chunks consecutivos em Z), com
+ * custo proporcional ao número de associações.
+ * </p>
+ *
+ * <p>
+ * Formato (big-endian):
+ *
+ * <pre>
+ * int   magic ("ACSI"), int formatVersion, long indexVersion
+ * int   valueCount; valueCount × (int length, bytes do codec)
+ * int   worldCount; por mundo:
+ *         int length + bytes UTF-8 do nome
+ *         int n; long[n] chunkKeys ordenados; int[n] valueIds
+ *         int s; s × (int valueId, int minCx, int maxCx, int minCz, int maxCz)
+ * </pre>
+ *
+ * Cada valor distinto é codificado uma única vez; chunks referenciam o id.
+ * Spans (modo span) são gravados como retângulo, não expandidos.
+ * </p>
+ *
+ * @param <T> Tipo dos valores do índice
+ */
+public final class ChunkSpatialIndexStore<T> {
+
+    private static final int MAGIC = 0x41435349; // "ACSI"
+    private static final int FORMAT_VERSION = 1;
+
+    private final ValueCodec<T> codec;
+
+    public ChunkSpatialIndexStore(@NotNull ValueCodec<T> codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Grava o estado atual do índice de forma atômica (arquivo .tmp + move).
+     *
+     * <p>
+     * Usa um snapshot consistente; pode rodar fora da main thread.
+     * </p>
+     *
+     * @return Número de associações (valor-chunk expandidas + spans) gravadas
+     */
+    public int save(@NotNull ChunkSpatialIndex<T> index, @NotNull Path file) throws IOException {
+        // Publica escritas pendentes para gravar a versão mais recente
+        index.batch(idx -> {
+        });
+        ChunkSpatialIndex.Snapshot<T> snapshot = index.snapshot();
+        List<ChunkSpatialIndex.WorldHandle> handles = new ObjectArrayList<>(index.worldHandles());
+
+        // Tabela de valores distintos
+        Object2IntOpenHashMap<Object> ids = new Object2IntOpenHashMap<>();
+        ids.defaultReturnValue(-1);
+        List<Object> values = new ObjectArrayList<>();
+        for (ChunkSpatialIndex.WorldHandle handle : handles) {
+            ChunkSpatialIndex.WorldView view = snapshot.view(handle);
+            for (Object[] bucket : view.chunks().values()) {
+                for (Object value : bucket) {
+                    assignId(ids, values, value);
+                }
+            }
+            for (Object[] spans : view.spans().values()) {
+                for (Object span : spans) {
+                    assignId(ids, values, ((ChunkSpatialIndex.Registration) span).value());
+                }
+            }
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int written = 0;
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(snapshot.version());
+
+            ByteArrayOutputStream valueBytes = new ByteArrayOutputStream();
+            DataOutputStream valueOut = new DataOutputStream(valueBytes);
+            out.writeInt(values.size());
+            for (Object value : values) {
+                valueBytes.reset();
+                writeValue(value, valueOut);
+                valueOut.flush();
+                out.writeInt(valueBytes.size());
+                valueBytes.writeTo(out);
+            }
+
+            out.writeInt(handles.size());
+            for (ChunkSpatialIndex.WorldHandle handle : handles) {
+                ChunkSpatialIndex.WorldView view = snapshot.view(handle);
+                byte[] name = handle.name().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+                written += writeChunks(out, view, ids);
+                written += writeSpans(out, view, ids);
+            }
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // Filesystem sem move atômico
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return written;
+    }
+
+    /**
+     * Carrega um arquivo gravado por {@link #save} para dentro do índice.
+     *
+     * <p>
+     * O arquivo é mapeado em memória e aplicado em um único batch (uma única
+     * publicação). O conteúdo é somado ao que já existe no índice; chame
+     * {@link ChunkSpatialIndex#clear()} antes para substituir. Chunks
+     * consecutivos (em Z) com o mesmo valor são reagrupados em um único registro.
+     * </p>
+     *
+     * @return Número de associações (valor-chunk expandidas + spans) carregadas
+     * @throws IOException Se o arquivo não existir ou estiver corrompido (um
+     *                     arquivo truncado no meio pode deixar o índice
+     *                     parcialmente carregado)
+     */
+    public int load(@NotNull ChunkSpatialIndex<T> index, @NotNull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < 16 || buffer.getInt() != MAGIC) {
+                throw new IOException("Arquivo de índice inválido: " + file);
+            }
+            int format = buffer.getInt();
+            if (format != FORMAT_VERSION) {
+                throw new IOException("Versão de formato não suportada (" + format + "): " + file);
+            }
+            buffer.getLong(); // versão do índice no momento do save (diagnóstico)
+
+            int valueCount = buffer.getInt();
+            Object[] values = new Object[valueCount];
+            for (int i = 0; i < valueCount; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                values[i] = codec.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+            }
+
+            int worldCount = buffer.getInt();
+            int[] loaded = new int[1];
+            IOException[] failure = new IOException[1];
+            index.batch(idx -> {
+                try {
+                    for (int w = 0; w < worldCount; w++) {
+                        ChunkSpatialIndex.WorldHandle handle = idx.world(readName(buffer));
+                        loaded[0] += readChunks(buffer, idx, handle, values);
+                        loaded[0] += readSpans(buffer, idx, handle, values);
+                    }
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            return loaded[0];
+        } catch (RuntimeException e) {
+            // BufferUnderflow/IndexOutOfBounds = arquivo truncado
+            throw new IOException("Arquivo de índice corrompido: " + file, e);
+        }
+    }
+
+    // --- Escrita ---
+
+    @SuppressWarnings("unchecked")
+    private void writeValue(Object value, DataOutput out) throws IOException {
+        codec.write((T) value, out);
+    }
+
+    private static void assignId(Object2IntOpenHashMap<Object> ids, List<Object> values, Object value) {
+        if (ids.getInt(value) < 0) {
+            ids.put(value, values.size());
+            values.add(value);
+        }
+    }
+
+    private static int writeChunks(DataOutputStream out, ChunkSpatialIndex.WorldView view,
+            Object2IntOpenHashMap<Object> ids) throws IOException {
+        LongArrayList keys = new LongArrayList();
+        IntArrayList valueIds = new IntArrayList();
+        for (Long2ObjectMap.Entry<Object[]> entry : Long2ObjectMaps.fastIterable(view.chunks())) {
+            for (Object value : entry.getValue()) {
+                keys.add(entry.getLongKey());
+                valueIds.add(ids.getInt(value));
+            }
+        }
+
+        long[] k = keys.elements();
+        int[] v = valueIds.elements();
+        int n = keys.size();
+        Arrays.quickSort(0, n, (a, b) -> {
+            int c = Long.compare(k[a], k[b]);
+            return c != 0 ? c : Integer.compare(v[a], v[b]);
+        }, (a, b) -> {
+            long tk = k[a];
+            k[a] = k[b];
+            k[b] = tk;
+            int tv = v[a];
+            v[a] = v[b];
+            v[b] = tv;
+        });
+
+        out.writeInt(n);
+        for (int i = 0; i < n; i++) {
+            out.writeLong(k[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            out.writeInt(v[i]);
+        }
+        return n;
+    }
+
+    private static int writeSpans(DataOutputStream out, ChunkSpatialIndex.WorldView view,
+            Object2IntOpenHashMap<Object> ids) throws IOException {
+        // Um span aparece em todas as regiões que cobre; grava uma vez
+        ReferenceOpenHashSet<Object> unique = new ReferenceOpenHashSet<>();
+        for (Object[] spans : view.spans().values()) {
+            for (Object span : spans) {
+                unique.add(span);
+            }
+        }
+
+        out.writeInt(unique.size());
+        for (Object o : unique) {
+            ChunkSpatialIndex.Registration span = (ChunkSpatialIndex.Registration) o;
+            out.writeInt(ids.getInt(span.value()));
+            out.writeInt(span.minCx());
+            out.writeInt(span.maxCx());
+            out.writeInt(span.minCz());
+            out.writeInt(span.maxCz());
+        }
+        return unique.size();
+    }
+
+    // --- Leitura ---
+
+    private static String readName(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int readChunks(MappedByteBuffer buffer, ChunkSpatialIndex<T> index, ChunkSpatialIndex.WorldHandle handle,
+            Object[] values) throws IOException {
+        int n = buffer.getInt();
+        int keysOffset = buffer.position();
+        // offsets em long: n grande (ou corrompido) estouraria int
+        long idsOffsetLong = keysOffset + (long) n * Long.BYTES;
+        long endOffset = idsOffsetLong + (long) n * Integer.BYTES;
+        if (n < 0 || endOffset > buffer.limit()) {
+            throw new IOException("Seção de chunks fora do arquivo (n=" + n + ")");
+        }
+        int idsOffset = (int) idsOffsetLong;
+
+        // valueId -> run aberto {x, zStart, zEnd}
+        Int2ObjectOpenHashMap<int[]> runs = new Int2ObjectOpenHashMap<>();
+        for (int i = 0; i < n; i++) {
+            long key = buffer.getLong((int) (keysOffset + (long) i * Long.BYTES));
+            int valueId = buffer.getInt((int) (idsOffset + (long) i * Integer.BYTES));
+            if (valueId < 0 || valueId >= values.length) {
+                throw new IOException("valueId fora do range: " + valueId);
+            }
+
+            int x = ChunkKey.unpackX(key);
+            int z = ChunkKey.unpackZ(key);
+            int[] run = runs.get(valueId);
+            if (run != null && run[0] == x && (long) run[2] + 1 == z) {
+                run[2] = z;
+                continue;
+            }
+            if (run != null) {
+                index.register(handle, run[0], run[0], run[1], run[2], (T) values[valueId]);
+            }
+            runs.put(valueId, new int[] { x, z, z });
+        }
+        for (Int2ObjectOpenHashMap.Entry<int[]> entry : runs.int2ObjectEntrySet()) {
+            int[] run = entry.getValue();
+            index.register(handle, run[0], run[0], run[1], run[2], (T) values[entry.getIntKey()]);
+        }
+
+        buffer.position((int) endOffset);
+        return n;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int readSpans(MappedByteBuffer buffer, ChunkSpatialIndex<T> index, ChunkSpatialIndex.WorldHandle handle,
+            Object[] values) throws IOException {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            int valueId = buffer.getInt();
+            if (valueId < 0 || valueId >= values.length) {
+                throw new IOException("valueId fora do range: " + valueId);
+            }
+            int minCx = buffer.getInt();
+            int maxCx = buffer.getInt();
+            int minCz = buffer.getInt();
+            int maxCz = buffer.getInt();
+            index.register(handle, minCx, maxCx, minCz, maxCz, (T) values[valueId]);
+        }
+        return count;
+    }
+
+    /**
+     * Codec de valores para o arquivo de índice.
+     *
+     * <p>
+     * Cada valor distinto é codificado uma vez; a implementação deve ser
+     * determinística e o decode deve produzir um valor {@code equals} ao original.
+     * </p>
+     */
+    public interface ValueCodec<T> {
+
+        void write(@NotNull T value, @NotNull DataOutput out) throws IOException;
+
+        @NotNull
+        T read(@NotNull DataInput in) throws IOException;
+
+        /**
+         * Codec para valores String (ex: IDs de região).
+         */
+        ValueCodec<String> STRING = new ValueCodec<>() {
+            @Override
+            public void write(@NotNull String value, @NotNull DataOutput out) throws IOException {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            @Override
+            @NotNull
+            public String read(@NotNull DataInput in) throws IOException {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
@@ -0,0 +1,163 @@
+package com.afterlands.core.spatial;
+
+import it.unimi.dsi.fastutil.longs.AbstractLong2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.AbstractObjectSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Mapa imutável chunk → bucket publicado pelo {@link ChunkSpatialIndex}: uma
+ * base compartilhada entre snapshots mais um delta pequeno com as chaves
+ * alteradas desde a base.
+ *
+ * <p>
+ * Publicar custa O(delta + chaves alteradas) em vez de copiar o mundo inteiro.
+ * Quando o delta passa de ~√(tamanho da base) (mínimo {@value #MIN_DELTA}), a
+ * publicação compacta em uma base nova; o custo amortizado por publicação fica
+ * em O(√n).
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Imutável (base e delta nunca são mutados após a
+ * publicação).
+ * </p>
+ */
+final class LayeredLongMap extends AbstractLong2ObjectMap<Object[]> {
+
+    private static final int MIN_DELTA = 64;
+
+    // chave removida em relação à base
+    private static final Object[] TOMBSTONE = new Object[0];
+
+    static final LayeredLongMap EMPTY = new LayeredLongMap(new Long2ObjectOpenHashMap<>(),
+            new Long2ObjectOpenHashMap<>(), 0);
+
+    private final Long2ObjectOpenHashMap<Object[]> base;
+    private final Long2ObjectOpenHashMap<Object[]> delta;
+    private final int size;
+
+    private LayeredLongMap(Long2ObjectOpenHashMap<Object[]> base, Long2ObjectOpenHashMap<Object[]> delta,
+            int size) {
+        this.base = base;
+        this.delta = delta;
+        this.size = size;
+    }
+
+    /**
+     * Publica o estado do mapa mestre.
+     *
+     * @param previous Versão publicada anterior (null = copiar tudo)
+     * @param master   Mapa mestre (não é retido)
+     * @param dirty    Chaves alteradas no mestre desde {@code previous}
+     */
+    @NotNull
+    static LayeredLongMap publish(@Nullable LayeredLongMap previous, @NotNull Long2ObjectOpenHashMap<Object[]> master,
+            @NotNull LongSet dirty) {
+        if (master.isEmpty()) {
+            return EMPTY;
+        }
+        if (previous == null || previous.base.isEmpty()
+                || previous.delta.size() + dirty.size() > Math.max(MIN_DELTA, (int) Math.sqrt(previous.base.size()))) {
+            return new LayeredLongMap(master.clone(), new Long2ObjectOpenHashMap<>(), master.size());
+        }
+
+        Long2ObjectOpenHashMap<Object[]> delta = previous.delta.clone();
+        LongIterator it = dirty.iterator();
+        while (it.hasNext()) {
+            long key = it.nextLong();
+            Object[] value = master.get(key);
+            if (value != null) {
+                delta.put(key, value);
+            } else if (previous.base.containsKey(key)) {
+                delta.put(key, TOMBSTONE);
+            } else {
+                delta.remove(key);
+            }
+        }
+        return new LayeredLongMap(previous.base, delta, master.size());
+    }
+
+    @Override
+    public Object[] get(long key) {
+        if (!delta.isEmpty()) {
+            Object[] value = delta.get(key);
+            if (value != null) {
+                return value == TOMBSTONE ? null : value;
+            }
+        }
+        return base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ObjectSet<Long2ObjectMap.Entry<Object[]>> long2ObjectEntrySet() {
+        return new AbstractObjectSet<>() {
+            @Override
+            public ObjectIterator<Long2ObjectMap.Entry<Object[]>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Entradas do delta (sem tombstones) seguidas das da base não sobrescritas.
+     */
+    private final class EntryIterator implements ObjectIterator<Long2ObjectMap.Entry<Object[]>> {
+        private final ObjectIterator<Long2ObjectMap.Entry<Object[]>> deltaIt = Long2ObjectMaps.fastIterator(delta);
+        private final ObjectIterator<Long2ObjectMap.Entry<Object[]>> baseIt = Long2ObjectMaps.fastIterator(base);
+        private Long2ObjectMap.Entry<Object[]> next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (deltaIt.hasNext()) {
+                    Long2ObjectMap.Entry<Object[]> entry = deltaIt.next();
+                    if (entry.getValue() != TOMBSTONE) {
+                        next = new BasicEntry<>(entry.getLongKey(), entry.getValue());
+                    }
+                } else if (baseIt.hasNext()) {
+                    Long2ObjectMap.Entry<Object[]> entry = baseIt.next();
+                    if (!delta.containsKey(entry.getLongKey())) {
+                        next = new BasicEntry<>(entry.getLongKey(), entry.getValue());
+                    }
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Long2ObjectMap.Entry<Object[]> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Long2ObjectMap.Entry<Object[]> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.afterlands.core.util.reflect;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.util.function.Function;
+
+/**
+ * Envio de pacotes NMS (1.8.8) sem ProtocolLib: chat (inclui action bar),
+ * title e envio pela {@code PlayerConnection}.
+ *
+ * <p>
+ * Os métodos NMS são ligados uma vez via {@link ReflectionBridge}; em versões
+ * sem esses símbolos {@link #isAvailable()} é false e o chamador usa a API
+ * Bukkit.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Thread-safe (ligações imutáveis).
+ * </p>
+ */
+public final class NmsPackets {
+
+    /** Posição do PacketPlayOutChat: chat normal. */
+    public static final byte CHAT = 0;
+    /**
+     * Posição do PacketPlayOutChat: mensagem do sistema (a de
+     * {@code Player.sendMessage}; exibida mesmo com chat em "Commands Only").
+     */
+    public static final byte SYSTEM = 1;
+    /** Posição do PacketPlayOutChat: action bar. */
+    public static final byte ACTION_BAR = 2;
+
+    @FunctionalInterface
+    interface ChatSerializer {
+        Object serialize(String json);
+    }
+
+    @FunctionalInterface
+    interface ChatPacketFactory {
+        Object create(Object component, byte position);
+    }
+
+    @FunctionalInterface
+    interface TitlePacketFactory {
+        Object create(Object action, Object component, int fadeIn, int stay, int fadeOut);
+    }
+
+    @FunctionalInterface
+    interface TimesPacketFactory {
+        Object create(int fadeIn, int stay, int fadeOut);
+    }
+
+    @FunctionalInterface
+    interface HandleGetter {
+        Object getHandle(Player player);
+    }
+
+    @FunctionalInterface
+    interface PacketSender {
+        void send(Object connection, Object packet);
+    }
+
+    private static final ChatSerializer SERIALIZER;
+    private static final ChatPacketFactory CHAT_PACKET;
+    private static final TitlePacketFactory TITLE_PACKET;
+    private static final TimesPacketFactory TIMES_PACKET;
+    private static final Object ACTION_TITLE;
+    private static final Object ACTION_SUBTITLE;
+    private static final HandleGetter HANDLE;
+    private static final Function<Object, Object> CONNECTION;
+    private static final PacketSender SENDER;
+
+    static {
+        ChatSerializer serializer = null;
+        ChatPacketFactory chatPacket = null;
+        TitlePacketFactory titlePacket = null;
+        TimesPacketFactory timesPacket = null;
+        Object actionTitle = null;
+        Object actionSubtitle = null;
+        HandleGetter handle = null;
+        Function<Object, Object> connection = null;
+        PacketSender sender = null;
+        try {
+            String version = Bukkit.getServer().getClass().getPackage().getName().split("\\.")[3];
+            String nms = "net.minecraft.server." + version + ".";
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+            Class<?> baseComponent = ReflectionBridge.findClass(nms + "IChatBaseComponent");
+            Class<?> packetClass = ReflectionBridge.findClass(nms + "Packet");
+
+            serializer = ReflectionBridge.bind(lookup, ChatSerializer.class, ReflectionBridge.findMethod(
+                    ReflectionBridge.findClass(nms + "IChatBaseComponent$ChatSerializer"), "a", String.class));
+            if (baseComponent != null) {
+                chatPacket = ReflectionBridge.bind(lookup, ChatPacketFactory.class, ReflectionBridge.findConstructor(
+                        ReflectionBridge.findClass(nms + "PacketPlayOutChat"), baseComponent, byte.class));
+            }
+
+            Class<?> titleClass = ReflectionBridge.findClass(nms + "PacketPlayOutTitle");
+            Class<?> titleAction = ReflectionBridge.findClass(nms + "PacketPlayOutTitle$EnumTitleAction");
+            if (baseComponent != null && titleAction != null && titleAction.isEnum()) {
+                for (Object constant : titleAction.getEnumConstants()) {
+                    String name = ((Enum<?>) constant).name();
+                    if (name.equals("TITLE")) {
+                        actionTitle = constant;
+                    } else if (name.equals("SUBTITLE")) {
+                        actionSubtitle = constant;
+                    }
+                }
+                titlePacket = ReflectionBridge.bind(lookup, TitlePacketFactory.class, ReflectionBridge.findConstructor(
+                        titleClass, titleAction, baseComponent, int.class, int.class, int.class));
+            }
+            timesPacket = ReflectionBridge.bind(lookup, TimesPacketFactory.class,
+                    ReflectionBridge.findConstructor(titleClass, int.class, int.class, int.class));
+            handle = ReflectionBridge.bind(lookup, HandleGetter.class, ReflectionBridge.findMethod(
+                    ReflectionBridge.findClass("org.bukkit.craftbukkit." + version + ".entity.CraftPlayer"),
+                    "getHandle"));
+            connection = ReflectionBridge.getter(lookup, ReflectionBridge.findField(
+                    ReflectionBridge.findClass(nms + "EntityPlayer"), "playerConnection"));
+            if (packetClass != null) {
+                sender = ReflectionBridge.bind(lookup, PacketSender.class, ReflectionBridge.findMethod(
+                        ReflectionBridge.findClass(nms + "PlayerConnection"), "sendPacket", packetClass));
+            }
+        } catch (RuntimeException | LinkageError ignored) {
+            // formato de versão desconhecido: sem NMS
+        }
+        SERIALIZER = serializer;
+        CHAT_PACKET = chatPacket;
+        TITLE_PACKET = titlePacket;
+        TIMES_PACKET = timesPacket;
+        ACTION_TITLE = actionTitle;
+        ACTION_SUBTITLE = actionSubtitle;
+        HANDLE = handle;
+        CONNECTION = connection;
+        SENDER = sender;
+    }
+
+    private NmsPackets() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Indica se chat packets e envio direto estão disponíveis.
+     */
+    public static boolean isAvailable() {
+        return SERIALIZER != null && CHAT_PACKET != null && canSend();
+    }
+
+    /**
+     * Indica se {@link #sendPacket} está disponível.
+     */
+    public static boolean canSend() {
+        return HANDLE != null && CONNECTION != null && SENDER != null;
+    }
+
+    /**
+     * Cria um PacketPlayOutChat a partir de um componente JSON.
+     *
+     * <p>
+     * O pacote pode ser enviado a vários players.
+     * </p>
+     *
+     * @param json     Componente de chat em JSON
+     * @param position {@link #CHAT}, {@link #SYSTEM} ou {@link #ACTION_BAR}
+     * @return Pacote NMS, ou null se indisponível
+     */
+    @Nullable
+    public static Object chatPacket(@NotNull String json, byte position) {
+        if (SERIALIZER == null || CHAT_PACKET == null) {
+            return null;
+        }
+        return CHAT_PACKET.create(SERIALIZER.serialize(json), position);
+    }
+
+    /**
+     * Cria os pacotes de um title: tempos, subtitle e title, nessa ordem de
+     * envio.
+     *
+     * <p>
+     * Os pacotes podem ser enviados a vários players.
+     * </p>
+     *
+     * @param titleJson    Title em JSON
+     * @param subtitleJson Subtitle em JSON
+     * @return Pacotes NMS, ou null se indisponível
+     */
+    @Nullable
+    public static Object[] titlePackets(@NotNull String titleJson, @NotNull String subtitleJson, int fadeIn,
+            int stay, int fadeOut) {
+        if (SERIALIZER == null || TITLE_PACKET == null || TIMES_PACKET == null
+                || ACTION_TITLE == null || ACTION_SUBTITLE == null) {
+            return null;
+        }
+        return new Object[] {
+                TIMES_PACKET.create(fadeIn, stay, fadeOut),
+                TITLE_PACKET.create(ACTION_SUBTITLE, SERIALIZER.serialize(subtitleJson), -1, -1, -1),
+                TITLE_PACKET.create(ACTION_TITLE, SERIALIZER.serialize(titleJson), -1, -1, -1)
+        };
+    }
+
+    /**
+     * Componente JSON de texto simples (códigos de cor legados preservados).
+     */
+    @NotNull
+    public static String textJson(@NotNull String text) {
+        return "{\"text\":\"" + text.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t") + "\"}";
+    }
+
+    /**
+     * Envia um pacote NMS pela conexão do player.
+     *
+     * @return false se o envio direto não estiver disponível
+     */
+    public static boolean sendPacket(@NotNull Player player, @NotNull Object packet) {
+        if (!canSend()) {
+            return false;
+        }
+        Object connection = CONNECTION.apply(HANDLE.getHandle(player));
+        if (connection == null) {
+            return false;
+        }
+        SENDER.send(connection, packet);
+        return true;
+    }
+}
@@ -0,0 +1,220 @@
+package com.afterlands.core.util.reflect;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleProxies;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+
+/**
+ * Liga métodos/construtores/campos resolvidos por reflection a interfaces
+ * funcionais tipadas, uma vez na inicialização.
+ *
+ * <p>
+ * <b>Estratégia:</b> {@link LambdaMetafactory} gera uma classe que chama o alvo
+ * diretamente (mesmo custo de uma chamada normal, inlinável pelo JIT), sem
+ * {@code Method.invoke}, boxing de argumentos ou {@code InvocationTargetException}.
+ * Se a geração falhar, cai para {@link MethodHandleProxies}; se o alvo não
+ * existir, retorna null e o chamador usa o próprio fallback.
+ * </p>
+ *
+ * <p>
+ * <b>Tipos:</b> parâmetros de referência da interface podem ser mais genéricos
+ * que os do alvo (ex.: {@code Object} para tipos NMS; o cast é gerado).
+ * Primitivos devem ser iguais nos dois lados.
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> Thread-safe (sem estado).
+ * </p>
+ */
+public final class ReflectionBridge {
+
+    private ReflectionBridge() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Liga um método (static, virtual ou de interface) ou construtor a uma
+     * interface funcional.
+     *
+     * <p>
+     * Para métodos de instância, o primeiro parâmetro da interface é o receiver.
+     * </p>
+     *
+     * @param lookup             Lookup do chamador (precisa enxergar a interface)
+     * @param functionalInterface Interface funcional alvo
+     * @param target             Método/construtor (null = indisponível)
+     * @return Implementação ligada, ou null se o alvo for null ou incompatível
+     */
+    @Nullable
+    public static <T> T bind(@NotNull MethodHandles.Lookup lookup, @NotNull Class<T> functionalInterface,
+            @Nullable Executable target) {
+        if (target == null) {
+            return null;
+        }
+        Method sam = findSingleAbstractMethod(functionalInterface);
+        if (sam == null) {
+            return null;
+        }
+
+        MethodHandle impl;
+        try {
+            impl = target instanceof Constructor<?> constructor
+                    ? lookup.unreflectConstructor(constructor)
+                    : lookup.unreflect((Method) target);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+
+        MethodType samType = MethodType.methodType(sam.getReturnType(), sam.getParameterTypes());
+        if (impl.type().parameterCount() != samType.parameterCount()) {
+            return null;
+        }
+
+        try {
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    sam.getName(),
+                    MethodType.methodType(functionalInterface),
+                    samType,
+                    impl,
+                    instantiatedType(samType, impl.type()));
+            return functionalInterface.cast(site.getTarget().invoke());
+        } catch (Throwable lambdaFailure) {
+            try {
+                return MethodHandleProxies.asInterfaceInstance(functionalInterface, impl.asType(samType));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Getter de campo de instância ({@code LambdaMetafactory} não liga campos;
+     * usa {@code invokeExact} sobre um handle já adaptado para {@code Object}).
+     *
+     * @return Getter, ou null se o campo for null/inacessível
+     */
+    @Nullable
+    public static Function<Object, Object> getter(@NotNull MethodHandles.Lookup lookup, @Nullable Field field) {
+        if (field == null || Modifier.isStatic(field.getModifiers())) {
+            return null;
+        }
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+        return instance -> {
+            try {
+                return (Object) handle.invokeExact(instance);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        };
+    }
+
+    @Nullable
+    public static Class<?> findClass(@NotNull String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    public static Method findMethod(@Nullable Class<?> owner, @NotNull String name, @NotNull Class<?>... params) {
+        if (owner == null) {
+            return null;
+        }
+        try {
+            return owner.getMethod(name, params);
+        } catch (NoSuchMethodException | LinkageError e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    public static Constructor<?> findConstructor(@Nullable Class<?> owner, @NotNull Class<?>... params) {
+        if (owner == null) {
+            return null;
+        }
+        try {
+            return owner.getConstructor(params);
+        } catch (NoSuchMethodException | LinkageError e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    public static Field findField(@Nullable Class<?> owner, @NotNull String name) {
+        if (owner == null) {
+            return null;
+        }
+        try {
+            return owner.getField(name);
+        } catch (NoSuchFieldException | LinkageError e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Method findSingleAbstractMethod(Class<?> functionalInterface) {
+        if (!functionalInterface.isInterface()) {
+            return null;
+        }
+        Method sam = null;
+        for (Method method : functionalInterface.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers()) || isObjectMethod(method)) {
+                continue;
+            }
+            if (sam != null) {
+                return null;
+            }
+            sam = method;
+        }
+        return sam;
+    }
+
+    // equals/hashCode/toString redeclarados na interface não contam como SAM
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Tipo instanciado: parâmetros de referência especializados para os tipos
+     * do alvo (o LambdaMetafactory gera o cast).
+     */
+    private static MethodType instantiatedType(MethodType samType, MethodType implType) {
+        Class<?>[] params = new Class<?>[samType.parameterCount()];
+        for (int i = 0; i < params.length; i++) {
+            Class<?> samParam = samType.parameterType(i);
+            Class<?> implParam = implType.parameterType(i);
+            params[i] = !samParam.isPrimitive() && !implParam.isPrimitive() && samParam.isAssignableFrom(implParam)
+                    ? implParam
+                    : samParam;
+        }
+        return MethodType.methodType(samType.returnType(), params);
+    }
+}